@@ -0,0 +1,107 @@
+package com.chatbot.benchmark;
+
+import com.chatbot.dto.ChatAnalyticsEvent;
+import com.chatbot.dto.ChatMessageEvent;
+import com.chatbot.dto.ChatSessionEvent;
+import com.chatbot.service.ChatEventCodec;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kafka value encoding of the chat events: binary {@link ChatEventCodec} vs. the
+ * JsonSerializer/JsonDeserializer pair used before. Record sizes are printed at setup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventCodecBenchmark {
+
+    @Param({"message", "session", "analytics"})
+    public String event;
+
+    private Object value;
+    private JsonSerializer<Object> jsonSerializer;
+    private JsonDeserializer<Object> jsonDeserializer;
+    private RecordHeaders headers;
+    private byte[] json;
+    private byte[] binary;
+
+    @Setup
+    public void setup() {
+        String sessionId = MessageCorpus.newSessionId();
+        LocalDateTime now = LocalDateTime.now();
+        value = switch (event) {
+            case "message" -> {
+                ChatMessageEvent message = new ChatMessageEvent();
+                message.setSessionId(sessionId);
+                message.setMessage("How much does the Pro plan cost per month?");
+                message.setSenderType("USER");
+                message.setUserId("user-4711");
+                message.setUserName("Asha");
+                message.setTimestamp(now);
+                message.setMessageType("TEXT");
+                yield message;
+            }
+            case "session" -> {
+                ChatSessionEvent session = new ChatSessionEvent();
+                session.setSessionId(sessionId);
+                session.setUserId("user-4711");
+                session.setUserName("Asha");
+                session.setStatus("ACTIVE");
+                session.setCreatedAt(now);
+                session.setUpdatedAt(now);
+                yield session;
+            }
+            default -> {
+                ChatAnalyticsEvent analytics = new ChatAnalyticsEvent();
+                analytics.setSessionId(sessionId);
+                analytics.setEventType("MESSAGE_SENT");
+                analytics.setMessageType("TEXT");
+                analytics.setUserId("user-4711");
+                analytics.setTimestamp(now);
+                analytics.setMessageCount(2);
+                analytics.setIntent("pricing");
+                analytics.setSegment("registered");
+                yield analytics;
+            }
+        };
+
+        jsonSerializer = new JsonSerializer<>();
+        jsonDeserializer = new JsonDeserializer<>();
+        jsonDeserializer.configure(Map.of(JsonDeserializer.TRUSTED_PACKAGES, "com.chatbot.dto"), false);
+        headers = new RecordHeaders();
+        json = jsonSerializer.serialize("chat-events", headers, value);
+        binary = ChatEventCodec.encode(value);
+        System.out.printf("%n%s event: json=%d bytes (+%d header bytes), binary=%d bytes%n", event, json.length,
+                headers.lastHeader("__TypeId__").value().length + "__TypeId__".length(), binary.length);
+    }
+
+    @Benchmark
+    public byte[] encodeJson() {
+        return jsonSerializer.serialize("chat-events", new RecordHeaders(), value);
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() {
+        return ChatEventCodec.encode(value);
+    }
+
+    @Benchmark
+    public Object decodeJson() {
+        return jsonDeserializer.deserialize("chat-events", headers, json);
+    }
+
+    @Benchmark
+    public Object decodeBinary() {
+        return ChatEventCodec.decode(binary);
+    }
+}
@@ -0,0 +1,116 @@
+package com.chatbot.benchmark;
+
+import com.chatbot.entity.ChatMessage;
+import com.chatbot.entity.ChatSession;
+import com.chatbot.entity.OutboxEvent;
+import com.chatbot.repository.ChatMessageRepository;
+import com.chatbot.repository.ChatSessionRepository;
+import com.chatbot.repository.OutboxEventRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Repository stand-ins that keep the service code path intact while taking the
+ * database out of the measurement.
+ */
+final class InMemoryRepositories {
+
+    private InMemoryRepositories() {
+    }
+
+    static ChatSessionRepository sessions() {
+        ConcurrentHashMap<String, ChatSession> store = new ConcurrentHashMap<>();
+        AtomicLong ids = new AtomicLong();
+        return (ChatSessionRepository) Proxy.newProxyInstance(
+                ChatSessionRepository.class.getClassLoader(),
+                new Class<?>[]{ChatSessionRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findBySessionId" -> Optional.ofNullable(store.get((String) args[0]));
+                    case "findById" -> store.values().stream().filter(s -> args[0].equals(s.getId())).findFirst();
+                    case "save" -> {
+                        ChatSession session = (ChatSession) args[0];
+                        if (session.getId() == null) {
+                            session.setId(ids.incrementAndGet());
+                            session.setCreatedAt(LocalDateTime.now());
+                        }
+                        store.put(session.getSessionId(), session);
+                        yield session;
+                    }
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemoryChatSessionRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    static ChatMessageRepository messages() {
+        AtomicLong ids = new AtomicLong();
+        return (ChatMessageRepository) Proxy.newProxyInstance(
+                ChatMessageRepository.class.getClassLoader(),
+                new Class<?>[]{ChatMessageRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "save" -> {
+                        ChatMessage message = (ChatMessage) args[0];
+                        message.setId(ids.incrementAndGet());
+                        message.setTimestamp(LocalDateTime.now());
+                        yield message;
+                    }
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemoryChatMessageRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    static OutboxEventRepository outbox() {
+        AtomicLong ids = new AtomicLong();
+        return (OutboxEventRepository) Proxy.newProxyInstance(
+                OutboxEventRepository.class.getClassLoader(),
+                new Class<?>[]{OutboxEventRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "save" -> {
+                        OutboxEvent event = (OutboxEvent) args[0];
+                        event.setId(ids.incrementAndGet());
+                        event.setCreatedAt(LocalDateTime.now());
+                        yield event;
+                    }
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemoryOutboxEventRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /**
+     * Transaction manager that only drives transaction synchronization, so after-commit
+     * callbacks run as they would against the database.
+     */
+    static PlatformTransactionManager transactions() {
+        return new AbstractPlatformTransactionManager() {
+            @Override
+            protected Object doGetTransaction() {
+                return new Object();
+            }
+
+            @Override
+            protected void doBegin(Object transaction, TransactionDefinition definition) {
+            }
+
+            @Override
+            protected void doCommit(DefaultTransactionStatus status) {
+            }
+
+            @Override
+            protected void doRollback(DefaultTransactionStatus status) {
+            }
+        };
+    }
+}
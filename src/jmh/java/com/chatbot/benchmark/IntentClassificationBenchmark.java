@@ -0,0 +1,77 @@
+package com.chatbot.benchmark;
+
+import com.chatbot.service.IntentMatcher;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Intent classification over the message corpus: compiled automaton vs. the former
+ * sequential regex chain.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IntentClassificationBenchmark {
+
+    private IntentMatcher matcher;
+    private Map<String, Pattern> legacyPatterns;
+    private String[] messages;
+
+    @Setup
+    public void setup() {
+        matcher = IntentMatcher.builder()
+                .intent("greeting", "hello", "hi", "hey", "good morning", "good afternoon")
+                .intent("pricing", "price", "cost", "how much", "fee", "charges")
+                .intent("support", "help", "support", "issue", "problem", "error")
+                .intent("contact", "contact", "email", "phone", "call", "speak to human")
+                .intent("thanks", "thank", "thanks", "appreciate")
+                .intent("bye", "bye", "goodbye", "see you", "later")
+                .intent("product", "product", "feature", "service", "what can you do")
+                .build();
+
+        legacyPatterns = new LinkedHashMap<>();
+        legacyPatterns.put("greeting", Pattern.compile("(?i)(hello|hi|hey|good morning|good afternoon)"));
+        legacyPatterns.put("pricing", Pattern.compile("(?i)(price|cost|how much|fee|charges)"));
+        legacyPatterns.put("support", Pattern.compile("(?i)(help|support|issue|problem|error)"));
+        legacyPatterns.put("contact", Pattern.compile("(?i)(contact|email|phone|call|speak to human)"));
+        legacyPatterns.put("thanks", Pattern.compile("(?i)(thank|thanks|appreciate)"));
+        legacyPatterns.put("bye", Pattern.compile("(?i)(bye|goodbye|see you|later)"));
+
+        messages = MessageCorpus.MESSAGES.toArray(new String[0]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(24)
+    public int automaton() {
+        int hits = 0;
+        for (String message : messages) {
+            if (matcher.classify(message) != null) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(24)
+    public int legacyRegexChain() {
+        int hits = 0;
+        for (String message : messages) {
+            String lower = message.toLowerCase();
+            for (Pattern pattern : legacyPatterns.values()) {
+                if (pattern.matcher(lower).find()) {
+                    hits++;
+                    break;
+                }
+            }
+        }
+        return hits;
+    }
+}
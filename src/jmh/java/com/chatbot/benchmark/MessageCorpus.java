@@ -0,0 +1,55 @@
+package com.chatbot.benchmark;
+
+import com.chatbot.dto.ChatRequest;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Representative customer messages, weighted towards the unmatched (default) branch
+ * that most real traffic ends up in.
+ */
+final class MessageCorpus {
+
+    static final List<String> MESSAGES = List.of(
+            "Hello",
+            "hi there, I need some information",
+            "Good morning! Is anyone available?",
+            "How much does the Pro plan cost per month?",
+            "what are your charges for 50 users",
+            "I'm getting an error when I try to log in",
+            "The app keeps crashing, can you help me?",
+            "Can I speak to human please",
+            "What is your support email address?",
+            "Thanks a lot, that solved it",
+            "ok bye",
+            "See you later",
+            "Do you ship to Germany?",
+            "My order number is 4839201 and it has not arrived yet",
+            "Can I change the name on my account",
+            "Is there a discount for students or non-profits",
+            "I would like to cancel my subscription at the end of the month",
+            "Where can I download my invoices from last year",
+            "do you integrate with slack",
+            "The dashboard loads really slowly since yesterday's update",
+            "pricing",
+            "support",
+            "contact",
+            "features");
+
+    private MessageCorpus() {
+    }
+
+    static ChatRequest request(String sessionId, String message) {
+        ChatRequest request = new ChatRequest();
+        request.setSessionId(sessionId);
+        request.setUserId("user-" + Math.abs(sessionId.hashCode() % 1000));
+        request.setUserName("Benchmark User");
+        request.setMessage(message);
+        return request;
+    }
+
+    static String newSessionId() {
+        return "bench-" + UUID.randomUUID();
+    }
+}
@@ -0,0 +1,93 @@
+package com.chatbot.benchmark;
+
+import com.chatbot.ChatbotApplication;
+import com.chatbot.service.ChatBotService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Full {@code processMessage} path (session lookup, message inserts, response
+ * construction, commit) against an embedded H2 database, with messages stored in H2 or
+ * in the memory-mapped message log.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ProcessMessageBenchmark {
+
+    @Param({"1000"})
+    public int sessions;
+
+    @Param({"jpa", "log"})
+    public String messageStore;
+
+    private Path logDirectory;
+    private ConfigurableApplicationContext context;
+    private ChatBotService chatBotService;
+    private String[] sessionIds;
+
+    @Setup(Level.Trial)
+    public void startApplication() throws IOException {
+        logDirectory = Files.createTempDirectory("message-log");
+        context = new SpringApplicationBuilder(ChatbotApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:bench;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=validate",
+                        "spring.kafka.listener.auto-startup=false",
+                        "spring.kafka.admin.auto-create=false",
+                        "chatbot.outbox.relay.enabled=false",
+                        "chatbot.message-store.type=" + messageStore,
+                        "chatbot.message-store.log.directory=" + logDirectory,
+                        "logging.level.com.chatbot=WARN")
+                .run();
+        chatBotService = context.getBean(ChatBotService.class);
+
+        sessionIds = new String[sessions];
+        for (int i = 0; i < sessions; i++) {
+            sessionIds[i] = MessageCorpus.newSessionId();
+            chatBotService.processMessage(MessageCorpus.request(sessionIds[i], "hi"));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() throws IOException {
+        context.close();
+        try (Stream<Path> files = Files.list(logDirectory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(logDirectory);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object existingSession() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String sessionId = sessionIds[random.nextInt(sessionIds.length)];
+        // Skip "bye" messages so sessions stay active for the whole run
+        String message = MessageCorpus.MESSAGES.get(random.nextInt(MessageCorpus.MESSAGES.size()));
+        if (message.contains("bye") || message.contains("later")) {
+            message = "Do you ship to Germany?";
+        }
+        return chatBotService.processMessage(MessageCorpus.request(sessionId, message));
+    }
+
+    @Benchmark
+    public Object newSession() {
+        return chatBotService.processMessage(MessageCorpus.request(MessageCorpus.newSessionId(), "Hello"));
+    }
+}
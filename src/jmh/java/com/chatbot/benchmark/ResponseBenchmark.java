@@ -0,0 +1,145 @@
+package com.chatbot.benchmark;
+
+import com.chatbot.dto.ChatHistoryResponse;
+import com.chatbot.dto.ChatMessageDTO;
+import com.chatbot.dto.ChatResponse;
+import com.chatbot.config.KnowledgeBaseProperties;
+import com.chatbot.config.OutboxProperties;
+import com.chatbot.config.SessionCacheProperties;
+import com.chatbot.config.SessionExecutorProperties;
+import com.chatbot.config.SessionExpiryProperties;
+import com.chatbot.config.StreamProperties;
+import com.chatbot.config.WriteBehindProperties;
+import com.chatbot.repository.ChatSessionRepository;
+import com.chatbot.repository.JpaMessageStore;
+import com.chatbot.repository.MessageStore;
+import com.chatbot.service.ActiveSessionRegistry;
+import com.chatbot.service.ChatBotService;
+import com.chatbot.service.ChatMetrics;
+import com.chatbot.service.ChatMessageWriter;
+import com.chatbot.service.ChatResponseEncoder;
+import com.chatbot.service.KafkaProducerService;
+import com.chatbot.service.MessageStreamHub;
+import com.chatbot.service.OutboxService;
+import com.chatbot.service.ResponseCatalog;
+import com.chatbot.service.SessionCache;
+import com.chatbot.service.SessionExpiryService;
+import com.chatbot.service.SessionSerialExecutor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response construction (intent dispatch, canned texts, quick-reply builders) and JSON
+ * encoding of the REST DTOs, with the database stubbed out.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseBenchmark {
+
+    @Param({"greeting", "pricing", "default"})
+    public String intent;
+
+    private ChatBotService chatBotService;
+    private ObjectMapper objectMapper;
+    private ChatResponseEncoder encoder;
+    private String sessionId;
+    private String message;
+    private ChatResponse response;
+    private ChatHistoryResponse history;
+
+    @Setup
+    public void setup() {
+        ChatSessionRepository sessions = InMemoryRepositories.sessions();
+        MessageStore messages = new JpaMessageStore(InMemoryRepositories.messages());
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        // Same defaults as the Spring Boot auto-configured mapper (ISO dates, JavaTimeModule)
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        ActiveSessionRegistry activeSessions = new ActiveSessionRegistry(sessions);
+        SessionCache sessionCache = new SessionCache(sessions, activeSessions, new SessionCacheProperties(), registry);
+        KafkaProducerService kafkaProducerService = new KafkaProducerService(new OutboxService(
+                InMemoryRepositories.outbox(), new OutboxProperties(), objectMapper));
+        chatBotService = new ChatBotService(sessions, messages, sessionCache,
+                new ChatMessageWriter(messages,
+                        new MessageStreamHub(messages, objectMapper, new StreamProperties(), registry),
+                        new WriteBehindProperties(), null, registry),
+                null, // read watermarks are not on the send path
+                new ResponseCatalog(objectMapper, new KnowledgeBaseProperties(), new DefaultResourceLoader(), registry),
+                kafkaProducerService,
+                new ChatMetrics(registry, activeSessions),
+                activeSessions,
+                // The sweeper is not scheduled here, so no transaction manager is needed
+                new SessionExpiryService(sessions, sessionCache, activeSessions, kafkaProducerService,
+                        new SessionExpiryProperties(), null, registry),
+                null, // archived transcripts are not on the send path
+                new SessionSerialExecutor(new SessionExecutorProperties(), registry),
+                new TransactionTemplate(InMemoryRepositories.transactions()));
+        encoder = new ChatResponseEncoder(objectMapper);
+        sessionId = MessageCorpus.newSessionId();
+        message = switch (intent) {
+            case "greeting" -> "Hello";
+            case "pricing" -> "How much does the Pro plan cost per month?";
+            default -> "My order number is 4839201 and it has not arrived yet";
+        };
+        chatBotService.processMessage(MessageCorpus.request(sessionId, "hi"));
+        response = chatBotService.processMessage(MessageCorpus.request(sessionId, message));
+        history = history(sessionId, 40);
+    }
+
+    @Benchmark
+    public ChatResponse buildResponse() {
+        return chatBotService.processMessage(MessageCorpus.request(sessionId, message));
+    }
+
+    @Benchmark
+    public byte[] encodeChatResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] encodeWithCatalog() {
+        return encoder.encode(response);
+    }
+
+    @Benchmark
+    public byte[] buildAndEncode() {
+        return encoder.encode(chatBotService.processMessage(MessageCorpus.request(sessionId, message)));
+    }
+
+    @Benchmark
+    public byte[] encodeChatHistory() throws Exception {
+        return objectMapper.writeValueAsBytes(history);
+    }
+
+    private static ChatHistoryResponse history(String sessionId, int size) {
+        List<ChatMessageDTO> messages = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ChatMessageDTO dto = new ChatMessageDTO();
+            dto.setContent(MessageCorpus.MESSAGES.get(i % MessageCorpus.MESSAGES.size()));
+            dto.setSenderType(i % 2 == 0 ? "USER" : "BOT");
+            dto.setMessageType("TEXT");
+            dto.setTimestamp(LocalDateTime.now());
+            dto.setIsRead(i % 2 == 0);
+            messages.add(dto);
+        }
+        ChatHistoryResponse history = new ChatHistoryResponse();
+        history.setSessionId(sessionId);
+        history.setSessionStart(LocalDateTime.now());
+        history.setMessages(messages);
+        return history;
+    }
+}
@@ -0,0 +1,66 @@
+package com.chatbot.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * HTTP client for the chat endpoints a conversation uses.
+ */
+final class ChatApiClient {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper objectMapper;
+    private final String baseUrl;
+
+    ChatApiClient(ObjectMapper objectMapper, String target) {
+        this.objectMapper = objectMapper;
+        this.baseUrl = (target.endsWith("/") ? target.substring(0, target.length() - 1) : target) + "/api/v1/chat";
+    }
+
+    HttpResponse<byte[]> execute(Conversation conversation, Conversation.Step step)
+            throws IOException, InterruptedException {
+        return httpClient.send(request(conversation, step), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    CompletableFuture<HttpResponse<byte[]>> executeAsync(Conversation conversation, Conversation.Step step) {
+        return httpClient.sendAsync(request(conversation, step), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private HttpRequest request(Conversation conversation, Conversation.Step step) {
+        return switch (step.endpoint()) {
+            case SEND -> {
+                ObjectNode body = objectMapper.createObjectNode()
+                        .put("sessionId", conversation.sessionId)
+                        .put("userId", conversation.userId)
+                        .put("userName", "Load Test")
+                        .put("message", step.message());
+                yield HttpRequest.newBuilder(URI.create(baseUrl + "/send"))
+                        .timeout(REQUEST_TIMEOUT)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                        .build();
+            }
+            case HISTORY -> HttpRequest.newBuilder(URI.create(baseUrl + "/history/" + conversation.sessionId))
+                    .timeout(REQUEST_TIMEOUT)
+                    .GET()
+                    .build();
+            case MARK_READ -> HttpRequest.newBuilder(URI.create(baseUrl + "/" + conversation.sessionId + "/mark-read"))
+                    .timeout(REQUEST_TIMEOUT)
+                    .POST(HttpRequest.BodyPublishers.noBody())
+                    .build();
+        };
+    }
+}
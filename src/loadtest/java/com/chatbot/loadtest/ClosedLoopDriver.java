@@ -0,0 +1,76 @@
+package com.chatbot.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Closed loop: a fixed number of users, each on its own thread, going through one
+ * conversation after another and sending the next request when the previous one has
+ * been answered (plus the think time). Throughput is whatever the server sustains at
+ * that concurrency; latency is measured from the moment each request is sent.
+ */
+@Slf4j
+final class ClosedLoopDriver {
+
+    private final LoadTestOptions options;
+    private final ChatApiClient client;
+    private final ObjectMapper objectMapper;
+    private final LatencyStats stats;
+
+    ClosedLoopDriver(LoadTestOptions options, ChatApiClient client, ObjectMapper objectMapper, LatencyStats stats) {
+        this.options = options;
+        this.client = client;
+        this.objectMapper = objectMapper;
+        this.stats = stats;
+    }
+
+    void run(long endNanos) throws InterruptedException {
+        List<Thread> users = new ArrayList<>(options.users());
+        for (int i = 0; i < options.users(); i++) {
+            Random random = new Random(options.seed() + i);
+            Thread user = new Thread(() -> runUser(random, endNanos), "load-user-" + i);
+            user.setDaemon(true);
+            users.add(user);
+            user.start();
+        }
+        for (Thread user : users) {
+            user.join();
+        }
+    }
+
+    private void runUser(Random random, long endNanos) {
+        long thinkNanos = options.thinkTime().toNanos();
+        Conversation conversation = new Conversation(objectMapper, random, options.users());
+        while (System.nanoTime() - endNanos < 0) {
+            Conversation.Step step = conversation.next();
+            long start = System.nanoTime();
+            int status = 0;
+            byte[] body = null;
+            try {
+                HttpResponse<byte[]> response = client.execute(conversation, step);
+                status = response.statusCode();
+                body = response.body();
+            } catch (IOException e) {
+                log.debug("Request failed: {}", e.toString());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            stats.record(step.endpoint(), start, System.nanoTime(), status);
+            conversation.onResponse(step, status, body);
+            if (conversation.isFinished()) {
+                conversation = new Conversation(objectMapper, random, options.users());
+            }
+            if (thinkNanos > 0) {
+                LockSupport.parkNanos(thinkNanos);
+            }
+        }
+    }
+}
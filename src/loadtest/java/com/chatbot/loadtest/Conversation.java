@@ -0,0 +1,126 @@
+package com.chatbot.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Script of one simulated chat session: a greeting, a number of turns and a goodbye.
+ * A turn mostly answers with one of the quick replies of the previous bot response, as
+ * users clicking through the menus do, otherwise it is a free-text question; now and then
+ * the client reloads the history or marks the conversation read instead of sending.
+ */
+final class Conversation {
+
+    enum Endpoint {
+        SEND, HISTORY, MARK_READ;
+
+        final String label = name().toLowerCase().replace('_', '-');
+    }
+
+    record Step(Endpoint endpoint, String message) {
+    }
+
+    private static final List<String> GREETINGS = List.of(
+            "Hello", "hi there, I need some information", "Good morning! Is anyone available?", "hey");
+
+    private static final List<String> QUESTIONS = List.of(
+            "How much does the Pro plan cost per month?",
+            "what are your charges for 50 users",
+            "I'm getting an error when I try to log in",
+            "The app keeps crashing, can you help me?",
+            "What is your support email address?",
+            "Do you ship to Germany?",
+            "My order number is 4839201 and it has not arrived yet",
+            "Can I change the name on my account",
+            "Is there a discount for students or non-profits",
+            "I would like to cancel my subscription at the end of the month",
+            "Where can I download my invoices from last year",
+            "do you integrate with slack",
+            "The dashboard loads really slowly since yesterday's update",
+            "Thanks a lot, that solved it");
+
+    private static final List<String> GOODBYES = List.of("ok bye", "See you later", "goodbye");
+
+    private static final double QUICK_REPLY_SHARE = 0.6;
+    private static final double HISTORY_SHARE = 0.08;
+    private static final double MARK_READ_SHARE = 0.08;
+
+    private final ObjectMapper objectMapper;
+    private final Random random;
+    final String sessionId = "load-" + UUID.randomUUID();
+    final String userId;
+    private int remainingTurns;
+    private boolean started;
+    private boolean finished;
+    private List<String> quickReplies = List.of();
+
+    Conversation(ObjectMapper objectMapper, Random random, int users) {
+        this.objectMapper = objectMapper;
+        this.random = random;
+        this.userId = "load-user-" + random.nextInt(Math.max(1, users * 4));
+        this.remainingTurns = 3 + random.nextInt(10);
+    }
+
+    Step next() {
+        if (!started) {
+            started = true;
+            return send(pick(GREETINGS));
+        }
+        if (remainingTurns == 0) {
+            finished = true;
+            return send(pick(GOODBYES));
+        }
+        remainingTurns--;
+        double roll = random.nextDouble();
+        if (roll < HISTORY_SHARE) {
+            return new Step(Endpoint.HISTORY, null);
+        }
+        if (roll < HISTORY_SHARE + MARK_READ_SHARE) {
+            return new Step(Endpoint.MARK_READ, null);
+        }
+        if (!quickReplies.isEmpty() && random.nextDouble() < QUICK_REPLY_SHARE) {
+            return send(pick(quickReplies));
+        }
+        return send(pick(QUESTIONS));
+    }
+
+    /**
+     * Remembers the quick replies offered in a /send response for the next turn.
+     */
+    void onResponse(Step step, int status, byte[] body) {
+        if (step.endpoint() != Endpoint.SEND || status != 200 || body == null) {
+            return;
+        }
+        try {
+            JsonNode replies = objectMapper.readTree(body).path("quickReplies");
+            List<String> payloads = new ArrayList<>(replies.size());
+            for (JsonNode reply : replies) {
+                String payload = reply.path("payload").asText(null);
+                if (payload != null && !payload.isBlank()) {
+                    payloads.add(payload);
+                }
+            }
+            quickReplies = payloads;
+        } catch (IOException e) {
+            quickReplies = List.of();
+        }
+    }
+
+    boolean isFinished() {
+        return finished;
+    }
+
+    private Step send(String message) {
+        return new Step(Endpoint.SEND, message);
+    }
+
+    private String pick(List<String> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+}
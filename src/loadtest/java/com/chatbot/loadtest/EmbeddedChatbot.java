@@ -0,0 +1,65 @@
+package com.chatbot.loadtest;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.chatbot.ChatbotApplication;
+import com.chatbot.config.KafkaConfig;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+/**
+ * The application on a random port with an in-memory H2 database and an embedded Kafka
+ * broker, with the outbox relay and the listeners running as in production. Per-user and
+ * per-session rate limits are lifted so the generated load reaches the service; the
+ * concurrency limit stays in place.
+ */
+final class EmbeddedChatbot implements AutoCloseable {
+
+    private final EmbeddedKafkaKraftBroker broker;
+    private final ConfigurableApplicationContext context;
+
+    private EmbeddedChatbot(EmbeddedKafkaKraftBroker broker, ConfigurableApplicationContext context) {
+        this.broker = broker;
+        this.context = context;
+    }
+
+    static EmbeddedChatbot start() {
+        // The broker starts before Spring Boot configures logging; keep the report readable
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+        // A devtools restart would run main, and so the broker, a second time
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        EmbeddedKafkaKraftBroker broker = new EmbeddedKafkaKraftBroker(1, KafkaConfig.CHAT_MESSAGES_PARTITIONS,
+                KafkaConfig.CHAT_MESSAGES_TOPIC, KafkaConfig.CHAT_SESSIONS_TOPIC, KafkaConfig.CHAT_ANALYTICS_TOPIC);
+        broker.afterPropertiesSet();
+        try {
+            // Command-line arguments, so they win over application.properties
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(ChatbotApplication.class).run(
+                    "--server.port=0",
+                    "--spring.datasource.url=jdbc:h2:mem:loadtest;MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                    "--spring.kafka.bootstrap-servers=" + broker.getBrokersAsString(),
+                    "--chatbot.admission.user.per-second=1000000",
+                    "--chatbot.admission.user.burst=1000000",
+                    "--chatbot.admission.session.per-second=1000000",
+                    "--chatbot.admission.session.burst=1000000",
+                    "--logging.level.root=WARN",
+                    "--spring.main.banner-mode=off");
+            return new EmbeddedChatbot(broker, context);
+        } catch (RuntimeException e) {
+            broker.destroy();
+            throw e;
+        }
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    @Override
+    public void close() {
+        context.close();
+        broker.destroy();
+    }
+}
@@ -0,0 +1,96 @@
+package com.chatbot.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.PrintStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms and status counts per endpoint. Latency is measured from the time
+ * a request was due to start, which in open-loop mode is its scheduled time rather than
+ * the time it was actually sent, so a stalled server shows up in the tail instead of
+ * thinning out the samples (coordinated omission). Only requests due within the
+ * measurement window are recorded, so warm-up traffic is left out.
+ */
+final class LatencyStats {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final Map<Conversation.Endpoint, EndpointStats> endpoints = new EnumMap<>(Conversation.Endpoint.class);
+    private final long measuringSince;
+    private final long measuringUntil;
+
+    LatencyStats(long measuringSince, long measuringUntil) {
+        this.measuringSince = measuringSince;
+        this.measuringUntil = measuringUntil;
+        for (Conversation.Endpoint endpoint : Conversation.Endpoint.values()) {
+            endpoints.put(endpoint, new EndpointStats());
+        }
+    }
+
+    /**
+     * Records a response; {@code status} is the HTTP status, or 0 when the request failed
+     * without one (connection error, timeout, dropped).
+     */
+    void record(Conversation.Endpoint endpoint, long dueNanos, long endNanos, int status) {
+        if (dueNanos - measuringSince < 0 || dueNanos - measuringUntil >= 0) {
+            return;
+        }
+        EndpointStats stats = endpoints.get(endpoint);
+        long micros = Math.min(MAX_LATENCY_MICROS, Math.max(1, (endNanos - dueNanos) / 1_000));
+        stats.latency.recordValue(micros);
+        if (status >= 200 && status < 300) {
+            stats.ok.increment();
+        } else if (status == 429) {
+            stats.rejected.increment();
+        } else {
+            stats.failed.increment();
+        }
+    }
+
+    void print(PrintStream out) {
+        double seconds = (measuringUntil - measuringSince) / 1e9;
+        out.printf("%-10s %9s %9s %9s %7s %7s %9s %9s %9s %9s%n", "endpoint", "requests", "req/s", "2xx", "429",
+                "errors", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        Histogram total = new Histogram(3);
+        long totalOk = 0;
+        long totalRejected = 0;
+        long totalFailed = 0;
+        for (Map.Entry<Conversation.Endpoint, EndpointStats> entry : endpoints.entrySet()) {
+            EndpointStats stats = entry.getValue();
+            Histogram histogram = stats.latency.getIntervalHistogram();
+            total.add(histogram);
+            totalOk += stats.ok.sum();
+            totalRejected += stats.rejected.sum();
+            totalFailed += stats.failed.sum();
+            printRow(out, entry.getKey().label, histogram, seconds, stats.ok.sum(), stats.rejected.sum(),
+                    stats.failed.sum());
+        }
+        printRow(out, "total", total, seconds, totalOk, totalRejected, totalFailed);
+    }
+
+    private static void printRow(PrintStream out, String label, Histogram histogram, double seconds,
+                                 long ok, long rejected, long failed) {
+        long count = histogram.getTotalCount();
+        out.printf("%-10s %9d %9.1f %9d %7d %7d %9.2f %9.2f %9.2f %9.2f%n", label, count,
+                seconds > 0 ? count / seconds : 0, ok, rejected, failed,
+                millis(histogram, 50), millis(histogram, 99), millis(histogram, 99.9),
+                count == 0 ? 0 : histogram.getMaxValue() / 1000.0);
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getTotalCount() == 0 ? 0 : histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private static final class EndpointStats {
+
+        private final Recorder latency = new Recorder(3);
+        private final LongAdder ok = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+    }
+}
@@ -0,0 +1,56 @@
+package com.chatbot.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * End-to-end load generator for the chat API ({@code /send}, {@code /history},
+ * {@code /mark-read}): starts the application with an embedded database and Kafka broker
+ * (or targets a running instance), replays conversation scripts in closed-loop or
+ * open-loop mode and prints throughput and p50/p99/p99.9 latency per endpoint.
+ *
+ * <pre>
+ * mvn -Ploadtest test-compile exec:exec                                   # closed loop, 50 users
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.mode=open -Dloadtest.rate=500
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.target=http://host:8080
+ * </pre>
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.fromSystemProperties();
+        EmbeddedChatbot embedded = options.embedded() ? EmbeddedChatbot.start() : null;
+        try {
+            String target = embedded != null ? embedded.baseUrl() : options.target();
+            ObjectMapper objectMapper = new ObjectMapper();
+            ChatApiClient client = new ChatApiClient(objectMapper, target);
+
+            System.out.printf("Load test against %s: %s%n", target, describe(options));
+            long measureFrom = System.nanoTime() + options.warmup().toNanos();
+            long end = measureFrom + options.duration().toNanos();
+            LatencyStats stats = new LatencyStats(measureFrom, end);
+            if (options.mode() == LoadTestOptions.Mode.CLOSED) {
+                new ClosedLoopDriver(options, client, objectMapper, stats).run(end);
+            } else {
+                new OpenLoopDriver(options, client, objectMapper, stats).run(end);
+            }
+            System.out.println();
+            stats.print(System.out);
+        } finally {
+            if (embedded != null) {
+                embedded.close();
+            }
+        }
+        System.exit(0);
+    }
+
+    private static String describe(LoadTestOptions options) {
+        String load = options.mode() == LoadTestOptions.Mode.CLOSED
+                ? options.users() + " users, think time " + options.thinkTime().toMillis() + " ms"
+                : options.rate() + " requests/s, at most " + options.maxInFlight() + " in flight";
+        return options.mode().name().toLowerCase() + " loop, " + load + ", warm-up " + options.warmup().toSeconds()
+                + " s, measured " + options.duration().toSeconds() + " s";
+    }
+}
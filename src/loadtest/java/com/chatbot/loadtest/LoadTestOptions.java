@@ -0,0 +1,66 @@
+package com.chatbot.loadtest;
+
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Options of a load-test run, read from {@code loadtest.*} system properties (the
+ * {@code loadtest} Maven profile passes them through).
+ */
+record LoadTestOptions(Mode mode,
+                       int users,
+                       double rate,
+                       Duration duration,
+                       Duration warmup,
+                       Duration thinkTime,
+                       int maxInFlight,
+                       String target,
+                       long seed) {
+
+    enum Mode {
+        // Fixed number of users, each sending its next request once the previous one is answered
+        CLOSED,
+        // Requests start on a fixed schedule, whether or not earlier ones have been answered
+        OPEN
+    }
+
+    static LoadTestOptions fromSystemProperties() {
+        return new LoadTestOptions(
+                Mode.valueOf(property("mode", "closed").toUpperCase()),
+                Integer.parseInt(property("users", "50")),
+                Double.parseDouble(property("rate", "200")),
+                duration(property("duration", "60s")),
+                duration(property("warmup", "10s")),
+                duration(property("think-time", "0s")),
+                Integer.parseInt(property("max-in-flight", "10000")),
+                property("target", ""),
+                Long.parseLong(property("seed", "42")));
+    }
+
+    boolean embedded() {
+        return target.isBlank();
+    }
+
+    private static String property(String name, String defaultValue) {
+        String value = System.getProperty("loadtest." + name);
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    // "90s", "5m", "250ms" or ISO-8601
+    private static Duration duration(String value) {
+        try {
+            if (value.endsWith("ms")) {
+                return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+            }
+            if (value.endsWith("s")) {
+                return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+            }
+            if (value.endsWith("m")) {
+                return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+            }
+            return Duration.parse(value);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid duration: " + value, e);
+        }
+    }
+}
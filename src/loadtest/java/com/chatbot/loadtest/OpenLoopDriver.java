@@ -0,0 +1,83 @@
+package com.chatbot.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open loop: requests start at a fixed arrival rate, independent of how fast earlier ones
+ * are answered, the way independent users arrive. Each request goes to a conversation
+ * that has no request in flight, or to a new one, so a session never has two requests
+ * outstanding. Latency is measured from the scheduled start; when the server falls
+ * behind, the queueing delay counts as latency. Requests beyond the in-flight cap are not
+ * sent and count as errors.
+ */
+@Slf4j
+final class OpenLoopDriver {
+
+    private final LoadTestOptions options;
+    private final ChatApiClient client;
+    private final ObjectMapper objectMapper;
+    private final LatencyStats stats;
+    private final Queue<Conversation> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Random random;
+
+    OpenLoopDriver(LoadTestOptions options, ChatApiClient client, ObjectMapper objectMapper, LatencyStats stats) {
+        this.options = options;
+        this.client = client;
+        this.objectMapper = objectMapper;
+        this.stats = stats;
+        this.random = new Random(options.seed());
+    }
+
+    void run(long endNanos) throws InterruptedException {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / options.rate());
+        long start = System.nanoTime();
+        for (long i = 0; ; i++) {
+            long due = start + i * intervalNanos;
+            if (due - endNanos >= 0) {
+                break;
+            }
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            dispatch(due);
+        }
+        // Let the requests still in flight finish, so their latency is not lost
+        long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (inFlight.get() > 0 && System.nanoTime() - drainDeadline < 0) {
+            Thread.sleep(10);
+        }
+        if (inFlight.get() > 0) {
+            log.warn("{} requests still in flight after the run", inFlight.get());
+        }
+    }
+
+    private void dispatch(long due) {
+        if (inFlight.get() >= options.maxInFlight()) {
+            stats.record(Conversation.Endpoint.SEND, due, System.nanoTime(), 0);
+            return;
+        }
+        Conversation polled = idle.poll();
+        Conversation conversation = polled != null ? polled : new Conversation(objectMapper, random, options.users());
+        Conversation.Step step = conversation.next();
+        inFlight.incrementAndGet();
+        client.executeAsync(conversation, step).whenComplete((response, error) -> {
+            int status = response == null ? 0 : response.statusCode();
+            stats.record(step.endpoint(), due, System.nanoTime(), status);
+            conversation.onResponse(step, status, response == null ? null : response.body());
+            if (!conversation.isFinished()) {
+                idle.add(conversation);
+            }
+            inFlight.decrementAndGet();
+        });
+    }
+}
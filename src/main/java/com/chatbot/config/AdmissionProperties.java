@@ -0,0 +1,53 @@
+package com.chatbot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "chatbot.admission")
+public class AdmissionProperties {
+
+    // Rate-limit and load-shed the message endpoints; rejected requests get 429 with Retry-After
+    private boolean enabled = true;
+
+    // Requests per user (by userId) and per session
+    private Rate user = new Rate(10, 30);
+    private Rate session = new Rate(5, 10);
+
+    // Upper bound of rate-limit buckets kept per key type; the least valuable ones are evicted
+    private long maxKeys = 1_000_000;
+
+    private Concurrency concurrency = new Concurrency();
+
+    @Data
+    public static class Rate {
+        // Sustained requests per second ...
+        private double perSecond;
+        // ... and how many may arrive at once after a quiet period
+        private int burst;
+
+        public Rate() {
+        }
+
+        public Rate(double perSecond, int burst) {
+            this.perSecond = perSecond;
+            this.burst = burst;
+        }
+    }
+
+    @Data
+    public static class Concurrency {
+        private boolean enabled = true;
+        private int initialLimit = 64;
+        private int minLimit = 8;
+        private int maxLimit = 512;
+        // Requests slower than this (or failing) make the limit back off
+        private Duration latencyThreshold = Duration.ofMillis(500);
+        // Factor applied to the limit on back-off
+        private double backoffRatio = 0.9;
+    }
+}
@@ -0,0 +1,14 @@
+package com.chatbot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "chatbot.analytics")
+public class AnalyticsProperties {
+
+    // Distinct values tracked per dimension (intent, event type, segment); the rest count as "other"
+    private int maxKeysPerDimension = 50;
+}
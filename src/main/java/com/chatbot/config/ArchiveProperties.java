@@ -0,0 +1,25 @@
+package com.chatbot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "chatbot.archive")
+public class ArchiveProperties {
+
+    // Archive transcripts of finished sessions from this instance
+    private boolean enabled = true;
+    // Sessions finished (and without messages) for at least this long are archived
+    private Duration after = Duration.ofDays(30);
+    private String cron = "0 45 3 * * *";
+    // Candidate sessions fetched per query
+    private int sessionsPerQuery = 200;
+    // chat_messages rows deleted per statement (and transaction)
+    private int deleteBatchSize = 1000;
+    // Deflate level, 1 (fastest) to 9 (smallest)
+    private int compressionLevel = 6;
+}
@@ -0,0 +1,27 @@
+package com.chatbot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "chatbot.async")
+public class AsyncChatProperties {
+
+    // Persistence stage of POST /send/async: dedicated, bounded pool for JDBC work
+    private Stage db = new Stage();
+
+    @Data
+    public static class Stage {
+        private int corePoolSize = 8;
+        private int maxPoolSize = 16;
+        // Tasks beyond this are rejected right away with 503 instead of queueing up
+        private int queueCapacity = 200;
+        // Time a request may spend in this stage (queueing included): 504 if it has not started by
+        // then, 202 if it is still running
+        private Duration timeout = Duration.ofSeconds(5);
+    }
+}
@@ -0,0 +1,29 @@
+package com.chatbot.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.Collections;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor chatDbExecutor(AsyncChatProperties properties, MeterRegistry meterRegistry) {
+        AsyncChatProperties.Stage db = properties.getDb();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("chat-db-");
+        executor.setCorePoolSize(db.getCorePoolSize());
+        executor.setMaxPoolSize(db.getMaxPoolSize());
+        executor.setQueueCapacity(db.getQueueCapacity());
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        ExecutorServiceMetrics.monitor(meterRegistry, executor.getThreadPoolExecutor(), "chat.db", Collections.emptyList());
+        return executor;
+    }
+}
@@ -0,0 +1,14 @@
+package com.chatbot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "chatbot.batch")
+public class ChatBatchProperties {
+
+    // Largest number of messages accepted by POST /send/batch; larger batches get 400
+    private int maxItems = 500;
+}
@@ -0,0 +1,50 @@
+package com.chatbot.config;
+
+import com.chatbot.service.ChatEventCodec;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.Map;
+
+/**
+ * Kafka deserializer for chat events in either format: {@link ChatEventCodec} binary
+ * records are recognised by their magic byte, everything else goes to a
+ * {@link JsonDeserializer} configured with the same properties. Topics can therefore be
+ * switched between formats without draining them first.
+ */
+public class ChatEventDeserializer implements Deserializer<Object> {
+
+    private final JsonDeserializer<Object> json = new JsonDeserializer<>();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return deserialize(topic, null, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (!ChatEventCodec.isBinary(data)) {
+            return json.deserialize(topic, headers, data);
+        }
+        try {
+            return ChatEventCodec.decode(data);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Cannot decode event from topic " + topic, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
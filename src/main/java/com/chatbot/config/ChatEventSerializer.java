@@ -0,0 +1,24 @@
+package com.chatbot.config;
+
+import com.chatbot.service.ChatEventCodec;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Kafka serializer writing chat events in the {@link ChatEventCodec} binary format.
+ * Selected per topic via {@code DelegatingByTopicSerializer}.
+ */
+public class ChatEventSerializer implements Serializer<Object> {
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return ChatEventCodec.encode(data);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Cannot encode event for topic " + topic, e);
+        }
+    }
+}
@@ -1,34 +1,70 @@
 package com.chatbot.config;
 
+import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.FixedBackOff;
 
+@Slf4j
 @Configuration
 public class KafkaConfig {
 
+    public static final String CHAT_MESSAGES_TOPIC = "chat-messages";
+    public static final String CHAT_SESSIONS_TOPIC = "chat-sessions";
+    public static final String CHAT_ANALYTICS_TOPIC = "chat-analytics";
+
+    public static final int CHAT_MESSAGES_PARTITIONS = 3;
+    public static final int CHAT_SESSIONS_PARTITIONS = 2;
+    public static final int CHAT_ANALYTICS_PARTITIONS = 2;
+
     @Bean
     public NewTopic chatMessagesTopic() {
-        return TopicBuilder.name("chat-messages")
-                .partitions(3)
+        return TopicBuilder.name(CHAT_MESSAGES_TOPIC)
+                .partitions(CHAT_MESSAGES_PARTITIONS)
                 .replicas(1)
                 .build();
     }
 
     @Bean
     public NewTopic chatSessionsTopic() {
-        return TopicBuilder.name("chat-sessions")
-                .partitions(2)
+        return TopicBuilder.name(CHAT_SESSIONS_TOPIC)
+                .partitions(CHAT_SESSIONS_PARTITIONS)
                 .replicas(1)
                 .build();
     }
 
     @Bean
     public NewTopic chatAnalyticsTopic() {
-        return TopicBuilder.name("chat-analytics")
-                .partitions(2)
+        return TopicBuilder.name(CHAT_ANALYTICS_TOPIC)
+                .partitions(CHAT_ANALYTICS_PARTITIONS)
                 .replicas(1)
                 .build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Batch listeners on top of the Boot-configured consumer settings. Offsets are
+     * committed once the listener returns, i.e. after the whole poll has been processed;
+     * a failed batch is retried twice and then logged and skipped.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> batchListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        factory.setCommonErrorHandler(new DefaultErrorHandler(
+                (record, e) -> log.error("Giving up on {}-{}@{} for key {}: {}", record.topic(), record.partition(),
+                        record.offset(), record.key(), e.getMessage()),
+                new FixedBackOff(1000L, 2)));
+        return factory;
+    }
+}
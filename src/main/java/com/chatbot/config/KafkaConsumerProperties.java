@@ -0,0 +1,24 @@
+package com.chatbot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "chatbot.kafka.consumer")
+public class KafkaConsumerProperties {
+
+    // Threads that process the records of a polled batch; 0 means one per available core
+    private int workerThreads = 0;
+
+    // Listener containers (consumers) per topic; more than the topic's partitions would sit idle
+    private Concurrency concurrency = new Concurrency();
+
+    @Data
+    public static class Concurrency {
+        private int chatMessages = KafkaConfig.CHAT_MESSAGES_PARTITIONS;
+        private int chatSessions = KafkaConfig.CHAT_SESSIONS_PARTITIONS;
+        private int chatAnalytics = KafkaConfig.CHAT_ANALYTICS_PARTITIONS;
+    }
+}
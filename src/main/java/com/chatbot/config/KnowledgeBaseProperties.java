@@ -0,0 +1,22 @@
+package com.chatbot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "chatbot.knowledge-base")
+public class KnowledgeBaseProperties {
+
+    // YAML (or JSON) file with the intents, keywords and answers; any Spring resource location
+    private String location = "classpath:knowledge-base.yml";
+
+    // Reload when the file changes; only for locations on the file system
+    private boolean watch = true;
+
+    // A change is loaded once the file has been quiet this long, so half-written files are not read
+    private Duration settleDelay = Duration.ofMillis(500);
+}
@@ -0,0 +1,21 @@
+package com.chatbot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maintenance of the monthly chat_messages partitions (MySQL only, see migration V3).
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "chatbot.message-partitions")
+public class MessagePartitionProperties {
+
+    private boolean enabled = true;
+    // Months past the current one that always have their own partition
+    private int premakeMonths = 3;
+    // Complete months to keep before their partition is dropped; 0 keeps everything
+    private int retentionMonths = 0;
+    private String cron = "0 15 3 * * *";
+}
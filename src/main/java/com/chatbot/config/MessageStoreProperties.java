@@ -0,0 +1,46 @@
+package com.chatbot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "chatbot.message-store")
+public class MessageStoreProperties {
+
+    // Where chat messages live: the chat_messages table or an append-only log on local disk
+    private Type type = Type.JPA;
+
+    private Log log = new Log();
+
+    public enum Type {
+        JPA,
+        LOG
+    }
+
+    @Data
+    public static class Log {
+
+        private String directory = "data/messages";
+        // Size of each memory-mapped segment file; a record never spans two segments
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+        private Fsync fsync = Fsync.INTERVAL;
+        // How often INTERVAL forces written records to disk
+        private Duration fsyncInterval = Duration.ofSeconds(1);
+        // Segments whose messages are all older than this are deleted; 0 keeps everything
+        private Duration retention = Duration.ofDays(90);
+    }
+
+    public enum Fsync {
+        // Force every append before returning; survives power loss, costs one device flush per write
+        ALWAYS,
+        // Force in the background every fsyncInterval; a crash of the machine loses at most that window
+        INTERVAL,
+        // Leave it to the OS page cache; survives process crashes, not machine crashes
+        NEVER
+    }
+}
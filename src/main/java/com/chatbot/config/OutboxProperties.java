@@ -0,0 +1,30 @@
+package com.chatbot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "chatbot.outbox")
+public class OutboxProperties {
+
+    // Record chat events in the outbox at all
+    private boolean enabled = true;
+
+    private Relay relay = new Relay();
+
+    @Data
+    public static class Relay {
+        // Publish outbox rows to Kafka from this instance
+        private boolean enabled = true;
+        private Duration pollInterval = Duration.ofMillis(100);
+        private int batchSize = 500;
+        // Upper bound for the broker acknowledging one batch
+        private Duration sendTimeout = Duration.ofSeconds(30);
+        // Only the instance holding the lease publishes; must exceed send-timeout
+        private Duration leaseDuration = Duration.ofSeconds(60);
+    }
+}
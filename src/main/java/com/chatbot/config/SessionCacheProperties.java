@@ -0,0 +1,19 @@
+package com.chatbot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "chatbot.session-cache")
+public class SessionCacheProperties {
+
+    // Upper bound of cached sessions; least recently used ones are evicted first
+    private long maximumSize = 500_000;
+
+    // Sessions not touched for this long are evicted
+    private Duration expireAfterAccess = Duration.ofMinutes(30);
+}
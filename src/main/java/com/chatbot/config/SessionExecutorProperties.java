@@ -0,0 +1,16 @@
+package com.chatbot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "chatbot.session-executor")
+public class SessionExecutorProperties {
+
+    // How long POST /send waits for earlier messages of the same session before failing with 503
+    private Duration waitTimeout = Duration.ofSeconds(5);
+}
@@ -0,0 +1,22 @@
+package com.chatbot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "chatbot.session-expiry")
+public class SessionExpiryProperties {
+
+    // Expire idle ACTIVE sessions from this instance
+    private boolean enabled = true;
+    // Time without messages after which a session is expired
+    private Duration idleTimeout = Duration.ofMinutes(30);
+    // Resolution of the timing wheel and interval of the sweep
+    private Duration tick = Duration.ofSeconds(10);
+    // Sessions expired per UPDATE (and transaction)
+    private int batchSize = 500;
+}
@@ -0,0 +1,35 @@
+package com.chatbot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "chatbot.stream")
+public class StreamProperties {
+
+    // Recent messages kept per streamed session, for clients resuming with Last-Event-ID
+    private int replaySize = 256;
+
+    // Events waiting to be written to one client; a client that falls further behind is disconnected
+    private int subscriberQueueSize = 64;
+
+    // Concurrent streams per session and sessions with streams; further subscribers get 503
+    private int maxSubscribersPerSession = 16;
+    private long maxSessions = 100_000;
+
+    // A session's replay buffer is dropped this long after its last event or subscriber
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    // Comment lines sent to keep idle connections open through proxies
+    private Duration heartbeat = Duration.ofSeconds(15);
+
+    // Streams are closed after this long; EventSource clients reconnect and resume
+    private Duration connectionTimeout = Duration.ofMinutes(30);
+
+    // Threads writing events to clients
+    private int senderThreads = 4;
+}
@@ -0,0 +1,40 @@
+package com.chatbot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "chatbot.persistence.write-behind")
+public class WriteBehindProperties {
+
+    // Queue chat messages and insert them in batches instead of one row per save
+    private boolean enabled = false;
+
+    private Durability durability = Durability.FLUSH;
+
+    // Maximum number of queued messages; producers wait offerTimeout, then write synchronously
+    private int queueCapacity = 10_000;
+
+    // Flush when this many messages are queued ...
+    private int batchSize = 500;
+
+    // ... or when the oldest queued message has waited this long
+    private Duration flushInterval = Duration.ofMillis(50);
+
+    private Duration offerTimeout = Duration.ofMillis(100);
+
+    // How long shutdown waits for the queue to drain
+    private Duration shutdownTimeout = Duration.ofSeconds(10);
+
+    public enum Durability {
+        // Acknowledge as soon as the message is queued
+        ENQUEUE,
+        // Acknowledge once the batch containing the message has been committed; a message
+        // dropped (and counted in chat.messages.write_behind.dropped) fails the request
+        FLUSH
+    }
+}
@@ -0,0 +1,44 @@
+package com.chatbot.controller;
+
+import com.chatbot.dto.KnowledgeBaseStatus;
+import com.chatbot.service.KnowledgeBase;
+import com.chatbot.service.ResponseCatalog;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private final ResponseCatalog responseCatalog;
+
+    @GetMapping("/knowledge-base")
+    public ResponseEntity<KnowledgeBaseStatus> getKnowledgeBase() {
+        return ResponseEntity.ok(status(responseCatalog.current()));
+    }
+
+    /**
+     * Reloads the knowledge base file; answers 422 with the reason when it is invalid, in
+     * which case the current knowledge base stays in use.
+     */
+    @PostMapping("/knowledge-base/reload")
+    public ResponseEntity<KnowledgeBaseStatus> reloadKnowledgeBase() {
+        log.info("Reloading knowledge base");
+        try {
+            return ResponseEntity.ok(status(responseCatalog.reload()));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, e.getMessage(), e);
+        }
+    }
+
+    private static KnowledgeBaseStatus status(KnowledgeBase knowledgeBase) {
+        return new KnowledgeBaseStatus(knowledgeBase.getVersion(), knowledgeBase.getSource(),
+                knowledgeBase.getLoadedAt(), knowledgeBase.getIntents());
+    }
+}
@@ -0,0 +1,25 @@
+package com.chatbot.controller;
+
+import com.chatbot.dto.AnalyticsSnapshot;
+import com.chatbot.service.AnalyticsAggregator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/analytics")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class AnalyticsController {
+
+    private final AnalyticsAggregator analyticsAggregator;
+
+    // Precomputed once per second, so this never scans the counters
+    @GetMapping("/windows")
+    public ResponseEntity<AnalyticsSnapshot> getWindows() {
+        log.debug("Fetching analytics windows");
+        return ResponseEntity.ok(analyticsAggregator.getSnapshot());
+    }
+}
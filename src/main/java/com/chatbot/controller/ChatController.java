@@ -1,16 +1,38 @@
 package com.chatbot.controller;
 
+import com.chatbot.dto.ActiveSessionPage;
+import com.chatbot.dto.ChatBatchRequest;
+import com.chatbot.dto.ChatBatchResponse;
+import com.chatbot.dto.ChatHistoryPage;
 import com.chatbot.dto.ChatHistoryResponse;
 import com.chatbot.dto.ChatRequest;
 import com.chatbot.dto.ChatResponse;
-import com.chatbot.entity.ChatSession;
+import com.chatbot.service.AdmissionControl;
+import com.chatbot.service.AdmissionRejectedException;
+import com.chatbot.service.AsyncChatService;
+import com.chatbot.service.ChatBatchService;
 import com.chatbot.service.ChatBotService;
+import com.chatbot.service.ChatHistoryService;
+import com.chatbot.service.ChatResponseEncoder;
+import com.chatbot.service.ExchangeInProgressException;
+import com.chatbot.service.MessageStreamHub;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
 
 @Slf4j
 @RestController
@@ -20,21 +42,175 @@ import java.util.List;
 public class ChatController {
 
     private final ChatBotService chatBotService;
+    private final AsyncChatService asyncChatService;
+    private final ChatBatchService chatBatchService;
+    private final ChatHistoryService chatHistoryService;
+    private final ChatResponseEncoder chatResponseEncoder;
+    private final AdmissionControl admissionControl;
+    private final MessageStreamHub messageStreamHub;
 
+    /**
+     * Answers 429 with Retry-After when the user or session is over its rate limit or the
+     * service is at its concurrency limit (see {@link AdmissionControl}), 503 when earlier
+     * messages of the session do not finish in time.
+     */
     @PostMapping("/send")
-    public ResponseEntity<ChatResponse> sendMessage(@RequestBody ChatRequest request) {
-        log.info("Received chat message for session: {}, user: {}",
+    public ResponseEntity<byte[]> sendMessage(@RequestBody ChatRequest request) {
+        log.debug("Received chat message for session: {}, user: {}",
                 request.getSessionId(), request.getUserName());
 
-        ChatResponse response = chatBotService.processMessage(request);
-        return ResponseEntity.ok(response);
+        AdmissionControl.Permit permit = admissionControl.admit(request.getUserId(), request.getSessionId());
+        boolean success = false;
+        try {
+            ChatResponse response = chatBotService.processMessage(request);
+            success = true;
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(chatResponseEncoder.encode(response));
+        } finally {
+            permit.release(success);
+        }
     }
 
+    /**
+     * Same contract as {@code /send}, but the servlet thread is released while the
+     * message is persisted. Answers 429 like {@code /send} and 503 when the DB stage is
+     * saturated. When the DB stage does not finish within its timeout: 504 if the message
+     * was not processed at all, 202 with the session id if it is still being processed
+     * (the answer then shows up in the history).
+     */
+    @PostMapping("/send/async")
+    public CompletableFuture<ResponseEntity<byte[]>> sendMessageAsync(@RequestBody ChatRequest request) {
+        log.debug("Received async chat message for session: {}, user: {}",
+                request.getSessionId(), request.getUserName());
+
+        AdmissionControl.Permit permit = admissionControl.admit(request.getUserId(), request.getSessionId());
+        return asyncChatService.processMessage(request).handle((response, error) -> {
+            permit.release(error == null);
+            if (error == null) {
+                return ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(chatResponseEncoder.encode(response));
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+            if (cause instanceof RejectedExecutionException) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .build();
+            }
+            if (cause instanceof TimeoutException) {
+                log.warn("Timed out before persisting message for session: {}", request.getSessionId());
+                return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build();
+            }
+            if (cause instanceof ExchangeInProgressException) {
+                log.warn("Message for session {} still being persisted after the timeout", request.getSessionId());
+                ChatResponse accepted = new ChatResponse();
+                accepted.setSessionId(request.getSessionId());
+                accepted.setStatus("PROCESSING");
+                accepted.setTimestamp(LocalDateTime.now());
+                return ResponseEntity.status(HttpStatus.ACCEPTED)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(chatResponseEncoder.encode(accepted));
+            }
+            throw cause instanceof RuntimeException runtime ? runtime : new CompletionException(cause);
+        });
+    }
+
+    /**
+     * Sends many messages, possibly of many sessions, in one call. Answers 200 with one
+     * result per item (a rate-limited, invalid or failed item does not fail the others),
+     * 400 for an empty or oversized batch and 429 when the service is at its concurrency
+     * limit.
+     */
+    @PostMapping("/send/batch")
+    public ResponseEntity<ChatBatchResponse> sendBatch(@RequestBody ChatBatchRequest request) {
+        int items = request.getMessages() == null ? 0 : request.getMessages().size();
+        log.debug("Received batch of {} chat messages", items);
+
+        AdmissionControl.Permit permit = admissionControl.acquire();
+        boolean success = false;
+        try {
+            ChatBatchResponse response = chatBatchService.processBatch(request.getMessages());
+            success = true;
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            success = true;
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        } finally {
+            permit.release(success, items);
+        }
+    }
+
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<Void> requestRejected(AdmissionRejectedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(e.getRetryAfterSeconds()))
+                .build();
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Void> sessionBusy(RejectedExecutionException e) {
+        log.warn("Rejected message: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .build();
+    }
+
+    /**
+     * Answers 304 without loading any messages when If-None-Match carries the current ETag
+     * (see {@link ChatBotService#getHistoryETag}). With {@code since} (the {@code cursor}
+     * of an earlier response) only newer messages are returned; 400 for an invalid cursor.
+     */
     @GetMapping("/history/{sessionId}")
-    public ResponseEntity<ChatHistoryResponse> getChatHistory(@PathVariable String sessionId) {
-        log.info("Fetching chat history for session: {}", sessionId);
-        ChatHistoryResponse history = chatBotService.getChatHistory(sessionId);
-        return ResponseEntity.ok(history);
+    public ResponseEntity<ChatHistoryResponse> getChatHistory(@PathVariable String sessionId,
+                                                              @RequestParam(required = false) String since,
+                                                              WebRequest webRequest) {
+        log.info("Fetching chat history for session: {}, since: {}", sessionId, since);
+        String etag = chatBotService.getHistoryETag(sessionId);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        try {
+            ChatHistoryResponse history = chatBotService.getChatHistory(sessionId, since);
+            return ResponseEntity.ok().eTag(etag).body(history);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    @GetMapping("/history/{sessionId}/page")
+    public ResponseEntity<ChatHistoryPage> getChatHistoryPage(@PathVariable String sessionId,
+                                                              @RequestParam(required = false) String before,
+                                                              @RequestParam(required = false) String after,
+                                                              @RequestParam(defaultValue = "50") int limit) {
+        log.info("Fetching chat history page for session: {}, before: {}, after: {}", sessionId, before, after);
+        try {
+            return ResponseEntity.ok(chatHistoryService.getPage(sessionId, before, after, limit));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    @GetMapping(value = "/history/{sessionId}/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamChatHistory(@PathVariable String sessionId) {
+        log.info("Streaming chat history for session: {}", sessionId);
+        StreamingResponseBody body = out -> chatHistoryService.streamHistory(sessionId, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * Server-Sent Events stream of the session's new messages (event {@code message}, id =
+     * message id). Reconnecting clients resume after Last-Event-ID, or {@code after} for
+     * clients that cannot set it; a {@code resync} event asks them to reload the history
+     * instead. Answers 503 when the session has too many streams.
+     */
+    @GetMapping(value = "/{sessionId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamMessages(@PathVariable String sessionId,
+                                     @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+                                     @RequestParam(required = false) Long after) {
+        log.debug("Opening message stream for session: {}, after: {}", sessionId, lastEventId != null ? lastEventId : after);
+        return messageStreamHub.subscribe(sessionId, lastEventId != null ? lastEventId : after);
     }
 
     @PostMapping("/{sessionId}/mark-read")
@@ -45,10 +221,15 @@ public class ChatController {
     }
 
     @GetMapping("/sessions/active")
-    public ResponseEntity<List<ChatSession>> getActiveSessions() {
-        log.info("Fetching active chat sessions");
-        List<ChatSession> activeSessions = chatBotService.getActiveSessions();
-        return ResponseEntity.ok(activeSessions);
+    public ResponseEntity<ActiveSessionPage> getActiveSessions(@RequestParam(required = false) String userId,
+                                                               @RequestParam(required = false) String after,
+                                                               @RequestParam(defaultValue = "50") int limit) {
+        log.info("Fetching active chat sessions, userId: {}, after: {}", userId, after);
+        try {
+            return ResponseEntity.ok(chatBotService.getActiveSessions(userId, after, limit));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
     }
 
     @GetMapping("/health")
@@ -0,0 +1,15 @@
+package com.chatbot.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ActiveSessionPage {
+    private List<ActiveSessionSummary> sessions;
+    // Pass as "after" to load the next page (null on the last page)
+    private String nextCursor;
+    private boolean hasMore;
+    // Active sessions matching the filter; null while the registry is still being built
+    private Long total;
+}
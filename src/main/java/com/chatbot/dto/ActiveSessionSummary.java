@@ -0,0 +1,20 @@
+package com.chatbot.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lightweight view of an active session, as held by the active-session registry.
+ */
+@Value
+public class ActiveSessionSummary {
+    // Database id, only used for ordering and as page cursor
+    @JsonIgnore
+    Long id;
+    String sessionId;
+    String userId;
+    String userName;
+    LocalDateTime createdAt;
+}
@@ -0,0 +1,14 @@
+package com.chatbot.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class AnalyticsSnapshot {
+    private LocalDateTime generatedAt;
+    private List<AnalyticsWindow> windows;
+    // Events older than every window when they arrived, hence not counted
+    private long lateEvents;
+}
@@ -0,0 +1,18 @@
+package com.chatbot.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+public class AnalyticsWindow {
+    private String window; // 1m, 5m, 1h
+    private String type; // SLIDING (ends now) or TUMBLING (last complete aligned window)
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private long total;
+    private Map<String, Long> byIntent;
+    private Map<String, Long> byEventType;
+    private Map<String, Long> bySegment;
+}
@@ -0,0 +1,46 @@
+package com.chatbot.dto;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Static bot answer for one intent, built with the knowledge base and shared by every
+ * response that uses it, so it is immutable: {@code quickReplies} is an unmodifiable list
+ * and the pre-encoded static fields of a {@link ChatResponse}
+ * ({@code "botResponse":...,"quickReplies":...}) can only be copied out.
+ */
+@Value
+public class CannedResponse {
+    String intent;
+    String botResponse;
+    List<QuickReply> quickReplies;
+    @Getter(AccessLevel.NONE)
+    byte[] jsonFragment;
+    // The user is done: the session is marked COMPLETED
+    boolean endsSession;
+
+    public CannedResponse(String intent, String botResponse, List<QuickReply> quickReplies, byte[] jsonFragment,
+                          boolean endsSession) {
+        this.intent = intent;
+        this.botResponse = botResponse;
+        this.quickReplies = quickReplies == null ? null : List.copyOf(quickReplies);
+        this.jsonFragment = jsonFragment.clone();
+        this.endsSession = endsSession;
+    }
+
+    public int getJsonFragmentLength() {
+        return jsonFragment.length;
+    }
+
+    /**
+     * Copies the pre-encoded fragment into {@code target} at {@code offset} and returns the
+     * offset after it.
+     */
+    public int copyJsonFragment(byte[] target, int offset) {
+        System.arraycopy(jsonFragment, 0, target, offset, jsonFragment.length);
+        return offset + jsonFragment.length;
+    }
+}
@@ -12,4 +12,5 @@ public class ChatAnalyticsEvent {
     private LocalDateTime timestamp;
     private int messageCount;
     private String intent; // pricing, support, contact, etc.
+    private String segment; // registered or anonymous
 }
\ No newline at end of file
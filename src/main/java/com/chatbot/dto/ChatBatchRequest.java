@@ -0,0 +1,11 @@
+package com.chatbot.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ChatBatchRequest {
+    // Processed in order per session; may span any number of sessions
+    private List<ChatRequest> messages;
+}
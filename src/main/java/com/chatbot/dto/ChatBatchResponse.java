@@ -0,0 +1,13 @@
+package com.chatbot.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ChatBatchResponse {
+    // One result per request item, in request order
+    private List<ChatBatchResult> results;
+    private int succeeded;
+    private int failed;
+}
@@ -0,0 +1,39 @@
+package com.chatbot.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ChatBatchResult {
+
+    public enum Status {
+        // Processed; response is set
+        OK,
+        // Missing session id or message; not processed
+        INVALID,
+        // Over the user/session rate limit or the session was busy; retry after retryAfterSeconds
+        REJECTED,
+        // Processing failed; the item left no trace and may be resent
+        FAILED
+    }
+
+    // Position of the item in the request
+    private int index;
+    private Status status;
+    private ChatResponse response;
+    private String error;
+    private Long retryAfterSeconds;
+
+    public static ChatBatchResult ok(int index, ChatResponse response) {
+        return new ChatBatchResult(index, Status.OK, response, null, null);
+    }
+
+    public static ChatBatchResult error(int index, Status status, String error, Long retryAfterSeconds) {
+        return new ChatBatchResult(index, status, null, error, retryAfterSeconds);
+    }
+}
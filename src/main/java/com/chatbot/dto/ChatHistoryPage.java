@@ -0,0 +1,17 @@
+package com.chatbot.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ChatHistoryPage {
+    private String sessionId;
+    private List<ChatMessageDTO> messages;
+    // Pass as "before" to load older messages (null for an empty page)
+    private String previousCursor;
+    // Pass as "after" to load newer messages, also those that arrive later (null for an empty page)
+    private String nextCursor;
+    private boolean hasOlder;
+    private boolean hasNewer;
+}
@@ -9,5 +9,7 @@ public class ChatHistoryResponse {
     private String sessionId;
     private List<ChatMessageDTO> messages;
     private LocalDateTime sessionStart;
+    // Position of the last message; pass it back as since to get only newer messages
+    private String cursor;
 }
 
@@ -1,15 +1,27 @@
 package com.chatbot.dto;
 
+import com.chatbot.entity.ChatMessage;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public
 class ChatMessageDTO {
+    private Long id;
     private String content;
     private String senderType;
     private String messageType;
     private LocalDateTime timestamp;
     private Boolean isRead;
+
+    // Used by JPQL constructor expressions; isRead is filled in from the session's read watermarks
+    public ChatMessageDTO(Long id, String content, ChatMessage.SenderType senderType,
+                          ChatMessage.MessageType messageType, LocalDateTime timestamp) {
+        this(id, content, senderType.name(), messageType.name(), timestamp, null);
+    }
 }
@@ -1,6 +1,9 @@
 package com.chatbot.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -12,6 +15,13 @@ public class ChatResponse {
     private List<ChatOption> options;
     private LocalDateTime timestamp;
     private String status;
+
+    // Set when botResponse/quickReplies come unchanged from the response catalog,
+    // lets the encoder write them as pre-encoded bytes
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private CannedResponse canned;
 }
 
 @Data
@@ -0,0 +1,8 @@
+package com.chatbot.dto;
+
+/**
+ * What changes whenever a session's stored messages do: the newest message id and the
+ * number of messages. Read without loading the messages themselves.
+ */
+public record HistoryVersion(Long latestId, long count) {
+}
@@ -0,0 +1,38 @@
+package com.chatbot.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Contents of the knowledge base file, as written by its editors. Compiled into a
+ * {@link com.chatbot.service.KnowledgeBase} before use.
+ */
+@Data
+public class KnowledgeBaseDocument {
+
+    private String welcome;
+
+    // Answer when no intent has one; {message} stands for the user's message
+    private String fallback;
+    private String fallbackQuickReplies;
+
+    // Named quick-reply sets, referenced by name from intents
+    private Map<String, List<QuickReply>> quickReplySets = new LinkedHashMap<>();
+
+    // In priority order
+    private List<Intent> intents = new ArrayList<>();
+
+    @Data
+    public static class Intent {
+        private String name;
+        private List<String> keywords = new ArrayList<>();
+        // Without a response the intent is answered with the fallback
+        private String response;
+        private String quickReplies;
+        private boolean endsSession;
+    }
+}
@@ -0,0 +1,19 @@
+package com.chatbot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class KnowledgeBaseStatus {
+    private long version;
+    private String source;
+    private Instant loadedAt;
+    // In priority order
+    private List<String> intents;
+}
@@ -1,10 +1,8 @@
 package com.chatbot.dto;
 
-import lombok.Data;
-
-@Data
-public
-class QuickReply {
-    private String title;
-    private String payload;
+/**
+ * Suggested reply button. Immutable, as the knowledge base shares one instance with
+ * every response that offers it.
+ */
+public record QuickReply(String title, String payload) {
 }
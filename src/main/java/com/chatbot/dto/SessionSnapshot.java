@@ -0,0 +1,25 @@
+package com.chatbot.dto;
+
+import com.chatbot.entity.ChatSession;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Immutable copy of a committed {@link ChatSession}, as held by the session cache and
+ * shared between requests. Writes load the entity instead.
+ */
+@Value
+public class SessionSnapshot {
+    Long id;
+    String sessionId;
+    String userId;
+    String userName;
+    ChatSession.ChatStatus status;
+    LocalDateTime createdAt;
+
+    public static SessionSnapshot of(ChatSession session) {
+        return new SessionSnapshot(session.getId(), session.getSessionId(), session.getUserId(),
+                session.getUserName(), session.getStatus(), session.getCreatedAt());
+    }
+}
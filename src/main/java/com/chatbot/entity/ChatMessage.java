@@ -12,8 +12,10 @@ import java.time.LocalDateTime;
 @Builder
 public class ChatMessage {
 
+    // Pooled sequence instead of IDENTITY so Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "chat_messages_seq")
+    @SequenceGenerator(name = "chat_messages_seq", sequenceName = "chat_messages_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "session_id", nullable = false)
@@ -33,12 +35,15 @@ public class ChatMessage {
     @Column(name = "timestamp")
     private LocalDateTime timestamp;
 
+    // Legacy per-row flag, converted by migration V1_4; read state lives in ChatReadWatermark
     @Column(name = "is_read")
     private Boolean isRead;
 
     @PrePersist
     protected void onCreate() {
-        timestamp = LocalDateTime.now();
+        if (timestamp == null) {
+            timestamp = LocalDateTime.now();
+        }
         if (isRead == null) {
             isRead = false;
         }
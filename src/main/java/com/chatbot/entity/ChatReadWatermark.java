@@ -0,0 +1,45 @@
+package com.chatbot.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Read state of a session: every message of {@code senderType} up to the position
+ * ({@code lastReadAt}, {@code lastReadMessageId}) in history order counts as read.
+ */
+@Entity
+@Table(name = "chat_read_watermarks",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"session_id", "sender_type"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChatReadWatermark {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "session_id", nullable = false)
+    private String sessionId;
+
+    @Column(name = "sender_type", nullable = false)
+    @Enumerated(EnumType.STRING)
+    private ChatMessage.SenderType senderType;
+
+    @Column(name = "last_read_at", nullable = false)
+    private LocalDateTime lastReadAt;
+
+    @Column(name = "last_read_message_id", nullable = false)
+    private Long lastReadMessageId;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -50,6 +50,8 @@ public class ChatSession {
     }
 
     public enum ChatStatus {
-        ACTIVE, COMPLETED, TRANSFERRED
+        ACTIVE, COMPLETED, TRANSFERRED,
+        // Closed by the idle-session sweeper; reactivated by the next message
+        EXPIRED
     }
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.chatbot.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Kafka event recorded in the same transaction as the change it describes; deleted by
+ * the outbox relay once the broker has acknowledged it.
+ */
+@Entity
+@Table(name = "chat_outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    // Pooled sequence so events of one request are inserted in a single batch
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "chat_outbox_seq")
+    @SequenceGenerator(name = "chat_outbox_seq", sequenceName = "chat_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private String topic;
+
+    @Column(name = "event_key")
+    private String eventKey;
+
+    @Column(name = "event_type", nullable = false)
+    private String eventType;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    // Set by the database clock on insert, which orders events across instances
+    @Column(name = "created_at", nullable = false, insertable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
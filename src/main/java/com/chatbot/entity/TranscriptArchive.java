@@ -0,0 +1,45 @@
+package com.chatbot.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Whole transcript of a finished session, encoded and compressed by
+ * {@code TranscriptCodec}; replaces the session's chat_messages rows.
+ */
+@Entity
+@Table(name = "chat_transcript_archive")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TranscriptArchive {
+
+    @Id
+    @Column(name = "session_id")
+    private String sessionId;
+
+    @Column(name = "message_count", nullable = false)
+    private Integer messageCount;
+
+    @Column(name = "first_message_at")
+    private LocalDateTime firstMessageAt;
+
+    @Column(name = "last_message_at")
+    private LocalDateTime lastMessageAt;
+
+    // Encoded size before compression
+    @Column(name = "raw_bytes", nullable = false)
+    private Integer rawBytes;
+
+    @Column(name = "compressed_bytes", nullable = false)
+    private Integer compressedBytes;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    @Lob
+    @Column(name = "transcript", nullable = false, columnDefinition = "LONGBLOB")
+    private byte[] transcript;
+}
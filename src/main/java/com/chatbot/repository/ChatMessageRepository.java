@@ -1,10 +1,18 @@
 package com.chatbot.repository;
 
+import com.chatbot.dto.ChatMessageDTO;
+import com.chatbot.dto.HistoryCursor;
+import com.chatbot.dto.HistoryVersion;
 import com.chatbot.entity.ChatMessage;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -12,9 +20,60 @@ public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long>
 
     List<ChatMessage> findBySessionIdOrderByTimestampAsc(String sessionId);
 
-    @Query("SELECT cm FROM ChatMessage cm WHERE cm.sessionId = :sessionId AND cm.senderType = 'USER' AND cm.isRead = false")
-    List<ChatMessage> findUnreadUserMessages(@Param("sessionId") String sessionId);
-
-    @Query("SELECT COUNT(cm) FROM ChatMessage cm WHERE cm.sessionId = :sessionId AND cm.senderType = 'USER' AND cm.isRead = false")
+    // Read state comes from the session's ChatReadWatermark, not from the legacy is_read column;
+    // its (timestamp, id) position, as pooled ids are not in insert order across instances
+    @Query("SELECT COUNT(cm) FROM ChatMessage cm WHERE cm.sessionId = :sessionId AND cm.senderType = 'USER' " +
+            "AND NOT EXISTS (SELECT w.id FROM ChatReadWatermark w " +
+            "WHERE w.sessionId = :sessionId AND w.senderType = 'USER' " +
+            "AND (cm.timestamp < w.lastReadAt OR (cm.timestamp = w.lastReadAt AND cm.id <= w.lastReadMessageId)))")
     Long countUnreadUserMessages(@Param("sessionId") String sessionId);
-}
\ No newline at end of file
+
+    @Query("SELECT new com.chatbot.dto.HistoryCursor(cm.timestamp, cm.id) FROM ChatMessage cm " +
+            "WHERE cm.sessionId = :sessionId AND cm.senderType = :senderType AND cm.timestamp IS NOT NULL " +
+            "ORDER BY cm.timestamp DESC, cm.id DESC")
+    List<HistoryCursor> findLatestPosition(@Param("sessionId") String sessionId,
+                                           @Param("senderType") ChatMessage.SenderType senderType,
+                                           Limit limit);
+
+    // Index-only: the (session_id, ...) indexes carry the id
+    @Query("SELECT new com.chatbot.dto.HistoryVersion(MAX(cm.id), COUNT(cm)) FROM ChatMessage cm " +
+            "WHERE cm.sessionId = :sessionId")
+    HistoryVersion findHistoryVersion(@Param("sessionId") String sessionId);
+
+    // History projections: keyset pagination on (timestamp, id), read straight into DTOs
+
+    @Query("SELECT new com.chatbot.dto.ChatMessageDTO(cm.id, cm.content, cm.senderType, cm.messageType, cm.timestamp) " +
+            "FROM ChatMessage cm WHERE cm.sessionId = :sessionId ORDER BY cm.timestamp ASC, cm.id ASC")
+    List<ChatMessageDTO> findHistory(@Param("sessionId") String sessionId);
+
+    @Query("SELECT new com.chatbot.dto.ChatMessageDTO(cm.id, cm.content, cm.senderType, cm.messageType, cm.timestamp) " +
+            "FROM ChatMessage cm WHERE cm.sessionId = :sessionId " +
+            "AND (cm.timestamp > :timestamp OR (cm.timestamp = :timestamp AND cm.id > :id)) " +
+            "ORDER BY cm.timestamp ASC, cm.id ASC")
+    List<ChatMessageDTO> findHistoryAfter(@Param("sessionId") String sessionId,
+                                          @Param("timestamp") LocalDateTime timestamp,
+                                          @Param("id") Long id,
+                                          Limit limit);
+
+    @Query("SELECT new com.chatbot.dto.ChatMessageDTO(cm.id, cm.content, cm.senderType, cm.messageType, cm.timestamp) " +
+            "FROM ChatMessage cm WHERE cm.sessionId = :sessionId " +
+            "AND (cm.timestamp < :timestamp OR (cm.timestamp = :timestamp AND cm.id < :id)) " +
+            "ORDER BY cm.timestamp DESC, cm.id DESC")
+    List<ChatMessageDTO> findHistoryBefore(@Param("sessionId") String sessionId,
+                                           @Param("timestamp") LocalDateTime timestamp,
+                                           @Param("id") Long id,
+                                           Limit limit);
+
+    @Query("SELECT new com.chatbot.dto.ChatMessageDTO(cm.id, cm.content, cm.senderType, cm.messageType, cm.timestamp) " +
+            "FROM ChatMessage cm WHERE cm.sessionId = :sessionId ORDER BY cm.timestamp ASC, cm.id ASC")
+    List<ChatMessageDTO> findHistoryFirst(@Param("sessionId") String sessionId, Limit limit);
+
+    @Query("SELECT new com.chatbot.dto.ChatMessageDTO(cm.id, cm.content, cm.senderType, cm.messageType, cm.timestamp) " +
+            "FROM ChatMessage cm WHERE cm.sessionId = :sessionId ORDER BY cm.timestamp DESC, cm.id DESC")
+    List<ChatMessageDTO> findHistoryLatest(@Param("sessionId") String sessionId, Limit limit);
+
+    // Rows already written to the session's archived transcript
+    @Modifying
+    @Query("DELETE FROM ChatMessage cm WHERE cm.sessionId = :sessionId AND cm.id IN :ids")
+    int deleteArchived(@Param("sessionId") String sessionId, @Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,33 @@
+package com.chatbot.repository;
+
+import com.chatbot.entity.ChatMessage;
+import com.chatbot.entity.ChatReadWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ChatReadWatermarkRepository extends JpaRepository<ChatReadWatermark, Long> {
+
+    List<ChatReadWatermark> findBySessionId(String sessionId);
+
+    boolean existsBySessionIdAndSenderType(String sessionId, ChatMessage.SenderType senderType);
+
+    // Only ever moves forward in (timestamp, id) order, so late or repeated calls are harmless
+    @Transactional
+    @Modifying
+    @Query("UPDATE ChatReadWatermark w SET w.lastReadAt = :timestamp, w.lastReadMessageId = :messageId, " +
+            "w.updatedAt = :now WHERE w.sessionId = :sessionId AND w.senderType = :senderType " +
+            "AND (w.lastReadAt < :timestamp OR (w.lastReadAt = :timestamp AND w.lastReadMessageId < :messageId))")
+    int advance(@Param("sessionId") String sessionId,
+                @Param("senderType") ChatMessage.SenderType senderType,
+                @Param("timestamp") LocalDateTime timestamp,
+                @Param("messageId") Long messageId,
+                @Param("now") LocalDateTime now);
+}
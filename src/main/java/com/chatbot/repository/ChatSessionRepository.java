@@ -1,14 +1,60 @@
 package com.chatbot.repository;
 
+import com.chatbot.dto.ActiveSessionSummary;
 import com.chatbot.entity.ChatSession;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.List;
 
 @Repository
 public interface ChatSessionRepository extends JpaRepository<ChatSession, Long> {
     Optional<ChatSession> findBySessionId(String sessionId);
+    List<ChatSession> findBySessionIdIn(Collection<String> sessionIds);
     List<ChatSession> findByUserId(String userId);
     List<ChatSession> findByStatus(ChatSession.ChatStatus status);
-}
\ No newline at end of file
+
+    // Keyset pages of session projections, ordered by id
+    @Query("SELECT new com.chatbot.dto.ActiveSessionSummary(s.id, s.sessionId, s.userId, s.userName, s.createdAt) " +
+            "FROM ChatSession s WHERE s.status = :status AND s.id > :afterId ORDER BY s.id")
+    List<ActiveSessionSummary> findSummaries(@Param("status") ChatSession.ChatStatus status,
+                                             @Param("afterId") long afterId,
+                                             Limit limit);
+
+    @Query("SELECT new com.chatbot.dto.ActiveSessionSummary(s.id, s.sessionId, s.userId, s.userName, s.createdAt) " +
+            "FROM ChatSession s WHERE s.status = :status AND s.userId = :userId AND s.id > :afterId ORDER BY s.id")
+    List<ActiveSessionSummary> findSummariesByUser(@Param("status") ChatSession.ChatStatus status,
+                                                   @Param("userId") String userId,
+                                                   @Param("afterId") long afterId,
+                                                   Limit limit);
+
+    // Bulk status change; only rows still in status 'from' are touched
+    @Modifying
+    @Query("UPDATE ChatSession s SET s.status = :to, s.updatedAt = :now " +
+            "WHERE s.sessionId IN :sessionIds AND s.status = :from")
+    int transition(@Param("sessionIds") Collection<String> sessionIds,
+                   @Param("from") ChatSession.ChatStatus from,
+                   @Param("to") ChatSession.ChatStatus to,
+                   @Param("now") LocalDateTime now);
+
+    @Query("SELECT new com.chatbot.dto.ActiveSessionSummary(s.id, s.sessionId, s.userId, s.userName, s.createdAt) " +
+            "FROM ChatSession s WHERE s.sessionId IN :sessionIds AND s.status = :status AND s.updatedAt = :updatedAt")
+    List<ActiveSessionSummary> findSummariesUpdatedAt(@Param("sessionIds") Collection<String> sessionIds,
+                                                      @Param("status") ChatSession.ChatStatus status,
+                                                      @Param("updatedAt") LocalDateTime updatedAt);
+
+    // Finished sessions without messages since the cutoff that still have chat_messages rows
+    @Query("SELECT s.sessionId FROM ChatSession s WHERE s.status IN :statuses AND s.updatedAt < :cutoff " +
+            "AND EXISTS (SELECT 1 FROM ChatMessage m WHERE m.sessionId = s.sessionId) " +
+            "AND NOT EXISTS (SELECT 1 FROM ChatMessage m WHERE m.sessionId = s.sessionId AND m.timestamp >= :cutoff) " +
+            "ORDER BY s.updatedAt, s.id")
+    List<String> findArchivable(@Param("statuses") Collection<ChatSession.ChatStatus> statuses,
+                                @Param("cutoff") LocalDateTime cutoff,
+                                Limit limit);
+}
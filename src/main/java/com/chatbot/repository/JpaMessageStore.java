@@ -0,0 +1,72 @@
+package com.chatbot.repository;
+
+import com.chatbot.dto.ChatMessageDTO;
+import com.chatbot.dto.HistoryCursor;
+import com.chatbot.dto.HistoryVersion;
+import com.chatbot.entity.ChatMessage;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * {@link MessageStore} on the chat_messages table; the default.
+ */
+@Component
+@ConditionalOnProperty(name = "chatbot.message-store.type", havingValue = "jpa", matchIfMissing = true)
+public class JpaMessageStore implements MessageStore {
+
+    private final ChatMessageRepository chatMessageRepository;
+
+    public JpaMessageStore(ChatMessageRepository chatMessageRepository) {
+        this.chatMessageRepository = chatMessageRepository;
+    }
+
+    @Override
+    public ChatMessage save(ChatMessage message) {
+        return chatMessageRepository.save(message);
+    }
+
+    @Override
+    public void saveAll(List<ChatMessage> messages) {
+        chatMessageRepository.saveAll(messages);
+    }
+
+    @Override
+    public List<ChatMessageDTO> findHistory(String sessionId) {
+        return chatMessageRepository.findHistory(sessionId);
+    }
+
+    @Override
+    public List<ChatMessageDTO> findHistoryFirst(String sessionId, int limit) {
+        return chatMessageRepository.findHistoryFirst(sessionId, Limit.of(limit));
+    }
+
+    @Override
+    public List<ChatMessageDTO> findHistoryAfter(String sessionId, LocalDateTime timestamp, long id, int limit) {
+        return chatMessageRepository.findHistoryAfter(sessionId, timestamp, id, Limit.of(limit));
+    }
+
+    @Override
+    public List<ChatMessageDTO> findHistoryBefore(String sessionId, LocalDateTime timestamp, long id, int limit) {
+        return chatMessageRepository.findHistoryBefore(sessionId, timestamp, id, Limit.of(limit));
+    }
+
+    @Override
+    public List<ChatMessageDTO> findHistoryLatest(String sessionId, int limit) {
+        return chatMessageRepository.findHistoryLatest(sessionId, Limit.of(limit));
+    }
+
+    @Override
+    public HistoryCursor findLatestPosition(String sessionId, ChatMessage.SenderType senderType) {
+        List<HistoryCursor> latest = chatMessageRepository.findLatestPosition(sessionId, senderType, Limit.of(1));
+        return latest.isEmpty() ? null : latest.get(0);
+    }
+
+    @Override
+    public HistoryVersion findHistoryVersion(String sessionId) {
+        return chatMessageRepository.findHistoryVersion(sessionId);
+    }
+}
@@ -0,0 +1,604 @@
+package com.chatbot.repository;
+
+import com.chatbot.config.MessageStoreProperties;
+import com.chatbot.dto.ChatMessageDTO;
+import com.chatbot.dto.HistoryCursor;
+import com.chatbot.dto.HistoryVersion;
+import com.chatbot.entity.ChatMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * {@link MessageStore} on an append-only log of memory-mapped {@link LogSegment} files,
+ * for deployments where message writes outgrow the database. Appends are sequential
+ * copies into the mapped active segment; when it is full the next one is created.
+ * Message ids are assigned in append order.
+ *
+ * Every session has an in-memory index of (timestamp, id, location) kept in history
+ * order, so pages are a binary search plus one read per message. The index is not
+ * persisted: on startup the segments are scanned in order and the index rebuilt from the
+ * record headers. A scan stops at the first record with a bad length or checksum, which
+ * is what a crash in the middle of an append leaves behind, and the rest of that segment
+ * is zeroed before writing resumes.
+ *
+ * Durability follows {@link MessageStoreProperties.Fsync}. Inside a transaction messages
+ * are appended (and with ALWAYS forced) just before it commits, so a failed write rolls
+ * the transaction back instead of losing messages whose events have been committed. They
+ * are indexed, and so readable, once it has committed. If the commit fails after all, an
+ * abort record for each message follows it in the log; a crash in between leaves the
+ * messages in place.
+ *
+ * Segments whose messages are all older than the retention period are deleted, oldest
+ * first, together with their index entries; sessions left without messages drop out of
+ * the index.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "chatbot.message-store.type", havingValue = "log")
+public class LogMessageStore implements MessageStore, DisposableBean {
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d{10})\\.log");
+
+    // Sender type of the record that cancels the message with the same id
+    private static final String ABORTED = "ABORTED";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final MessageStoreProperties.Fsync fsync;
+    private final Duration retention;
+    private final Map<Integer, LogSegment> segments = new ConcurrentHashMap<>();
+    // Newest record timestamp per segment, for retention
+    private final Map<Integer, Long> newestTimestamps = new ConcurrentHashMap<>();
+    private final Map<String, SessionIndex> sessions = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService fsyncExecutor;
+
+    // Guarded by this
+    private LogSegment active;
+    private long nextId = 1;
+    private boolean closed;
+
+    public LogMessageStore(MessageStoreProperties properties) {
+        MessageStoreProperties.Log config = properties.getLog();
+        this.directory = Paths.get(config.getDirectory());
+        long size = config.getSegmentSize().toBytes();
+        if (size < 1024 || size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segment size must be between 1KB and 2GB: " + config.getSegmentSize());
+        }
+        this.segmentSize = (int) size;
+        this.fsync = config.getFsync();
+        this.retention = config.getRetention();
+        try {
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open message log in " + directory.toAbsolutePath(), e);
+        }
+        if (fsync == MessageStoreProperties.Fsync.INTERVAL) {
+            long interval = config.getFsyncInterval().toMillis();
+            this.fsyncExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "message-log-fsync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            fsyncExecutor.scheduleWithFixedDelay(this::forceActive, interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            this.fsyncExecutor = null;
+        }
+    }
+
+    @Override
+    public ChatMessage save(ChatMessage message) {
+        saveAll(List.of(message));
+        return message;
+    }
+
+    @Override
+    public void saveAll(List<ChatMessage> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        List<LogSegment.Entry> entries = new ArrayList<>(messages.size());
+        for (ChatMessage message : messages) {
+            entries.add(prepare(message));
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                private long[] locations;
+
+                @Override
+                public int getOrder() {
+                    // After other work that may still fail the commit
+                    return LOWEST_PRECEDENCE;
+                }
+
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    locations = append(messages, entries);
+                }
+
+                @Override
+                public void afterCommit() {
+                    index(messages, entries, locations);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (locations != null && status == STATUS_ROLLED_BACK) {
+                        abort(messages);
+                    }
+                }
+            });
+        } else {
+            index(messages, entries, append(messages, entries));
+        }
+    }
+
+    @Override
+    public List<ChatMessageDTO> findHistory(String sessionId) {
+        SessionIndex index = sessions.get(sessionId);
+        return index == null ? new ArrayList<>() : read(index.range(0, Integer.MAX_VALUE));
+    }
+
+    @Override
+    public List<ChatMessageDTO> findHistoryFirst(String sessionId, int limit) {
+        SessionIndex index = sessions.get(sessionId);
+        return index == null ? new ArrayList<>() : read(index.range(0, limit));
+    }
+
+    @Override
+    public List<ChatMessageDTO> findHistoryAfter(String sessionId, LocalDateTime timestamp, long id, int limit) {
+        SessionIndex index = sessions.get(sessionId);
+        return index == null ? new ArrayList<>() : read(index.after(micros(timestamp), id, limit));
+    }
+
+    @Override
+    public List<ChatMessageDTO> findHistoryBefore(String sessionId, LocalDateTime timestamp, long id, int limit) {
+        SessionIndex index = sessions.get(sessionId);
+        return index == null ? new ArrayList<>() : read(index.before(micros(timestamp), id, limit));
+    }
+
+    @Override
+    public List<ChatMessageDTO> findHistoryLatest(String sessionId, int limit) {
+        SessionIndex index = sessions.get(sessionId);
+        return index == null ? new ArrayList<>() : read(index.before(Long.MAX_VALUE, Long.MAX_VALUE, limit));
+    }
+
+    @Override
+    public HistoryCursor findLatestPosition(String sessionId, ChatMessage.SenderType senderType) {
+        SessionIndex index = sessions.get(sessionId);
+        return index == null ? null : index.latest(senderType);
+    }
+
+    @Override
+    public HistoryVersion findHistoryVersion(String sessionId) {
+        SessionIndex index = sessions.get(sessionId);
+        return index == null ? new HistoryVersion(null, 0) : index.version();
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        if (fsyncExecutor != null) {
+            fsyncExecutor.shutdownNow();
+        }
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            active.force(active.writePosition());
+            for (LogSegment segment : segments.values()) {
+                segment.close();
+            }
+        }
+        log.info("Closed message log in {} at message id {}", directory, nextId - 1);
+    }
+
+    /**
+     * Deletes the oldest segments whose messages are all older than the retention period.
+     * The active segment is always kept.
+     */
+    @Scheduled(cron = "${chatbot.message-store.log.retention-cron:0 30 3 * * *}")
+    public void enforceRetention() {
+        if (retention.isZero()) {
+            return;
+        }
+        long cutoff = LogSegment.toMicros(LocalDateTime.now().minus(retention));
+        List<LogSegment> expired = new ArrayList<>();
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            for (int number : new TreeSet<>(segments.keySet())) {
+                if (number == active.number || newestTimestamps.getOrDefault(number, Long.MIN_VALUE) >= cutoff) {
+                    break;
+                }
+                expired.add(segments.get(number));
+            }
+        }
+        if (expired.isEmpty()) {
+            return;
+        }
+        int upTo = expired.get(expired.size() - 1).number;
+        for (String sessionId : sessions.keySet()) {
+            sessions.computeIfPresent(sessionId, (k, index) -> index.removeSegments(upTo) ? null : index);
+        }
+        // Readers holding older locations skip messages of removed segments
+        for (LogSegment segment : expired) {
+            segments.remove(segment.number);
+            newestTimestamps.remove(segment.number);
+            try {
+                segment.close();
+                Files.deleteIfExists(segment.path);
+            } catch (IOException e) {
+                log.warn("Failed to delete expired message log segment {}", segment.path, e);
+            }
+        }
+        log.info("Deleted {} message log segments older than {}, up to segment {}", expired.size(), retention, upTo);
+    }
+
+    // Writes the records and assigns the ids; returns the records' locations
+    private synchronized long[] append(List<ChatMessage> messages, List<LogSegment.Entry> entries) {
+        if (closed) {
+            throw new IllegalStateException("Message log is closed");
+        }
+        long[] locations = new long[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            LogSegment.Entry entry = entries.get(i);
+            locations[i] = append(nextId, entry);
+            messages.get(i).setId(nextId++);
+        }
+        if (fsync == MessageStoreProperties.Fsync.ALWAYS) {
+            active.force(active.writePosition());
+        }
+        return locations;
+    }
+
+    private long append(long id, LogSegment.Entry entry) {
+        if (entry.size() > segmentSize) {
+            throw new IllegalArgumentException("Message of " + entry.size()
+                    + " bytes does not fit in a log segment of " + segmentSize + " bytes");
+        }
+        int position = active.append(id, entry);
+        if (position < 0) {
+            roll();
+            position = active.append(id, entry);
+        }
+        newestTimestamps.merge(active.number, entry.timestampMicros(), Math::max);
+        return location(active.number, position);
+    }
+
+    private void index(List<ChatMessage> messages, List<LogSegment.Entry> entries, long[] locations) {
+        for (int i = 0; i < messages.size(); i++) {
+            ChatMessage message = messages.get(i);
+            long timestamp = entries.get(i).timestampMicros();
+            long location = locations[i];
+            sessions.compute(message.getSessionId(), (k, index) -> {
+                SessionIndex target = index == null ? new SessionIndex() : index;
+                target.add(message.getId(), timestamp, location, message.getSenderType().ordinal());
+                return target;
+            });
+        }
+    }
+
+    // The transaction rolled back after its messages were appended
+    private synchronized void abort(List<ChatMessage> messages) {
+        if (closed) {
+            log.error("Message log closed before {} rolled back messages could be marked as aborted", messages.size());
+            return;
+        }
+        try {
+            long now = LogSegment.toMicros(LocalDateTime.now());
+            for (ChatMessage message : messages) {
+                append(message.getId(), new LogSegment.Entry(now, ABORTED.getBytes(StandardCharsets.US_ASCII),
+                        new byte[0], message.getSessionId().getBytes(StandardCharsets.UTF_8), new byte[0]));
+                message.setId(null);
+            }
+            if (fsync == MessageStoreProperties.Fsync.ALWAYS) {
+                active.force(active.writePosition());
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to mark {} rolled back messages as aborted; they reappear after a restart",
+                    messages.size(), e);
+        }
+    }
+
+    private void roll() {
+        LogSegment full = active;
+        if (fsync != MessageStoreProperties.Fsync.NEVER) {
+            full.force(full.writePosition());
+        }
+        try {
+            active = openSegment(full.number + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create message log segment " + (full.number + 1), e);
+        }
+        log.debug("Message log rolled to segment {}", active.number);
+    }
+
+    private void forceActive() {
+        LogSegment segment;
+        int upTo;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            segment = active;
+            upTo = segment.writePosition();
+        }
+        try {
+            segment.force(upTo);
+        } catch (RuntimeException e) {
+            log.warn("Failed to force message log segment {}", segment.number, e);
+        }
+    }
+
+    private void recover() throws IOException {
+        Files.createDirectories(directory);
+        SortedMap<Integer, Path> files = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "segment-*.log")) {
+            for (Path file : stream) {
+                Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    files.put(Integer.parseInt(matcher.group(1)), file);
+                }
+            }
+        }
+
+        long start = System.nanoTime();
+        long records = 0;
+        for (Map.Entry<Integer, Path> file : files.entrySet()) {
+            LogSegment segment = LogSegment.open(file.getValue(), file.getKey(), segmentSize);
+            segments.put(segment.number, segment);
+            long[] count = new long[1];
+            boolean clean = segment.recover((position, header) -> {
+                nextId = Math.max(nextId, header.id() + 1);
+                newestTimestamps.merge(segment.number, header.timestampMicros(), Math::max);
+                if (ABORTED.equals(header.senderType())) {
+                    // Follows the message it cancels
+                    SessionIndex index = sessions.get(header.sessionId());
+                    if (index != null && index.remove(header.id())) {
+                        count[0]--;
+                    }
+                    return;
+                }
+                sessions.computeIfAbsent(header.sessionId(), k -> new SessionIndex())
+                        .add(header.id(), header.timestampMicros(), location(segment.number, position),
+                                ChatMessage.SenderType.valueOf(header.senderType()).ordinal());
+                count[0]++;
+            });
+            if (!clean) {
+                log.warn("Message log segment {} has a torn or corrupt record at offset {}, discarding the rest",
+                        segment.path, segment.writePosition());
+                segment.truncate();
+            }
+            records += count[0];
+            active = segment;
+        }
+        if (active == null) {
+            active = openSegment(0);
+        }
+        log.info("Opened message log in {}: {} segments, {} messages in {} sessions, recovered in {} ms",
+                directory.toAbsolutePath(), segments.size(), records, sessions.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private LogSegment openSegment(int number) throws IOException {
+        LogSegment segment = LogSegment.open(directory.resolve(String.format("segment-%010d.log", number)),
+                number, segmentSize);
+        segments.put(number, segment);
+        return segment;
+    }
+
+    private List<ChatMessageDTO> read(long[] locations) {
+        List<ChatMessageDTO> messages = new ArrayList<>(locations.length);
+        for (long location : locations) {
+            LogSegment segment = segments.get((int) (location >>> 32));
+            if (segment != null) {
+                messages.add(segment.read((int) location));
+            }
+        }
+        return messages;
+    }
+
+    private static LogSegment.Entry prepare(ChatMessage message) {
+        if (message.getTimestamp() == null) {
+            message.setTimestamp(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        }
+        if (message.getIsRead() == null) {
+            message.setIsRead(false);
+        }
+        byte[] sessionId = message.getSessionId().getBytes(StandardCharsets.UTF_8);
+        if (sessionId.length > 0xFFFF) {
+            throw new IllegalArgumentException("Session id too long: " + message.getSessionId());
+        }
+        return new LogSegment.Entry(LogSegment.toMicros(message.getTimestamp()),
+                message.getSenderType().name().getBytes(StandardCharsets.US_ASCII),
+                message.getMessageType().name().getBytes(StandardCharsets.US_ASCII),
+                sessionId,
+                message.getContent().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long micros(LocalDateTime timestamp) {
+        return timestamp == null ? LogSegment.NO_TIMESTAMP : LogSegment.toMicros(timestamp);
+    }
+
+    private static long location(int segment, int position) {
+        return ((long) segment << 32) | position;
+    }
+
+    /**
+     * Locations of one session's messages in (timestamp, id) order. Appends nearly always
+     * go to the end; a message with an older timestamp is inserted in place.
+     */
+    private static final class SessionIndex {
+
+        private long[] ids = new long[8];
+        private long[] timestamps = new long[8];
+        private long[] locations = new long[8];
+        private byte[] senders = new byte[8];
+        private int size;
+        private final long[] latestBySender = new long[ChatMessage.SenderType.values().length];
+
+        synchronized void add(long id, long timestamp, long location, int sender) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                timestamps = Arrays.copyOf(timestamps, capacity);
+                locations = Arrays.copyOf(locations, capacity);
+                senders = Arrays.copyOf(senders, capacity);
+            }
+            int at = size;
+            while (at > 0 && compare(timestamps[at - 1], ids[at - 1], timestamp, id) > 0) {
+                at--;
+            }
+            if (at < size) {
+                System.arraycopy(ids, at, ids, at + 1, size - at);
+                System.arraycopy(timestamps, at, timestamps, at + 1, size - at);
+                System.arraycopy(locations, at, locations, at + 1, size - at);
+                System.arraycopy(senders, at, senders, at + 1, size - at);
+            }
+            ids[at] = id;
+            timestamps[at] = timestamp;
+            locations[at] = location;
+            senders[at] = (byte) sender;
+            size++;
+            latestBySender[sender] = Math.max(latestBySender[sender], id);
+        }
+
+        // Ascending from position from
+        synchronized long[] range(int from, int limit) {
+            return Arrays.copyOfRange(locations, from, from + Math.min(limit, size - from));
+        }
+
+        // Ascending, strictly after (timestamp, id)
+        synchronized long[] after(long timestamp, long id, int limit) {
+            int from = search(timestamp, id);
+            while (from < size && compare(timestamps[from], ids[from], timestamp, id) == 0) {
+                from++;
+            }
+            return range(from, limit);
+        }
+
+        // Descending, strictly before (timestamp, id)
+        synchronized long[] before(long timestamp, long id, int limit) {
+            int to = search(timestamp, id);
+            long[] page = new long[Math.min(limit, to)];
+            for (int i = 0; i < page.length; i++) {
+                page[i] = locations[to - 1 - i];
+            }
+            return page;
+        }
+
+        // Drops the message; false when it is not in this index
+        synchronized boolean remove(long id) {
+            for (int i = size - 1; i >= 0; i--) {
+                if (ids[i] == id) {
+                    System.arraycopy(ids, i + 1, ids, i, size - i - 1);
+                    System.arraycopy(timestamps, i + 1, timestamps, i, size - i - 1);
+                    System.arraycopy(locations, i + 1, locations, i, size - i - 1);
+                    System.arraycopy(senders, i + 1, senders, i, size - i - 1);
+                    size--;
+                    recomputeLatest();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Drops the messages in segments up to and including upTo; true when none are left
+        synchronized boolean removeSegments(int upTo) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if ((int) (locations[i] >>> 32) > upTo) {
+                    ids[kept] = ids[i];
+                    timestamps[kept] = timestamps[i];
+                    locations[kept] = locations[i];
+                    senders[kept] = senders[i];
+                    kept++;
+                }
+            }
+            if (kept == size) {
+                return false;
+            }
+            size = kept;
+            if (size < ids.length / 4) {
+                int capacity = Math.max(8, size * 2);
+                ids = Arrays.copyOf(ids, capacity);
+                timestamps = Arrays.copyOf(timestamps, capacity);
+                locations = Arrays.copyOf(locations, capacity);
+                senders = Arrays.copyOf(senders, capacity);
+            }
+            recomputeLatest();
+            return size == 0;
+        }
+
+        synchronized HistoryVersion version() {
+            long latest = 0;
+            for (long id : latestBySender) {
+                latest = Math.max(latest, id);
+            }
+            return new HistoryVersion(latest == 0 ? null : latest, size);
+        }
+
+        // Last entry of the sender in (timestamp, id) order; usually one of the last few
+        synchronized HistoryCursor latest(ChatMessage.SenderType senderType) {
+            for (int i = size - 1; i >= 0; i--) {
+                if (senders[i] == senderType.ordinal()) {
+                    return timestamps[i] == LogSegment.NO_TIMESTAMP ? null
+                            : new HistoryCursor(LogSegment.fromMicros(timestamps[i]), ids[i]);
+                }
+            }
+            return null;
+        }
+
+        private void recomputeLatest() {
+            Arrays.fill(latestBySender, 0);
+            for (int i = 0; i < size; i++) {
+                latestBySender[senders[i]] = Math.max(latestBySender[senders[i]], ids[i]);
+            }
+        }
+
+        // First index whose key is not less than (timestamp, id)
+        private int search(long timestamp, long id) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compare(timestamps[mid], ids[mid], timestamp, id) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        // NO_TIMESTAMP is Long.MIN_VALUE, so messages without one sort first like nullsFirst
+        private static int compare(long timestamp, long id, long otherTimestamp, long otherId) {
+            int result = Long.compare(timestamp, otherTimestamp);
+            return result != 0 ? result : Long.compare(id, otherId);
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.chatbot.repository;
+
+import com.chatbot.dto.ChatMessageDTO;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32C;
+
+/**
+ * One memory-mapped file of the message log. Records are appended back to back from the
+ * start of the file:
+ *
+ * <pre>
+ * int length | int crc32c | long id | long timestamp | sender type | message type | session id | content
+ * </pre>
+ *
+ * where length and crc cover everything after them, the timestamp is epoch micros read as
+ * UTC ({@link Long#MIN_VALUE} for none), the type names are a byte length plus ASCII, the
+ * session id an unsigned short length plus UTF-8 and the content an int length plus UTF-8.
+ * The length is written last, so a record whose length is zero was never completed; the
+ * file is preallocated with zeros and the first zero length marks the end of the data.
+ *
+ * Appends are serialized by {@link LogMessageStore}; reads use absolute positions only
+ * and may run concurrently with them.
+ */
+final class LogSegment implements Closeable {
+
+    static final int HEADER_SIZE = 8;
+    static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    // id, timestamp and the four length prefixes
+    private static final int FIXED_BODY_SIZE = 8 + 8 + 1 + 1 + 2 + 4;
+
+    final int number;
+    final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private int writePosition;
+    private int forcedPosition;
+
+    private LogSegment(int number, Path path, FileChannel channel, MappedByteBuffer buffer) {
+        this.number = number;
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Maps the segment file, creating it with {@code size} bytes if needed. Existing files
+     * keep their own size.
+     */
+    static LogSegment open(Path path, int number, int size) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            long capacity = Math.max(channel.size(), size);
+            if (capacity > Integer.MAX_VALUE) {
+                throw new IOException("Segment too large: " + path);
+            }
+            return new LogSegment(number, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * A record ready to be appended; the type names and strings are encoded up front so
+     * appending only copies bytes.
+     */
+    record Entry(long timestampMicros, byte[] senderType, byte[] messageType, byte[] sessionId, byte[] content) {
+
+        int size() {
+            return HEADER_SIZE + FIXED_BODY_SIZE + senderType.length + messageType.length + sessionId.length
+                    + content.length;
+        }
+    }
+
+    /**
+     * The fields of a stored record that the in-memory index needs.
+     */
+    record Header(long id, long timestampMicros, String senderType, String sessionId) {
+    }
+
+    int capacity() {
+        return buffer.capacity();
+    }
+
+    int writePosition() {
+        return writePosition;
+    }
+
+    /**
+     * Appends the record and returns its position, or -1 when it does not fit.
+     */
+    int append(long id, Entry entry) {
+        int position = writePosition;
+        int size = entry.size();
+        if (size > buffer.capacity() - position) {
+            return -1;
+        }
+        int at = position + HEADER_SIZE;
+        buffer.putLong(at, id);
+        buffer.putLong(at + 8, entry.timestampMicros());
+        at += 16;
+        at = putBytes(at, entry.senderType(), 1);
+        at = putBytes(at, entry.messageType(), 1);
+        at = putBytes(at, entry.sessionId(), 2);
+        putBytes(at, entry.content(), 4);
+
+        int length = size - HEADER_SIZE;
+        buffer.putInt(position + 4, checksum(position + HEADER_SIZE, length));
+        buffer.putInt(position, length);
+        writePosition = position + size;
+        return position;
+    }
+
+    ChatMessageDTO read(int position) {
+        int at = position + HEADER_SIZE;
+        long id = buffer.getLong(at);
+        long micros = buffer.getLong(at + 8);
+        at += 16;
+        String senderType = ascii(at);
+        at += 1 + Byte.toUnsignedInt(buffer.get(at));
+        String messageType = ascii(at);
+        at += 1 + Byte.toUnsignedInt(buffer.get(at));
+        at += 2 + Short.toUnsignedInt(buffer.getShort(at));
+        byte[] content = new byte[buffer.getInt(at)];
+        buffer.get(at + 4, content);
+        return new ChatMessageDTO(id, new String(content, StandardCharsets.UTF_8), senderType, messageType,
+                micros == NO_TIMESTAMP ? null : fromMicros(micros), null);
+    }
+
+    /**
+     * Reads the records from the start of the file up to the first incomplete or corrupt
+     * one, passing each to {@code visitor} with its position, and makes the end of the
+     * last good record the write position. Returns false when the scan stopped at a
+     * corrupt record rather than at the end of the data.
+     */
+    boolean recover(RecordVisitor visitor) {
+        int position = 0;
+        boolean clean = true;
+        while (buffer.capacity() - position >= HEADER_SIZE) {
+            int length = buffer.getInt(position);
+            if (length == 0) {
+                break;
+            }
+            if (length < FIXED_BODY_SIZE || length > buffer.capacity() - position - HEADER_SIZE
+                    || buffer.getInt(position + 4) != checksum(position + HEADER_SIZE, length)) {
+                clean = false;
+                break;
+            }
+            visitor.visit(position, header(position));
+            position += HEADER_SIZE + length;
+        }
+        writePosition = position;
+        forcedPosition = position;
+        return clean;
+    }
+
+    @FunctionalInterface
+    interface RecordVisitor {
+        void visit(int position, Header header);
+    }
+
+    /**
+     * Zeroes everything from the write position on, so a torn record left behind by a
+     * crash is not mistaken for data once new records are appended before it.
+     */
+    void truncate() {
+        byte[] zeros = new byte[8192];
+        for (int at = writePosition; at < buffer.capacity(); at += zeros.length) {
+            buffer.put(at, zeros, 0, Math.min(zeros.length, buffer.capacity() - at));
+        }
+        buffer.force();
+    }
+
+    /**
+     * Forces the records appended since the last call to disk, up to {@code upTo}.
+     */
+    synchronized void force(int upTo) {
+        int from = forcedPosition;
+        if (upTo > from) {
+            buffer.force(from, upTo - from);
+            forcedPosition = upTo;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private Header header(int position) {
+        int at = position + HEADER_SIZE;
+        long id = buffer.getLong(at);
+        long micros = buffer.getLong(at + 8);
+        at += 16;
+        String senderType = ascii(at);
+        at += 1 + Byte.toUnsignedInt(buffer.get(at));
+        at += 1 + Byte.toUnsignedInt(buffer.get(at));
+        byte[] sessionId = new byte[Short.toUnsignedInt(buffer.getShort(at))];
+        buffer.get(at + 2, sessionId);
+        return new Header(id, micros, senderType, new String(sessionId, StandardCharsets.UTF_8));
+    }
+
+    private int putBytes(int at, byte[] value, int lengthBytes) {
+        switch (lengthBytes) {
+            case 1 -> buffer.put(at, (byte) value.length);
+            case 2 -> buffer.putShort(at, (short) value.length);
+            default -> buffer.putInt(at, value.length);
+        }
+        buffer.put(at + lengthBytes, value);
+        return at + lengthBytes + value.length;
+    }
+
+    private String ascii(int at) {
+        byte[] value = new byte[Byte.toUnsignedInt(buffer.get(at))];
+        buffer.get(at + 1, value);
+        return new String(value, StandardCharsets.US_ASCII);
+    }
+
+    private int checksum(int from, int length) {
+        CRC32C crc = new CRC32C();
+        ByteBuffer body = buffer.slice(from, length);
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+
+    static long toMicros(LocalDateTime value) {
+        return value.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + value.getNano() / 1_000;
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+}
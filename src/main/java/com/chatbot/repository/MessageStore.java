@@ -0,0 +1,50 @@
+package com.chatbot.repository;
+
+import com.chatbot.dto.ChatMessageDTO;
+import com.chatbot.dto.HistoryCursor;
+import com.chatbot.dto.HistoryVersion;
+import com.chatbot.entity.ChatMessage;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Storage of chat messages behind the services, selected with
+ * {@code chatbot.message-store.type}: {@link JpaMessageStore} (the chat_messages table) or
+ * {@link LogMessageStore} (an append-only log of memory-mapped segments).
+ *
+ * Histories are ordered by (timestamp, id); the find methods take the same keyset
+ * positions as {@link com.chatbot.dto.HistoryCursor} and return at most {@code limit}
+ * messages with {@code isRead} left unset.
+ */
+public interface MessageStore {
+
+    /**
+     * Stores the message; it has its id and timestamp once the surrounding transaction,
+     * if any, has committed.
+     */
+    ChatMessage save(ChatMessage message);
+
+    void saveAll(List<ChatMessage> messages);
+
+    // Whole transcript, oldest first
+    List<ChatMessageDTO> findHistory(String sessionId);
+
+    // Oldest messages, ascending
+    List<ChatMessageDTO> findHistoryFirst(String sessionId, int limit);
+
+    // Messages after the position, ascending
+    List<ChatMessageDTO> findHistoryAfter(String sessionId, LocalDateTime timestamp, long id, int limit);
+
+    // Messages before the position, descending
+    List<ChatMessageDTO> findHistoryBefore(String sessionId, LocalDateTime timestamp, long id, int limit);
+
+    // Newest messages, descending
+    List<ChatMessageDTO> findHistoryLatest(String sessionId, int limit);
+
+    // Position of the sender's newest message, null when there is none
+    HistoryCursor findLatestPosition(String sessionId, ChatMessage.SenderType senderType);
+
+    // Newest id and count of the session's messages; (null, 0) when it has none
+    HistoryVersion findHistoryVersion(String sessionId);
+}
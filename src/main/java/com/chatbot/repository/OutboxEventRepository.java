@@ -0,0 +1,37 @@
+package com.chatbot.repository;
+
+import com.chatbot.entity.OutboxEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Oldest events first, in the order they were inserted by the database clock
+    @Query("SELECT e FROM OutboxEvent e ORDER BY e.createdAt, e.id")
+    List<OutboxEvent> findNextBatch(Limit limit);
+
+    // Takes or extends the relay lease, timed by the database clock; 1 when this owner holds it
+    @Modifying
+    @Query(value = "UPDATE chat_outbox_lease SET owner = :owner, " +
+            "expires_at = TIMESTAMPADD(MICROSECOND, :micros, CURRENT_TIMESTAMP(6)) " +
+            "WHERE name = :name AND (owner = :owner OR expires_at IS NULL OR expires_at < CURRENT_TIMESTAMP(6))",
+            nativeQuery = true)
+    int acquireLease(@Param("name") String name, @Param("owner") String owner, @Param("micros") long micros);
+
+    // Age of an event by the database clock, which stamps created_at; the JVM's may differ
+    @Query(value = "SELECT TIMESTAMPDIFF(MICROSECOND, :createdAt, CURRENT_TIMESTAMP(6))", nativeQuery = true)
+    long microsSince(@Param("createdAt") LocalDateTime createdAt);
+
+    @Modifying
+    @Query(value = "UPDATE chat_outbox_lease SET owner = NULL, expires_at = NULL WHERE name = :name AND owner = :owner",
+            nativeQuery = true)
+    int releaseLease(@Param("name") String name, @Param("owner") String owner);
+}
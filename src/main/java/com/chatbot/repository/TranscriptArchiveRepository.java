@@ -0,0 +1,17 @@
+package com.chatbot.repository;
+
+import com.chatbot.entity.TranscriptArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface TranscriptArchiveRepository extends JpaRepository<TranscriptArchive, String> {
+
+    // Without loading the transcript blob
+    @Query("SELECT a.messageCount FROM TranscriptArchive a WHERE a.sessionId = :sessionId")
+    Optional<Integer> findMessageCount(@Param("sessionId") String sessionId);
+}
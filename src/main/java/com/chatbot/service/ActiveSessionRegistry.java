@@ -0,0 +1,204 @@
+package com.chatbot.service;
+
+import com.chatbot.dto.ActiveSessionPage;
+import com.chatbot.dto.ActiveSessionSummary;
+import com.chatbot.dto.SessionSnapshot;
+import com.chatbot.entity.ChatSession;
+import com.chatbot.repository.ChatSessionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory index of the sessions in status ACTIVE, ordered by database id and indexed
+ * by user, so listing and counting them never touches the database.
+ *
+ * It is kept current by {@link SessionCache}, which reports every committed session
+ * write, and rebuilt from the database with keyset-paged projections once the
+ * application is ready. Until then pages are read from the database directly. Sessions
+ * that leave ACTIVE during the rebuild are remembered, so the rebuild cannot re-add them
+ * from a stale page.
+ */
+@Slf4j
+@Component
+public class ActiveSessionRegistry {
+
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private static final int REBUILD_CHUNK_SIZE = 1000;
+
+    private final ChatSessionRepository chatSessionRepository;
+    private final ConcurrentSkipListMap<Long, ActiveSessionSummary> sessions = new ConcurrentSkipListMap<>();
+    // Session id -> database id; its per-key locking also serialises updates of one session
+    private final Map<String, Long> ids = new ConcurrentHashMap<>();
+    private final Map<String, NavigableSet<Long>> idsByUser = new ConcurrentHashMap<>();
+    private final Set<String> removedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private final AtomicLong count = new AtomicLong();
+
+    private volatile boolean ready;
+
+    public ActiveSessionRegistry(ChatSessionRepository chatSessionRepository) {
+        this.chatSessionRepository = chatSessionRepository;
+    }
+
+    /**
+     * Applies a committed session write: active sessions are added, any other status removes it.
+     */
+    public void update(SessionSnapshot session) {
+        if (session.getId() == null || session.getSessionId() == null) {
+            return;
+        }
+        if (session.getStatus() == ChatSession.ChatStatus.ACTIVE) {
+            removedDuringRebuild.remove(session.getSessionId());
+            add(new ActiveSessionSummary(session.getId(), session.getSessionId(), session.getUserId(),
+                    session.getUserName(), session.getCreatedAt()), true);
+        } else {
+            remove(session.getSessionId());
+        }
+    }
+
+    public void remove(String sessionId) {
+        if (!ready) {
+            removedDuringRebuild.add(sessionId);
+        }
+        ids.computeIfPresent(sessionId, (key, id) -> {
+            ActiveSessionSummary removed = sessions.remove(id);
+            if (removed != null && removed.getUserId() != null) {
+                idsByUser.computeIfPresent(removed.getUserId(), (user, userIds) -> {
+                    userIds.remove(id);
+                    return userIds.isEmpty() ? null : userIds;
+                });
+            }
+            count.decrementAndGet();
+            return null;
+        });
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public long count() {
+        return count.get();
+    }
+
+    /**
+     * Returns up to {@code limit} active sessions with an id after the cursor, optionally
+     * only those of one user.
+     */
+    public ActiveSessionPage getPage(String userId, String after, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long afterId = after == null ? 0 : parseCursor(after);
+
+        List<ActiveSessionSummary> summaries;
+        Long total;
+        if (!ready) {
+            summaries = userId == null
+                    ? chatSessionRepository.findSummaries(ChatSession.ChatStatus.ACTIVE, afterId, Limit.of(size + 1))
+                    : chatSessionRepository.findSummariesByUser(ChatSession.ChatStatus.ACTIVE, userId, afterId,
+                    Limit.of(size + 1));
+            total = null;
+        } else if (userId == null) {
+            summaries = take(sessions.tailMap(afterId, false).values().iterator(), size + 1);
+            total = count.get();
+        } else {
+            NavigableSet<Long> userIds = idsByUser.get(userId);
+            summaries = new ArrayList<>();
+            if (userIds != null) {
+                for (Iterator<Long> it = userIds.tailSet(afterId, false).iterator(); it.hasNext() && summaries.size() <= size; ) {
+                    ActiveSessionSummary summary = sessions.get(it.next());
+                    if (summary != null) {
+                        summaries.add(summary);
+                    }
+                }
+            }
+            total = userIds == null ? 0L : (long) userIds.size();
+        }
+
+        ActiveSessionPage page = new ActiveSessionPage();
+        page.setHasMore(summaries.size() > size);
+        if (page.isHasMore()) {
+            summaries = new ArrayList<>(summaries.subList(0, size));
+            page.setNextCursor(String.valueOf(summaries.get(size - 1).getId()));
+        }
+        page.setSessions(summaries);
+        page.setTotal(total);
+        return page;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        long afterId = 0;
+        int loaded = 0;
+        List<ActiveSessionSummary> chunk;
+        do {
+            chunk = chatSessionRepository.findSummaries(ChatSession.ChatStatus.ACTIVE, afterId,
+                    Limit.of(REBUILD_CHUNK_SIZE));
+            for (ActiveSessionSummary summary : chunk) {
+                if (!removedDuringRebuild.contains(summary.getSessionId())) {
+                    // Never replace an entry added by a live update
+                    add(summary, false);
+                }
+            }
+            loaded += chunk.size();
+            if (!chunk.isEmpty()) {
+                afterId = chunk.get(chunk.size() - 1).getId();
+            }
+        } while (chunk.size() == REBUILD_CHUNK_SIZE);
+        ready = true;
+        removedDuringRebuild.clear();
+        log.info("Loaded {} active sessions into the registry in {} ms", loaded,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void add(ActiveSessionSummary summary, boolean replace) {
+        ids.compute(summary.getSessionId(), (key, existing) -> {
+            if (existing != null && !replace) {
+                return existing;
+            }
+            if (existing == null) {
+                count.incrementAndGet();
+            }
+            sessions.put(summary.getId(), summary);
+            if (summary.getUserId() != null) {
+                // Added inside compute so a concurrent removal cannot drop the set underneath
+                idsByUser.compute(summary.getUserId(), (user, userIds) -> {
+                    NavigableSet<Long> set = userIds == null ? new ConcurrentSkipListSet<>() : userIds;
+                    set.add(summary.getId());
+                    return set;
+                });
+            }
+            return summary.getId();
+        });
+    }
+
+    private static List<ActiveSessionSummary> take(Iterator<ActiveSessionSummary> it, int max) {
+        List<ActiveSessionSummary> result = new ArrayList<>(Math.min(max, 64));
+        while (it.hasNext() && result.size() < max) {
+            result.add(it.next());
+        }
+        return result;
+    }
+
+    private static long parseCursor(String after) {
+        try {
+            return Long.parseLong(after);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + after, e);
+        }
+    }
+}
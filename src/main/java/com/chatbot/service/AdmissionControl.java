@@ -0,0 +1,192 @@
+package com.chatbot.service;
+
+import com.chatbot.config.AdmissionProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admission control of the message endpoints, in front of anything that touches the
+ * database: per-user and per-session {@link GcraRateLimiter rate limits}, then a global
+ * {@link AimdConcurrencyLimiter} fed with the latency of the admitted requests. Requests
+ * over either limit fail right away with {@link AdmissionRejectedException} instead of
+ * queueing for a connection.
+ *
+ * Published metrics: {@code chat.admission.rejected} (tag {@code reason}),
+ * {@code chat.admission.concurrency.limit}, {@code chat.admission.in_flight} and
+ * {@code chat.admission.buckets} (tag {@code key=user|session}).
+ */
+@Slf4j
+@Service
+public class AdmissionControl {
+
+    public enum Reason {
+        USER_RATE, SESSION_RATE, CONCURRENCY;
+
+        private final String tag = name().toLowerCase();
+    }
+
+    // Retry-After when the concurrency limit is reached; it frees up within request latencies
+    private static final long CONCURRENCY_RETRY_AFTER_SECONDS = 1;
+
+    private final AdmissionProperties properties;
+    private final GcraRateLimiter userLimiter;
+    private final GcraRateLimiter sessionLimiter;
+    private final AimdConcurrencyLimiter concurrencyLimiter;
+    private final Map<Reason, Counter> rejected = new EnumMap<>(Reason.class);
+
+    public AdmissionControl(AdmissionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.userLimiter = new GcraRateLimiter(properties.getUser().getPerSecond(), properties.getUser().getBurst(),
+                properties.getMaxKeys(), System::nanoTime);
+        this.sessionLimiter = new GcraRateLimiter(properties.getSession().getPerSecond(),
+                properties.getSession().getBurst(), properties.getMaxKeys(), System::nanoTime);
+        AdmissionProperties.Concurrency concurrency = properties.getConcurrency();
+        this.concurrencyLimiter = concurrency.isEnabled()
+                ? new AimdConcurrencyLimiter(concurrency.getInitialLimit(), concurrency.getMinLimit(),
+                        concurrency.getMaxLimit(), concurrency.getBackoffRatio(),
+                        concurrency.getLatencyThreshold().toNanos(), System::nanoTime)
+                : null;
+
+        for (Reason reason : Reason.values()) {
+            rejected.put(reason, Counter.builder("chat.admission.rejected")
+                    .description("Chat requests shed by admission control")
+                    .tag("reason", reason.tag)
+                    .register(meterRegistry));
+        }
+        Gauge.builder("chat.admission.buckets", userLimiter, GcraRateLimiter::size)
+                .description("Rate-limit buckets in memory")
+                .tag("key", "user")
+                .register(meterRegistry);
+        Gauge.builder("chat.admission.buckets", sessionLimiter, GcraRateLimiter::size)
+                .description("Rate-limit buckets in memory")
+                .tag("key", "session")
+                .register(meterRegistry);
+        if (concurrencyLimiter != null) {
+            Gauge.builder("chat.admission.concurrency.limit", concurrencyLimiter, AimdConcurrencyLimiter::getLimit)
+                    .description("Current adaptive limit of concurrently processed chat requests")
+                    .register(meterRegistry);
+            Gauge.builder("chat.admission.in_flight", concurrencyLimiter, AimdConcurrencyLimiter::getInFlight)
+                    .description("Chat requests being processed")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Admits one request of the user in the session (either may be null) or throws
+     * {@link AdmissionRejectedException}. The returned permit must be released once the
+     * request is done. A request turned away by one limit does not count against the others.
+     */
+    public Permit admit(String userId, String sessionId) {
+        if (!properties.isEnabled()) {
+            return Permit.NONE;
+        }
+        Permit permit = acquire();
+        try {
+            checkRates(userId, sessionId);
+        } catch (AdmissionRejectedException e) {
+            permit.cancel();
+            throw e;
+        }
+        return permit;
+    }
+
+    /**
+     * Counts one message of the user in the session (either may be null) against their
+     * rate limits, throwing {@link AdmissionRejectedException} when either is exceeded.
+     */
+    public void checkRates(String userId, String sessionId) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (userId != null) {
+            checkRate(userLimiter, userId, Reason.USER_RATE);
+        }
+        if (sessionId != null) {
+            try {
+                checkRate(sessionLimiter, sessionId, Reason.SESSION_RATE);
+            } catch (AdmissionRejectedException e) {
+                if (userId != null) {
+                    userLimiter.refund(userId);
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Takes a slot under the concurrency limit without touching the rate limits, for
+     * requests that check those per item (see {@link ChatBatchService}).
+     */
+    public Permit acquire() {
+        if (!properties.isEnabled() || concurrencyLimiter == null) {
+            return Permit.NONE;
+        }
+        OptionalLong start = concurrencyLimiter.tryAcquire();
+        if (start.isEmpty()) {
+            throw reject(Reason.CONCURRENCY, CONCURRENCY_RETRY_AFTER_SECONDS);
+        }
+        return new Permit(concurrencyLimiter, start.getAsLong());
+    }
+
+    private void checkRate(GcraRateLimiter limiter, String key, Reason reason) {
+        long waitNanos = limiter.tryAcquire(key);
+        if (waitNanos > 0) {
+            // Retry-After has whole seconds; rounding up never invites an early retry
+            throw reject(reason, Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1)));
+        }
+    }
+
+    private AdmissionRejectedException reject(Reason reason, long retryAfterSeconds) {
+        rejected.get(reason).increment();
+        log.debug("Shedding chat request: {}", reason);
+        return new AdmissionRejectedException(reason, retryAfterSeconds);
+    }
+
+    /**
+     * Slot of an admitted request. Releasing it reports the request's latency and outcome
+     * to the concurrency limiter; only the first release counts.
+     */
+    public static final class Permit {
+
+        static final Permit NONE = new Permit(null, 0);
+
+        private final AimdConcurrencyLimiter limiter;
+        private final long startNanos;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(AimdConcurrencyLimiter limiter, long startNanos) {
+            this.limiter = limiter;
+            this.startNanos = startNanos;
+        }
+
+        public void release(boolean success) {
+            release(success, 1);
+        }
+
+        /**
+         * Releases the slot of a request that carried {@code items} messages, so its
+         * latency is judged per message.
+         */
+        public void release(boolean success, int items) {
+            if (limiter != null && released.compareAndSet(false, true)) {
+                limiter.release(startNanos, success, items);
+            }
+        }
+
+        // The request was turned away after taking the slot
+        private void cancel() {
+            if (limiter != null && released.compareAndSet(false, true)) {
+                limiter.cancel();
+            }
+        }
+    }
+}
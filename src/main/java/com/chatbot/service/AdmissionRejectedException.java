@@ -0,0 +1,20 @@
+package com.chatbot.service;
+
+import lombok.Getter;
+
+/**
+ * Thrown by {@link AdmissionControl} when a request is shed; answered with 429.
+ */
+@Getter
+public class AdmissionRejectedException extends RuntimeException {
+
+    private final AdmissionControl.Reason reason;
+    // Whole seconds, as sent in Retry-After
+    private final long retryAfterSeconds;
+
+    public AdmissionRejectedException(AdmissionControl.Reason reason, long retryAfterSeconds) {
+        super("Request rejected: " + reason.name().toLowerCase(), null, false, false);
+        this.reason = reason;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,99 @@
+package com.chatbot.service;
+
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.LongSupplier;
+
+/**
+ * Limit on concurrently processed requests that follows observed latency, additive
+ * increase / multiplicative decrease: a request that fails or takes longer than the
+ * threshold multiplies the limit by the back-off ratio, while fast requests raise it by
+ * about one per limit's worth of completions, but only when the limit is actually being
+ * used. A back-off only applies to requests started after the previous one, so a burst of
+ * slow requests that were already in flight shrinks the limit once rather than each time.
+ */
+public class AimdConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    // Current limit as double bits, so increases can be fractional
+    private final AtomicLong limit;
+    private final AtomicLong lastBackoff;
+
+    public AimdConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+                                  long latencyThresholdNanos, LongSupplier nanoClock) {
+        if (minLimit < 1 || maxLimit < minLimit || backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Invalid concurrency limits");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.nanoClock = nanoClock;
+        this.limit = new AtomicLong(Double.doubleToLongBits(Math.max(minLimit, Math.min(maxLimit, initialLimit))));
+        this.lastBackoff = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    /**
+     * Takes a slot and returns its start time, or empty when the limit is reached. The
+     * start time, which may be any long, must be handed back to {@link #release}.
+     */
+    public OptionalLong tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= getLimit()) {
+                return OptionalLong.empty();
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return OptionalLong.of(nanoClock.getAsLong());
+            }
+        }
+    }
+
+    /**
+     * Returns a slot whose request was turned away before doing any work; it says nothing
+     * about latency, so the limit stays as it is.
+     */
+    public void cancel() {
+        inFlight.decrementAndGet();
+    }
+
+    public void release(long startNanos, boolean success) {
+        release(startNanos, success, 1);
+    }
+
+    /**
+     * Releases a slot that served {@code units} requests in a row (a batch); its latency
+     * is judged per unit.
+     */
+    public void release(long startNanos, boolean success, int units) {
+        int before = inFlight.getAndDecrement();
+        long now = nanoClock.getAsLong();
+        if (!success || now - startNanos > latencyThresholdNanos * Math.max(1, units)) {
+            long last = lastBackoff.get();
+            if (startNanos - last > 0 && lastBackoff.compareAndSet(last, now)) {
+                update(value -> Math.max(minLimit, value * backoffRatio));
+            }
+        } else if (before * 2 >= getLimit()) {
+            update(value -> Math.min(maxLimit, value + 1 / value));
+        }
+    }
+
+    public int getLimit() {
+        return (int) Double.longBitsToDouble(limit.get());
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void update(DoubleUnaryOperator change) {
+        limit.updateAndGet(bits -> Double.doubleToLongBits(change.applyAsDouble(Double.longBitsToDouble(bits))));
+    }
+}
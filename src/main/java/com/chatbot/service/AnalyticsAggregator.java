@@ -0,0 +1,205 @@
+package com.chatbot.service;
+
+import com.chatbot.config.AnalyticsProperties;
+import com.chatbot.dto.AnalyticsSnapshot;
+import com.chatbot.dto.AnalyticsWindow;
+import com.chatbot.dto.ChatAnalyticsEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Live counts of chat-analytics events per intent, event type and user segment over
+ * 1m, 5m and 1h windows, both sliding (ending now) and tumbling (last complete aligned
+ * window). Counting is lock-free; a snapshot of all windows is rebuilt every second, so
+ * reading it is constant time.
+ *
+ * State lives outside the listener containers, so partition rebalances do not reset it.
+ * Offsets applied per partition are remembered, which keeps records redelivered after a
+ * rebalance or a retried batch from being counted twice.
+ */
+@Slf4j
+@Service
+public class AnalyticsAggregator {
+
+    private static final String OTHER = "other";
+
+    private enum Window {
+        ONE_MINUTE("1m", 1_000, 60),
+        FIVE_MINUTES("5m", 5_000, 60),
+        ONE_HOUR("1h", 60_000, 60);
+
+        private final String label;
+        private final long bucketMillis;
+        private final int buckets;
+
+        Window(String label, long bucketMillis, int buckets) {
+            this.label = label;
+            this.bucketMillis = bucketMillis;
+            this.buckets = buckets;
+        }
+    }
+
+    private final int maxKeys;
+    private final LongSupplier clock;
+    private final Map<String, WindowCounter[]> intents = new ConcurrentHashMap<>();
+    private final Map<String, WindowCounter[]> eventTypes = new ConcurrentHashMap<>();
+    private final Map<String, WindowCounter[]> segments = new ConcurrentHashMap<>();
+    private final Map<TopicPartition, Long> appliedOffsets = new ConcurrentHashMap<>();
+    private final LongAdder lateEvents = new LongAdder();
+    private volatile AnalyticsSnapshot snapshot;
+
+    @Autowired
+    public AnalyticsAggregator(AnalyticsProperties properties) {
+        this(properties, System::currentTimeMillis);
+    }
+
+    AnalyticsAggregator(AnalyticsProperties properties, LongSupplier clock) {
+        this.maxKeys = properties.getMaxKeysPerDimension();
+        this.clock = clock;
+        this.snapshot = buildSnapshot(clock.getAsLong());
+    }
+
+    /**
+     * Counts a polled batch. Must be called from the listener thread, which sees the
+     * records of a partition in offset order.
+     */
+    public void accept(List<ConsumerRecord<String, ChatAnalyticsEvent>> records) {
+        long now = clock.getAsLong();
+        for (ConsumerRecord<String, ChatAnalyticsEvent> record : records) {
+            TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+            Long applied = appliedOffsets.get(partition);
+            if (applied != null && record.offset() <= applied) {
+                continue;
+            }
+            if (record.value() != null) {
+                record(record.value(), now);
+            }
+            appliedOffsets.put(partition, record.offset());
+        }
+    }
+
+    public void record(ChatAnalyticsEvent event, long nowMillis) {
+        long eventMillis = event.getTimestamp() == null
+                ? nowMillis
+                : event.getTimestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        boolean counted = increment(intents, event.getIntent() == null ? "none" : event.getIntent(), eventMillis, nowMillis);
+        increment(eventTypes, event.getEventType() == null ? "unknown" : event.getEventType(), eventMillis, nowMillis);
+        increment(segments, event.getSegment() == null ? "unknown" : event.getSegment(), eventMillis, nowMillis);
+        if (!counted) {
+            lateEvents.increment();
+        }
+    }
+
+    public AnalyticsSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    @Scheduled(fixedRate = 1000)
+    public void refresh() {
+        long now = clock.getAsLong();
+        for (Map<String, WindowCounter[]> dimension : List.of(intents, eventTypes, segments)) {
+            for (WindowCounter[] counters : dimension.values()) {
+                for (WindowCounter counter : counters) {
+                    counter.clearAhead(now);
+                }
+            }
+        }
+        snapshot = buildSnapshot(now);
+    }
+
+    private boolean increment(Map<String, WindowCounter[]> dimension, String key, long eventMillis, long nowMillis) {
+        WindowCounter[] counters = dimension.get(key);
+        if (counters == null) {
+            // Bounded key space: values beyond the limit are folded into "other"
+            String tracked = dimension.size() < maxKeys ? key : OTHER;
+            counters = dimension.computeIfAbsent(tracked, k -> newCounters(nowMillis));
+        }
+        boolean counted = false;
+        for (WindowCounter counter : counters) {
+            counted |= counter.increment(eventMillis, nowMillis);
+        }
+        return counted;
+    }
+
+    private static WindowCounter[] newCounters(long nowMillis) {
+        Window[] windows = Window.values();
+        WindowCounter[] counters = new WindowCounter[windows.length];
+        for (int i = 0; i < windows.length; i++) {
+            counters[i] = new WindowCounter(windows[i].bucketMillis, windows[i].buckets, nowMillis);
+        }
+        return counters;
+    }
+
+    private AnalyticsSnapshot buildSnapshot(long nowMillis) {
+        List<AnalyticsWindow> windows = new ArrayList<>();
+        for (Window window : Window.values()) {
+            int i = window.ordinal();
+            long windowMillis = window.bucketMillis * window.buckets;
+
+            AnalyticsWindow sliding = new AnalyticsWindow();
+            sliding.setWindow(window.label);
+            sliding.setType("SLIDING");
+            sliding.setFrom(toDateTime(nowMillis - windowMillis));
+            sliding.setTo(toDateTime(nowMillis));
+            sliding.setByIntent(counts(intents, i, nowMillis, false));
+            sliding.setByEventType(counts(eventTypes, i, nowMillis, false));
+            sliding.setBySegment(counts(segments, i, nowMillis, false));
+            sliding.setTotal(total(sliding.getByEventType()));
+            windows.add(sliding);
+
+            long start = Math.floorDiv(nowMillis, windowMillis) * windowMillis - windowMillis;
+            AnalyticsWindow tumbling = new AnalyticsWindow();
+            tumbling.setWindow(window.label);
+            tumbling.setType("TUMBLING");
+            tumbling.setFrom(toDateTime(start));
+            tumbling.setTo(toDateTime(start + windowMillis));
+            tumbling.setByIntent(counts(intents, i, nowMillis, true));
+            tumbling.setByEventType(counts(eventTypes, i, nowMillis, true));
+            tumbling.setBySegment(counts(segments, i, nowMillis, true));
+            tumbling.setTotal(total(tumbling.getByEventType()));
+            windows.add(tumbling);
+        }
+
+        AnalyticsSnapshot result = new AnalyticsSnapshot();
+        result.setGeneratedAt(toDateTime(nowMillis));
+        result.setWindows(List.copyOf(windows));
+        result.setLateEvents(lateEvents.sum());
+        return result;
+    }
+
+    private static Map<String, Long> counts(Map<String, WindowCounter[]> dimension, int window,
+                                            long nowMillis, boolean tumbling) {
+        Map<String, Long> counts = new TreeMap<>();
+        dimension.forEach((key, counters) -> {
+            long count = tumbling ? counters[window].tumbling(nowMillis) : counters[window].sliding(nowMillis);
+            if (count > 0) {
+                counts.put(key, count);
+            }
+        });
+        return Collections.unmodifiableMap(counts);
+    }
+
+    private static long total(Map<String, Long> counts) {
+        long total = 0;
+        for (long count : counts.values()) {
+            total += count;
+        }
+        return total;
+    }
+
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,80 @@
+package com.chatbot.service;
+
+import com.chatbot.config.AsyncChatProperties;
+import com.chatbot.dto.ChatRequest;
+import com.chatbot.dto.ChatResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Staged, non-blocking variant of {@link ChatBotService#processMessage(ChatRequest)}:
+ * classification runs in memory on the calling thread, persistence on the bounded
+ * {@code chatDbExecutor}. Messages of one session are queued in its
+ * {@link SessionSerialExecutor} mailbox rather than holding a pool thread while they wait
+ * for their turn. A saturated executor fails with {@link RejectedExecutionException}.
+ *
+ * On timeout, an exchange that has not started yet is cancelled and fails with a
+ * {@code TimeoutException}, so nothing was stored and the client may retry. One that has
+ * started runs on and commits, so it fails with {@link ExchangeInProgressException}
+ * instead: a retry would store the message twice.
+ */
+@Slf4j
+@Service
+public class AsyncChatService {
+
+    private final ChatBotService chatBotService;
+    private final SessionSerialExecutor sessionSerialExecutor;
+    private final ThreadPoolTaskExecutor chatDbExecutor;
+    private final AsyncChatProperties properties;
+
+    public AsyncChatService(ChatBotService chatBotService,
+                            SessionSerialExecutor sessionSerialExecutor,
+                            @Qualifier("chatDbExecutor") ThreadPoolTaskExecutor chatDbExecutor,
+                            AsyncChatProperties properties) {
+        this.chatBotService = chatBotService;
+        this.sessionSerialExecutor = sessionSerialExecutor;
+        this.chatDbExecutor = chatDbExecutor;
+        this.properties = properties;
+    }
+
+    public CompletableFuture<ChatResponse> processMessage(ChatRequest request) {
+        // Stage 1: classify, in memory on the request thread
+        IntentMatch intent = chatBotService.classify(request.getMessage());
+
+        // Stage 2: persist and build the response on the DB executor, after the session's earlier messages.
+        // Taken by whichever comes first, the start of the exchange or the timeout.
+        AtomicBoolean claimed = new AtomicBoolean();
+        return sessionSerialExecutor
+                .submit(request.getSessionId(), () -> {
+                    if (!claimed.compareAndSet(false, true)) {
+                        throw new CancellationException("Timed out before the exchange started");
+                    }
+                    return chatBotService.exchange(request, intent);
+                }, chatDbExecutor)
+                .whenComplete((response, error) -> {
+                    if (error != null && error.getCause() instanceof RejectedExecutionException) {
+                        log.warn("DB stage saturated, rejecting message for session: {}", request.getSessionId());
+                    }
+                })
+                .orTimeout(properties.getDb().getTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .handle((response, error) -> {
+                    if (error == null) {
+                        return response;
+                    }
+                    if (error instanceof TimeoutException && !claimed.compareAndSet(false, true)) {
+                        throw new CompletionException(new ExchangeInProgressException(request.getSessionId()));
+                    }
+                    throw error instanceof CompletionException completion ? completion : new CompletionException(error);
+                });
+    }
+}
@@ -0,0 +1,128 @@
+package com.chatbot.service;
+
+import com.chatbot.config.ChatBatchProperties;
+import com.chatbot.dto.ChatBatchResponse;
+import com.chatbot.dto.ChatBatchResult;
+import com.chatbot.dto.ChatRequest;
+import com.chatbot.dto.ChatResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Processes many messages, possibly of many sessions, in one call.
+ *
+ * The messages are checked against the per-user and per-session rate limits and
+ * classified up front. All their sessions are then resolved with a single query. Each
+ * session's messages run in order, in one transaction, in the session's
+ * {@link SessionSerialExecutor} turn, and their messages are inserted in one batch. When
+ * that transaction fails, the group is retried one message at a time, so only the items
+ * that fail by themselves are reported as failed.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChatBatchService {
+
+    private final ChatBotService chatBotService;
+    private final SessionCache sessionCache;
+    private final SessionSerialExecutor sessionSerialExecutor;
+    private final AdmissionControl admissionControl;
+    private final ChatBatchProperties properties;
+
+    public ChatBatchResponse processBatch(List<ChatRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("Batch has no messages");
+        }
+        if (requests.size() > properties.getMaxItems()) {
+            throw new IllegalArgumentException("Batch has more than " + properties.getMaxItems() + " messages");
+        }
+
+        ChatBatchResult[] results = new ChatBatchResult[requests.size()];
+        IntentMatch[] intents = new IntentMatch[requests.size()];
+        Map<String, List<Integer>> bySession = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            ChatRequest request = requests.get(i);
+            if (request == null || isBlank(request.getSessionId()) || isBlank(request.getMessage())) {
+                results[i] = ChatBatchResult.error(i, ChatBatchResult.Status.INVALID,
+                        "sessionId and message are required", null);
+                continue;
+            }
+            try {
+                admissionControl.checkRates(request.getUserId(), request.getSessionId());
+            } catch (AdmissionRejectedException e) {
+                results[i] = ChatBatchResult.error(i, ChatBatchResult.Status.REJECTED, e.getMessage(),
+                        e.getRetryAfterSeconds());
+                continue;
+            }
+            intents[i] = chatBotService.classify(request.getMessage());
+            bySession.computeIfAbsent(request.getSessionId(), key -> new ArrayList<>()).add(i);
+        }
+
+        Set<String> known = bySession.isEmpty()
+                ? Set.of() : sessionCache.findAllBySessionId(bySession.keySet()).keySet();
+        for (Map.Entry<String, List<Integer>> group : bySession.entrySet()) {
+            String sessionId = group.getKey();
+            List<Integer> items = group.getValue();
+            try {
+                sessionSerialExecutor.execute(sessionId,
+                        () -> processGroup(requests, intents, items, known.contains(sessionId), results));
+            } catch (RejectedExecutionException e) {
+                for (int i : items) {
+                    results[i] = ChatBatchResult.error(i, ChatBatchResult.Status.REJECTED, "Session busy", 1L);
+                }
+            }
+        }
+
+        ChatBatchResponse response = new ChatBatchResponse();
+        response.setResults(Arrays.asList(results));
+        for (ChatBatchResult result : results) {
+            if (result.getStatus() == ChatBatchResult.Status.OK) {
+                response.setSucceeded(response.getSucceeded() + 1);
+            } else {
+                response.setFailed(response.getFailed() + 1);
+            }
+        }
+        log.debug("Processed batch of {} messages in {} sessions, {} failed", requests.size(), bySession.size(),
+                response.getFailed());
+        return response;
+    }
+
+    // Runs in the session's turn
+    private Void processGroup(List<ChatRequest> requests, IntentMatch[] intents, List<Integer> items,
+                              boolean known, ChatBatchResult[] results) {
+        List<ChatRequest> groupRequests = new ArrayList<>(items.size());
+        List<IntentMatch> groupIntents = new ArrayList<>(items.size());
+        for (int i : items) {
+            groupRequests.add(requests.get(i));
+            groupIntents.add(intents[i]);
+        }
+        try {
+            List<ChatResponse> responses = chatBotService.exchangeAll(groupRequests, groupIntents, known);
+            for (int j = 0; j < items.size(); j++) {
+                results[items.get(j)] = ChatBatchResult.ok(items.get(j), responses.get(j));
+            }
+            return null;
+        } catch (RuntimeException e) {
+            log.warn("Batch of {} messages for session {} failed, retrying one by one: {}", items.size(),
+                    groupRequests.get(0).getSessionId(), e.getMessage());
+        }
+        for (int j = 0; j < items.size(); j++) {
+            int index = items.get(j);
+            try {
+                results[index] = ChatBatchResult.ok(index, chatBotService.exchange(groupRequests.get(j), groupIntents.get(j)));
+            } catch (RuntimeException single) {
+                results[index] = ChatBatchResult.error(index, ChatBatchResult.Status.FAILED,
+                        "Failed to process message", null);
+            }
+        }
+        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
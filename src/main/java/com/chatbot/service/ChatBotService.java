@@ -3,16 +3,20 @@ package com.chatbot.service;
 import com.chatbot.dto.*;
 import com.chatbot.entity.ChatMessage;
 import com.chatbot.entity.ChatSession;
-import com.chatbot.repository.ChatMessageRepository;
 import com.chatbot.repository.ChatSessionRepository;
+import com.chatbot.repository.MessageStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.regex.Pattern;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Slf4j
 @Service
@@ -20,54 +24,164 @@ import java.util.regex.Pattern;
 public class ChatBotService {
 
     private final ChatSessionRepository chatSessionRepository;
-    private final ChatMessageRepository chatMessageRepository;
-
-    // Keyword patterns for intent recognition
-    private static final Map<String, Pattern> KEYWORD_PATTERNS = new HashMap<>();
-
-    static {
-        KEYWORD_PATTERNS.put("greeting", Pattern.compile("(?i)(hello|hi|hey|good morning|good afternoon)"));
-        KEYWORD_PATTERNS.put("pricing", Pattern.compile("(?i)(price|cost|how much|fee|charges)"));
-        KEYWORD_PATTERNS.put("support", Pattern.compile("(?i)(help|support|issue|problem|error)"));
-        KEYWORD_PATTERNS.put("product", Pattern.compile("(?i)(product|feature|service|what can you do)"));
-        KEYWORD_PATTERNS.put("contact", Pattern.compile("(?i)(contact|email|phone|call|speak to human)"));
-        KEYWORD_PATTERNS.put("thanks", Pattern.compile("(?i)(thank|thanks|appreciate)"));
-        KEYWORD_PATTERNS.put("bye", Pattern.compile("(?i)(bye|goodbye|see you|later)"));
-    }
+    private final MessageStore messageStore;
+    private final SessionCache sessionCache;
+    private final ChatMessageWriter chatMessageWriter;
+    private final ReadWatermarkService readWatermarkService;
+    private final ResponseCatalog responseCatalog;
+    private final KafkaProducerService kafkaProducerService;
+    private final ChatMetrics chatMetrics;
+    private final ActiveSessionRegistry activeSessionRegistry;
+    private final SessionExpiryService sessionExpiryService;
+    private final TranscriptArchiveService transcriptArchiveService;
+    private final SessionSerialExecutor sessionSerialExecutor;
+    private final TransactionTemplate transactionTemplate;
 
-    @Transactional
     public ChatResponse processMessage(ChatRequest request) {
+        return processMessage(request, classify(request.getMessage()));
+    }
+
+    /**
+     * Persistence stage of message processing, for callers that already classified the
+     * message (see {@link AsyncChatService}). Messages of one session are processed one at
+     * a time and in arrival order, each in its own transaction.
+     */
+    public ChatResponse processMessage(ChatRequest request, IntentMatch intent) {
+        return sessionSerialExecutor.execute(request.getSessionId(), () -> exchange(request, intent));
+    }
+
+    /**
+     * Runs one exchange in its own transaction. Callers must hold the session's turn in
+     * the {@link SessionSerialExecutor}.
+     */
+    ChatResponse exchange(ChatRequest request, IntentMatch intent) {
         try {
-            log.info("Processing message for session: {}", request.getSessionId());
+            Exchange exchange;
+            try {
+                exchange = executeAndAwaitFlush(status -> persistExchange(request, intent));
+            } catch (DataIntegrityViolationException e) {
+                // Another instance created the session first; the retry finds it
+                log.info("Session {} was created concurrently, retrying", request.getSessionId());
+                sessionCache.evict(request.getSessionId());
+                exchange = executeAndAwaitFlush(status -> persistExchange(request, intent));
+            }
+            countOutcome(exchange.response());
+            return exchange.response();
+        } catch (Exception e) {
+            chatMetrics.countOutcome(ChatMetrics.Outcome.FAILED);
+            log.error("Error processing message for session: {}", request.getSessionId(), e);
+            throw new RuntimeException("Failed to process message", e);
+        }
+    }
+
+    /**
+     * Runs the exchanges of several messages of one session, in order, in a single
+     * transaction, and inserts all their messages in one batch. {@code known} is the
+     * session as resolved before the caller got the session's turn: when empty, the
+     * session is created without looking it up again. Callers must hold the session's
+     * turn in the {@link SessionSerialExecutor}; a failure rolls back the whole group.
+     */
+    List<ChatResponse> exchangeAll(List<ChatRequest> requests, List<IntentMatch> intents, boolean known) {
+        String sessionId = requests.get(0).getSessionId();
+        List<ChatResponse> committed = executeAndAwaitFlush(status -> {
+            List<ChatMessage> messages = new ArrayList<>(requests.size() * 2 + 1);
+            List<ChatResponse> responses = new ArrayList<>(requests.size());
+            Optional<SessionSnapshot> session = known ? sessionCache.findBySessionId(sessionId) : Optional.empty();
+            for (int i = 0; i < requests.size(); i++) {
+                Optional<SessionSnapshot> current = session;
+                Exchange exchange = persistExchange(requests.get(i), intents.get(i), () -> current, messages::add);
+                session = Optional.of(exchange.session());
+                responses.add(exchange.response());
+            }
+            chatMessageWriter.saveAll(messages);
+            return responses;
+        });
+        committed.forEach(this::countOutcome);
+        return committed;
+    }
 
-            // Get or create session
-            ChatSession session = getOrCreateSession(request);
+    // Once the exchange has committed, so a rolled back and retried attempt is not counted
+    private void countOutcome(ChatResponse response) {
+        CannedResponse canned = response.getCanned();
+        chatMetrics.countOutcome(canned == null ? ChatMetrics.Outcome.FALLBACK
+                : canned.isEndsSession() ? ChatMetrics.Outcome.COMPLETED : ChatMetrics.Outcome.ANSWERED);
+    }
 
-            // Save user message
-            saveUserMessage(session.getSessionId(), request.getMessage());
+    /**
+     * Runs the transaction, then waits for its write-behind messages outside of it, so a
+     * dropped message fails the request. When the transaction fails they are still collected,
+     * so they do not pile up on the thread.
+     */
+    private <T> T executeAndAwaitFlush(TransactionCallback<T> action) {
+        T result;
+        try {
+            result = transactionTemplate.execute(action);
+        } catch (RuntimeException e) {
+            try {
+                chatMessageWriter.awaitFlushed();
+            } catch (RuntimeException flush) {
+                e.addSuppressed(flush);
+            }
+            throw e;
+        }
+        chatMessageWriter.awaitFlushed();
+        return result;
+    }
 
+    private record Exchange(SessionSnapshot session, ChatResponse response) {
+    }
 
-            // Process and generate bot response
-            ChatResponse response = generateBotResponse(session, request.getMessage());
+    private Exchange persistExchange(ChatRequest request, IntentMatch intent) {
+        return persistExchange(request, intent, () -> sessionCache.findBySessionId(request.getSessionId()),
+                chatMessageWriter::save);
+    }
 
-            // Save bot response
-            saveBotMessage(session.getSessionId(), response.getBotResponse());
+    /**
+     * One exchange: resolves or creates the session, then writes the user message and the
+     * bot response through {@code store}.
+     */
+    private Exchange persistExchange(ChatRequest request, IntentMatch intent,
+                                     Supplier<Optional<SessionSnapshot>> lookup, Consumer<ChatMessage> store) {
+        log.debug("Processing message for session: {}", request.getSessionId());
+        chatMetrics.timeCommit();
+        long stageStart = System.nanoTime();
+        KnowledgeBase knowledgeBase = responseCatalog.current();
+
+        // Get or create session
+        Optional<SessionSnapshot> existing = lookup.get();
+        SessionSnapshot session = existing.orElseGet(() -> createNewSession(request, knowledgeBase, store));
+        if (session.getStatus() == ChatSession.ChatStatus.EXPIRED) {
+            session = reactivateSession(session);
+        }
+        sessionExpiryService.touch(session.getSessionId());
+        stageStart = chatMetrics.record(ChatMetrics.Stage.SESSION, stageStart);
 
-            log.info("Message processed successfully for session: {}", request.getSessionId());
-            return response;
+        // Save user message
+        saveUserMessage(session, request.getMessage(), store);
+        stageStart = chatMetrics.record(ChatMetrics.Stage.SAVE_USER_MESSAGE, stageStart);
 
-        } catch (Exception e) {
-            log.error("Error processing message for session: {}", request.getSessionId(), e);
-            throw new RuntimeException("Failed to process message", e);
+        // Process and generate bot response
+        ChatResponse response = generateBotResponse(session, request.getMessage(), intent.getPrimary(), knowledgeBase);
+        if (response.getCanned() != null && response.getCanned().isEndsSession()) {
+            session = completeSession(session, intent.getPrimary());
         }
-    }
+        stageStart = chatMetrics.record(ChatMetrics.Stage.RESPOND, stageStart);
+
+        // Save bot response
+        saveBotMessage(session, response.getBotResponse(), store);
 
-    private ChatSession getOrCreateSession(ChatRequest request) {
-        return chatSessionRepository.findBySessionId(request.getSessionId())
-                .orElseGet(() -> createNewSession(request));
+        // Messages written by this exchange: user + bot, plus the welcome for a new session
+        int messageCount = existing.isPresent() ? 2 : 3;
+        kafkaProducerService.sendAnalyticsEvent(session.getSessionId(), "MESSAGE_SENT",
+                ChatMessage.MessageType.TEXT.name(), session.getUserId(), intent.getPrimary(), messageCount);
+        chatMetrics.record(ChatMetrics.Stage.SAVE_BOT_MESSAGE, stageStart);
+
+        log.debug("Message processed successfully for session: {}", request.getSessionId());
+        return new Exchange(session, response);
     }
 
-    private ChatSession createNewSession(ChatRequest request) {
+    private SessionSnapshot createNewSession(ChatRequest request, KnowledgeBase knowledgeBase,
+                                         Consumer<ChatMessage> store) {
         ChatSession newSession = ChatSession.builder()
                 .sessionId(request.getSessionId())
                 .userId(request.getUserId())
@@ -75,212 +189,178 @@ public class ChatBotService {
                 .status(ChatSession.ChatStatus.ACTIVE)
                 .build();
 
-        ChatSession savedSession = chatSessionRepository.save(newSession);
+        SessionSnapshot savedSession = sessionCache.save(newSession);
+
+        kafkaProducerService.sendSessionEvent(savedSession.getSessionId(), savedSession.getUserId(),
+                savedSession.getUserName(), savedSession.getStatus().name());
+        kafkaProducerService.sendAnalyticsEvent(savedSession.getSessionId(), "SESSION_STARTED", null,
+                savedSession.getUserId(), null, 0);
 
         // Send welcome message for new session
-        saveBotMessage(savedSession.getSessionId(),
-                "Hello! I'm your customer support assistant. How can I help you today?");
+        saveBotMessage(savedSession, knowledgeBase.getWelcomeMessage(), store);
 
 
         log.info("Created new chat session: {}", savedSession.getSessionId());
         return savedSession;
     }
 
-    private void saveUserMessage(String sessionId, String message) {
+    private SessionSnapshot reactivateSession(SessionSnapshot expired) {
+        ChatSession entity = sessionCache.load(expired);
+        entity.setStatus(ChatSession.ChatStatus.ACTIVE);
+        SessionSnapshot session = sessionCache.save(entity);
+        kafkaProducerService.sendSessionEvent(session.getSessionId(), session.getUserId(),
+                session.getUserName(), session.getStatus().name());
+        kafkaProducerService.sendAnalyticsEvent(session.getSessionId(), "SESSION_STARTED", null,
+                session.getUserId(), null, 0);
+        log.info("Reactivated expired chat session: {}", session.getSessionId());
+        return session;
+    }
+
+    private SessionSnapshot completeSession(SessionSnapshot active, String intent) {
+        ChatSession entity = sessionCache.load(active);
+        entity.setStatus(ChatSession.ChatStatus.COMPLETED);
+        SessionSnapshot session = sessionCache.save(entity);
+        sessionExpiryService.forget(session.getSessionId());
+        kafkaProducerService.sendSessionEvent(session.getSessionId(), session.getUserId(),
+                session.getUserName(), session.getStatus().name());
+        kafkaProducerService.sendAnalyticsEvent(session.getSessionId(), "SESSION_ENDED", null,
+                session.getUserId(), intent, 0);
+        return session;
+    }
+
+    private void saveUserMessage(SessionSnapshot session, String message, Consumer<ChatMessage> store) {
+        String sessionId = session.getSessionId();
         ChatMessage userMessage = ChatMessage.builder()
                 .sessionId(sessionId)
                 .content(message)
                 .senderType(ChatMessage.SenderType.USER)
                 .messageType(ChatMessage.MessageType.TEXT)
-                .isRead(true)
                 .build();
 
-        chatMessageRepository.save(userMessage);
+        store.accept(userMessage);
+        publishMessageEvent(session, userMessage);
         log.debug("Saved user message for session: {}", sessionId);
     }
 
-    private void saveBotMessage(String sessionId, String message) {
+    private void saveBotMessage(SessionSnapshot session, String message, Consumer<ChatMessage> store) {
+        String sessionId = session.getSessionId();
         ChatMessage botMessage = ChatMessage.builder()
                 .sessionId(sessionId)
                 .content(message)
                 .senderType(ChatMessage.SenderType.BOT)
                 .messageType(ChatMessage.MessageType.TEXT)
-                .isRead(false)
                 .build();
 
-        chatMessageRepository.save(botMessage);
+        store.accept(botMessage);
+        publishMessageEvent(session, botMessage);
         log.debug("Saved bot message for session: {}", sessionId);
     }
 
-    private ChatResponse generateBotResponse(ChatSession session, String userMessage) {
-        String lowerMessage = userMessage.toLowerCase();
+    private void publishMessageEvent(SessionSnapshot session, ChatMessage message) {
+        kafkaProducerService.sendChatMessage(session.getSessionId(), message.getContent(),
+                message.getSenderType().name(), session.getUserId(), session.getUserName(),
+                message.getMessageType().name());
+    }
+
+    private ChatResponse generateBotResponse(SessionSnapshot session, String userMessage, String intent,
+                                             KnowledgeBase knowledgeBase) {
         ChatResponse response = new ChatResponse();
         response.setSessionId(session.getSessionId());
         response.setTimestamp(LocalDateTime.now());
         response.setStatus("ACTIVE");
 
         // Keyword-based response logic
-        if (KEYWORD_PATTERNS.get("greeting").matcher(lowerMessage).find()) {
-            response.setBotResponse("Hello! Welcome to our customer support. I'm here to help you with:\n• Product Information\n• Pricing Details\n• Technical Support\n• Account Issues\n\nWhat would you like to know?");
-            response.setQuickReplies(getMainQuickReplies());
-        }
-        else if (KEYWORD_PATTERNS.get("pricing").matcher(lowerMessage).find()) {
-            response.setBotResponse(getPricingResponse());
-            response.setQuickReplies(getPricingQuickReplies());
-        }
-        else if (KEYWORD_PATTERNS.get("support").matcher(lowerMessage).find()) {
-            response.setBotResponse(getSupportResponse());
-            response.setQuickReplies(getSupportQuickReplies());
-        }
-        else if (KEYWORD_PATTERNS.get("contact").matcher(lowerMessage).find()) {
-            response.setBotResponse(getContactResponse());
-            response.setQuickReplies(getContactQuickReplies());
-        }
-        else if (KEYWORD_PATTERNS.get("thanks").matcher(lowerMessage).find()) {
-            response.setBotResponse("You're welcome! I'm glad I could help. Is there anything else you'd like to know?");
-            response.setQuickReplies(getMainQuickReplies());
-        }
-        else if (KEYWORD_PATTERNS.get("bye").matcher(lowerMessage).find()) {
-            response.setBotResponse("Thank you for chatting with us! Have a great day! 👋");
-            session.setStatus(ChatSession.ChatStatus.COMPLETED);
-            chatSessionRepository.save(session);
-            response.setStatus("COMPLETED");
-
-        }
-        else {
-            response.setBotResponse(getDefaultResponse(userMessage));
-            response.setQuickReplies(getMainQuickReplies());
+        CannedResponse canned = knowledgeBase.get(intent);
+        if (canned != null) {
+            response.setBotResponse(canned.getBotResponse());
+            response.setQuickReplies(canned.getQuickReplies());
+            response.setCanned(canned);
+            if (canned.isEndsSession()) {
+                // The session itself is closed by the caller, see completeSession
+                response.setStatus("COMPLETED");
+            }
+        } else {
+            response.setBotResponse(knowledgeBase.getDefaultResponse(userMessage));
+            response.setQuickReplies(knowledgeBase.getFallbackQuickReplies());
         }
 
         return response;
     }
 
-    private String getPricingResponse() {
-        return "Here's our pricing information:\n\n" +
-                " *Basic Plan:* $9.99/month\n" +
-                "   - 10GB Storage\n" +
-                "   - Basic Support\n" +
-                "   - 5 Users\n\n" +
-                " *Pro Plan:* $19.99/month\n" +
-                "   - 50GB Storage\n" +
-                "   - Priority Support\n" +
-                "   - 25 Users\n\n" +
-                " *Enterprise Plan:* $49.99/month\n" +
-                "   - Unlimited Storage\n" +
-                "   - 24/7 Support\n" +
-                "   - Unlimited Users\n\n" +
-                "Would you like more details about any specific plan?";
-    }
-
-    private String getSupportResponse() {
-        return "I'm sorry you're experiencing issues. Let me help you!\n\n" +
-                " *Common solutions:*\n" +
-                "• Check your internet connection\n" +
-                "• Clear browser cache\n" +
-                "• Restart the application\n\n" +
-                "If these don't work, please describe your issue in detail or contact our support team.";
-    }
-
-    private String getContactResponse() {
-        return "You can contact our support team through:\n\n" +
-                " *Phone:* 1-800-123-4567\n" +
-                " *Email:* support@company.com\n" +
-                " *Live Chat:* Available 24/7\n" +
-                " *Hours:* Mon-Sun, 9AM-9PM EST\n\n" +
-                "Would you like me to connect you with a human agent?";
-    }
-
-    private String getDefaultResponse(String userMessage) {
-        return "I understand you're asking about: \"" + userMessage + "\"\n\n" +
-                "I can help you with:\n" +
-                "• Product and pricing information\n" +
-                "• Technical support\n" +
-                "• Account issues\n" +
-                "• Contact details\n\n" +
-                "Please choose from the options below or ask me more specifically.";
-    }
-
-    // Quick Reply Methods
-    private List<QuickReply> getMainQuickReplies() {
-        return Arrays.asList(
-                createQuickReply(" Pricing", "pricing"),
-                createQuickReply(" Support", "support"),
-                createQuickReply(" Contact", "contact"),
-                createQuickReply(" Features", "features")
-        );
-    }
-
-    private List<QuickReply> getPricingQuickReplies() {
-        return Arrays.asList(
-                createQuickReply("Basic Plan", "basic plan"),
-                createQuickReply("Pro Plan", "pro plan"),
-                createQuickReply("Enterprise", "enterprise plan"),
-                createQuickReply("Compare All", "compare plans")
-        );
-    }
-
-    private List<QuickReply> getSupportQuickReplies() {
-        return Arrays.asList(
-                createQuickReply("Technical Issue", "technical help"),
-                createQuickReply("Account Help", "account issue"),
-                createQuickReply("Billing Problem", "billing issue"),
-                createQuickReply("Human Agent", "speak to human")
-        );
-    }
-
-    private List<QuickReply> getContactQuickReplies() {
-        return Arrays.asList(
-                createQuickReply("Call Support", "call support"),
-                createQuickReply("Send Email", "send email"),
-                createQuickReply("Live Chat", "live chat"),
-                createQuickReply("Main Menu", "main menu")
-        );
-    }
-
-    private QuickReply createQuickReply(String title, String payload) {
-        QuickReply qr = new QuickReply();
-        qr.setTitle(title);
-        qr.setPayload(payload);
-        return qr;
+    /**
+     * Classifies a message against the intent keywords, reporting every matched intent.
+     */
+    public IntentMatch classify(String message) {
+        long start = System.nanoTime();
+        KnowledgeBase knowledgeBase = responseCatalog.current();
+        IntentMatch match = knowledgeBase.match(message);
+        chatMetrics.record(ChatMetrics.Stage.CLASSIFY, start);
+        chatMetrics.countIntents(match, knowledgeBase);
+        return match;
     }
 
+    /**
+     * History of the session; with {@code since} (a {@link HistoryCursor} token from an
+     * earlier response), only the messages after that position. Ids alone cannot mark the
+     * position, as pooled ids are not in insert order across instances.
+     *
+     * @throws IllegalArgumentException when {@code since} is not a valid cursor
+     */
     @Transactional(readOnly = true)
-    public ChatHistoryResponse getChatHistory(String sessionId) {
-        List<ChatMessage> messages = chatMessageRepository.findBySessionIdOrderByTimestampAsc(sessionId);
-        Optional<ChatSession> session = chatSessionRepository.findBySessionId(sessionId);
+    public ChatHistoryResponse getChatHistory(String sessionId, String since) {
+        HistoryCursor cursor = since == null ? null : HistoryCursor.decode(since);
+        List<ChatMessageDTO> messages = transcriptArchiveService.findTranscript(sessionId)
+                .map(transcript -> cursor == null ? transcript : after(transcript, cursor))
+                .orElseGet(() -> cursor == null ? messageStore.findHistory(sessionId)
+                        : messageStore.findHistoryAfter(sessionId, cursor.timestamp(), cursor.id(), Integer.MAX_VALUE));
+        Optional<SessionSnapshot> session = sessionCache.findBySessionId(sessionId);
 
         ChatHistoryResponse history = new ChatHistoryResponse();
         history.setSessionId(sessionId);
-        history.setSessionStart(session.map(ChatSession::getCreatedAt).orElse(LocalDateTime.now()));
-
-        List<ChatMessageDTO> messageDTOs = new ArrayList<>();
-        for (ChatMessage message : messages) {
-            ChatMessageDTO dto = new ChatMessageDTO();
-            dto.setContent(message.getContent());
-            dto.setSenderType(message.getSenderType().name());
-            dto.setMessageType(message.getMessageType().name());
-            dto.setTimestamp(message.getTimestamp());
-            dto.setIsRead(message.getIsRead());
-            messageDTOs.add(dto);
-        }
-
-        history.setMessages(messageDTOs);
+        history.setSessionStart(session.map(SessionSnapshot::getCreatedAt).orElse(LocalDateTime.now()));
+        history.setMessages(readWatermarkService.getWatermarks(sessionId).apply(messages));
+        ChatMessageDTO last = messages.isEmpty() ? null : messages.get(messages.size() - 1);
+        history.setCursor(last != null && last.getTimestamp() != null ? HistoryCursor.of(last).encode() : since);
         return history;
     }
 
-    @Transactional
-    public void markMessagesAsRead(String sessionId) {
-        List<ChatMessage> unreadMessages = chatMessageRepository.findUnreadUserMessages(sessionId);
-        for (ChatMessage message : unreadMessages) {
-            message.setIsRead(true);
-        }
-        chatMessageRepository.saveAll(unreadMessages);
-        log.info("Marked {} messages as read for session: {}", unreadMessages.size(), sessionId);
+    /**
+     * Weak entity tag of the session's history, derived from the newest message id and the
+     * message counts of the store and the archive plus the read watermarks, so it changes
+     * with anything the history shows. No messages are loaded.
+     */
+    @Transactional(readOnly = true)
+    public String getHistoryETag(String sessionId) {
+        HistoryVersion version = messageStore.findHistoryVersion(sessionId);
+        ReadWatermarks watermarks = readWatermarkService.getWatermarks(sessionId);
+        return "W/\"" + (version.latestId() != null ? version.latestId() : 0)
+                + "-" + version.count()
+                + "-" + transcriptArchiveService.findArchivedCount(sessionId)
+                + "-" + watermarks.lastRead(ChatMessage.SenderType.USER)
+                + "-" + watermarks.lastRead(ChatMessage.SenderType.BOT) + "\"";
     }
 
-    public List<ChatSession> getActiveSessions() {
-        return chatSessionRepository.findByStatus(ChatSession.ChatStatus.ACTIVE);
+    // Transcripts are in (timestamp, id) order; messages without a timestamp sort first
+    private static List<ChatMessageDTO> after(List<ChatMessageDTO> messages, HistoryCursor cursor) {
+        List<ChatMessageDTO> newer = new ArrayList<>();
+        for (ChatMessageDTO message : messages) {
+            if (message.getTimestamp() == null || message.getId() == null) {
+                continue;
+            }
+            int order = message.getTimestamp().compareTo(cursor.timestamp());
+            if (order > 0 || order == 0 && message.getId() > cursor.id()) {
+                newer.add(message);
+            }
+        }
+        return newer;
     }
 
+    public void markMessagesAsRead(String sessionId) {
+        HistoryCursor upTo = readWatermarkService.markRead(sessionId, ChatMessage.SenderType.USER);
+        log.info("Marked messages up to {} as read for session: {}", upTo == null ? null : upTo.id(), sessionId);
+    }
 
+    public ActiveSessionPage getActiveSessions(String userId, String after, int limit) {
+        return activeSessionRegistry.getPage(userId, after, limit);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,352 @@
+package com.chatbot.service;
+
+import com.chatbot.dto.ChatAnalyticsEvent;
+import com.chatbot.dto.ChatMessageEvent;
+import com.chatbot.dto.ChatSessionEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact binary encoding of the chat Kafka events.
+ *
+ * A record starts with {@link #MAGIC}, the format version and the event type, followed by
+ * tagged fields: a varint key {@code (field << 1) | wireType} with wire type 0 (varint)
+ * or 1 (length-prefixed UTF-8). Null fields are left out and unknown fields are skipped,
+ * so fields can be added in later versions without breaking older readers. Timestamps are
+ * microseconds since the epoch of the local date-time (read as UTC), known enum values
+ * are small ints with a string fallback for values this version does not know.
+ */
+public final class ChatEventCodec {
+
+    // Never the first byte of a JSON document, so both formats can share a topic
+    public static final byte MAGIC = (byte) 0xCE;
+    public static final byte VERSION = 1;
+
+    private static final byte MESSAGE_EVENT = 1;
+    private static final byte SESSION_EVENT = 2;
+    private static final byte ANALYTICS_EVENT = 3;
+
+    private static final int VARINT = 0;
+    private static final int STRING = 1;
+
+    // Code n is list index n - 1; append only, never reorder
+    private static final List<String> SENDER_TYPES = List.of("USER", "BOT", "AGENT");
+    private static final List<String> MESSAGE_TYPES = List.of("TEXT", "OPTIONS", "QUICK_REPLY", "SYSTEM");
+    private static final List<String> SESSION_STATUSES = List.of("ACTIVE", "COMPLETED", "TRANSFERRED", "EXPIRED");
+    private static final List<String> ANALYTICS_EVENT_TYPES = List.of("MESSAGE_SENT", "SESSION_STARTED", "SESSION_ENDED");
+    private static final List<String> SEGMENTS = List.of("registered", "anonymous");
+
+    private ChatEventCodec() {
+    }
+
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length > 0 && data[0] == MAGIC;
+    }
+
+    public static byte[] encode(Object event) {
+        if (event instanceof ChatMessageEvent message) {
+            return encodeMessage(message);
+        }
+        if (event instanceof ChatSessionEvent session) {
+            return encodeSession(session);
+        }
+        if (event instanceof ChatAnalyticsEvent analytics) {
+            return encodeAnalytics(analytics);
+        }
+        throw new IllegalArgumentException("Unsupported event type: "
+                + (event == null ? "null" : event.getClass().getName()));
+    }
+
+    public static Object decode(byte[] data) {
+        if (!isBinary(data) || data.length < 3) {
+            throw new IllegalArgumentException("Not a binary chat event");
+        }
+        // data[1] is the writer's version; newer versions only add fields, which are skipped
+        Reader in = new Reader(data, 3);
+        return switch (data[2]) {
+            case MESSAGE_EVENT -> decodeMessage(in);
+            case SESSION_EVENT -> decodeSession(in);
+            case ANALYTICS_EVENT -> decodeAnalytics(in);
+            default -> throw new IllegalArgumentException("Unknown chat event type: " + data[2]);
+        };
+    }
+
+    private static byte[] encodeMessage(ChatMessageEvent event) {
+        Writer out = new Writer(MESSAGE_EVENT, event.getMessage() == null ? 64 : 64 + 3 * event.getMessage().length());
+        out.string(1, event.getSessionId());
+        out.string(2, event.getMessage());
+        out.enumValue(3, 4, event.getSenderType(), SENDER_TYPES);
+        out.string(5, event.getUserId());
+        out.string(6, event.getUserName());
+        out.timestamp(7, event.getTimestamp());
+        out.enumValue(8, 9, event.getMessageType(), MESSAGE_TYPES);
+        return out.toByteArray();
+    }
+
+    private static ChatMessageEvent decodeMessage(Reader in) {
+        ChatMessageEvent event = new ChatMessageEvent();
+        while (in.hasMore()) {
+            int key = in.varint32();
+            switch (key >>> 1) {
+                case 1 -> event.setSessionId(in.string(key));
+                case 2 -> event.setMessage(in.string(key));
+                case 3 -> event.setSenderType(in.enumCode(key, SENDER_TYPES));
+                case 4 -> event.setSenderType(in.string(key));
+                case 5 -> event.setUserId(in.string(key));
+                case 6 -> event.setUserName(in.string(key));
+                case 7 -> event.setTimestamp(in.timestamp(key));
+                case 8 -> event.setMessageType(in.enumCode(key, MESSAGE_TYPES));
+                case 9 -> event.setMessageType(in.string(key));
+                default -> in.skip(key);
+            }
+        }
+        return event;
+    }
+
+    private static byte[] encodeSession(ChatSessionEvent event) {
+        Writer out = new Writer(SESSION_EVENT, 128);
+        out.string(1, event.getSessionId());
+        out.string(2, event.getUserId());
+        out.string(3, event.getUserName());
+        out.enumValue(4, 5, event.getStatus(), SESSION_STATUSES);
+        out.timestamp(6, event.getCreatedAt());
+        out.timestamp(7, event.getUpdatedAt());
+        return out.toByteArray();
+    }
+
+    private static ChatSessionEvent decodeSession(Reader in) {
+        ChatSessionEvent event = new ChatSessionEvent();
+        while (in.hasMore()) {
+            int key = in.varint32();
+            switch (key >>> 1) {
+                case 1 -> event.setSessionId(in.string(key));
+                case 2 -> event.setUserId(in.string(key));
+                case 3 -> event.setUserName(in.string(key));
+                case 4 -> event.setStatus(in.enumCode(key, SESSION_STATUSES));
+                case 5 -> event.setStatus(in.string(key));
+                case 6 -> event.setCreatedAt(in.timestamp(key));
+                case 7 -> event.setUpdatedAt(in.timestamp(key));
+                default -> in.skip(key);
+            }
+        }
+        return event;
+    }
+
+    private static byte[] encodeAnalytics(ChatAnalyticsEvent event) {
+        Writer out = new Writer(ANALYTICS_EVENT, 128);
+        out.string(1, event.getSessionId());
+        out.enumValue(2, 3, event.getEventType(), ANALYTICS_EVENT_TYPES);
+        out.enumValue(4, 5, event.getMessageType(), MESSAGE_TYPES);
+        out.string(6, event.getUserId());
+        out.timestamp(7, event.getTimestamp());
+        out.varint(8, event.getMessageCount());
+        out.string(9, event.getIntent());
+        out.enumValue(10, 11, event.getSegment(), SEGMENTS);
+        return out.toByteArray();
+    }
+
+    private static ChatAnalyticsEvent decodeAnalytics(Reader in) {
+        ChatAnalyticsEvent event = new ChatAnalyticsEvent();
+        while (in.hasMore()) {
+            int key = in.varint32();
+            switch (key >>> 1) {
+                case 1 -> event.setSessionId(in.string(key));
+                case 2 -> event.setEventType(in.enumCode(key, ANALYTICS_EVENT_TYPES));
+                case 3 -> event.setEventType(in.string(key));
+                case 4 -> event.setMessageType(in.enumCode(key, MESSAGE_TYPES));
+                case 5 -> event.setMessageType(in.string(key));
+                case 6 -> event.setUserId(in.string(key));
+                case 7 -> event.setTimestamp(in.timestamp(key));
+                case 8 -> event.setMessageCount((int) in.varint(key));
+                case 9 -> event.setIntent(in.string(key));
+                case 10 -> event.setSegment(in.enumCode(key, SEGMENTS));
+                case 11 -> event.setSegment(in.string(key));
+                default -> in.skip(key);
+            }
+        }
+        return event;
+    }
+
+    private static final class Writer {
+
+        private byte[] buffer;
+        private int pos;
+
+        Writer(byte eventType, int expectedSize) {
+            buffer = new byte[expectedSize];
+            buffer[0] = MAGIC;
+            buffer[1] = VERSION;
+            buffer[2] = eventType;
+            pos = 3;
+        }
+
+        void string(int field, String value) {
+            if (value == null) {
+                return;
+            }
+            key(field, STRING);
+            if (isAscii(value)) {
+                int length = value.length();
+                rawVarint(length);
+                ensure(length);
+                for (int i = 0; i < length; i++) {
+                    buffer[pos++] = (byte) value.charAt(i);
+                }
+            } else {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                rawVarint(bytes.length);
+                ensure(bytes.length);
+                System.arraycopy(bytes, 0, buffer, pos, bytes.length);
+                pos += bytes.length;
+            }
+        }
+
+        void varint(int field, long value) {
+            key(field, VARINT);
+            rawVarint(zigZag(value));
+        }
+
+        void timestamp(int field, LocalDateTime value) {
+            if (value == null) {
+                return;
+            }
+            long micros = value.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + value.getNano() / 1_000;
+            varint(field, micros);
+        }
+
+        void enumValue(int codeField, int stringField, String value, List<String> codes) {
+            if (value == null) {
+                return;
+            }
+            int code = codes.indexOf(value);
+            if (code >= 0) {
+                key(codeField, VARINT);
+                rawVarint(code + 1);
+            } else {
+                string(stringField, value);
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, pos);
+        }
+
+        private void key(int field, int wireType) {
+            rawVarint(((long) field << 1) | wireType);
+        }
+
+        private void rawVarint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[pos++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[pos++] = (byte) value;
+        }
+
+        private void ensure(int extra) {
+            if (pos + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, pos + extra));
+            }
+        }
+
+        private static boolean isAscii(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                if (value.charAt(i) >= 0x80) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static long zigZag(long value) {
+            return (value << 1) ^ (value >> 63);
+        }
+    }
+
+    private static final class Reader {
+
+        private final byte[] data;
+        private int pos;
+
+        Reader(byte[] data, int pos) {
+            this.data = data;
+            this.pos = pos;
+        }
+
+        boolean hasMore() {
+            return pos < data.length;
+        }
+
+        int varint32() {
+            return (int) rawVarint();
+        }
+
+        long varint(int key) {
+            expect(key, VARINT);
+            long raw = rawVarint();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+
+        String string(int key) {
+            expect(key, STRING);
+            int length = (int) rawVarint();
+            if (length < 0 || length > data.length - pos) {
+                throw new IllegalArgumentException("Truncated chat event");
+            }
+            String value = new String(data, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return value;
+        }
+
+        LocalDateTime timestamp(int key) {
+            long micros = varint(key);
+            return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                    (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+        }
+
+        String enumCode(int key, List<String> codes) {
+            expect(key, VARINT);
+            long code = rawVarint();
+            // Codes appended by a newer writer are unknown here
+            return code >= 1 && code <= codes.size() ? codes.get((int) code - 1) : null;
+        }
+
+        void skip(int key) {
+            if ((key & 1) == VARINT) {
+                rawVarint();
+            } else {
+                int length = (int) rawVarint();
+                if (length < 0 || length > data.length - pos) {
+                    throw new IllegalArgumentException("Truncated chat event");
+                }
+                pos += length;
+            }
+        }
+
+        private void expect(int key, int wireType) {
+            if ((key & 1) != wireType) {
+                throw new IllegalArgumentException("Unexpected wire type for field " + (key >>> 1));
+            }
+        }
+
+        private long rawVarint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (pos >= data.length) {
+                    throw new IllegalArgumentException("Truncated chat event");
+                }
+                byte b = data[pos++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint in chat event");
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.chatbot.service;
+
+import com.chatbot.dto.ChatHistoryPage;
+import com.chatbot.dto.ChatMessageDTO;
+import com.chatbot.dto.HistoryCursor;
+import com.chatbot.dto.SessionSnapshot;
+import com.chatbot.repository.MessageStore;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Cursor-based access to session transcripts. Pages are keyset reads on
+ * (timestamp, id) from the {@link MessageStore} straight into {@link ChatMessageDTO}
+ * projections, so no entities are loaded or dirty-checked. Archived sessions are paged over their
+ * decoded transcript with the same cursors (see {@link TranscriptArchiveService}).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChatHistoryService {
+
+    public static final int MAX_PAGE_SIZE = 500;
+
+    // Rows fetched per query while streaming a full transcript
+    private static final int STREAM_CHUNK_SIZE = 500;
+
+    private final MessageStore messageStore;
+    private final SessionCache sessionCache;
+    private final ReadWatermarkService readWatermarkService;
+    private final ObjectMapper objectMapper;
+    private final TranscriptArchiveService transcriptArchiveService;
+
+    /**
+     * Returns one page of the transcript. Without a cursor the latest messages are
+     * returned; {@code before} pages towards older and {@code after} towards newer messages.
+     */
+    @Transactional(readOnly = true)
+    public ChatHistoryPage getPage(String sessionId, String before, String after, int limit) {
+        if (before != null && after != null) {
+            throw new IllegalArgumentException("Use either 'before' or 'after', not both");
+        }
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<ChatMessageDTO> archived = transcriptArchiveService.findTranscript(sessionId).orElse(null);
+
+        List<ChatMessageDTO> messages;
+        boolean hasOlder;
+        boolean hasNewer;
+        if (after != null) {
+            HistoryCursor cursor = HistoryCursor.decode(after);
+            messages = archived != null
+                    ? after(archived, cursor, size + 1)
+                    : messageStore.findHistoryAfter(sessionId, cursor.timestamp(), cursor.id(), size + 1);
+            hasNewer = messages.size() > size;
+            messages = trim(messages, size);
+            hasOlder = existsBefore(sessionId, archived, messages.isEmpty() ? cursor : HistoryCursor.of(messages.get(0)));
+        } else {
+            if (before != null) {
+                HistoryCursor cursor = HistoryCursor.decode(before);
+                messages = archived != null
+                        ? before(archived, cursor, size + 1)
+                        : messageStore.findHistoryBefore(sessionId, cursor.timestamp(), cursor.id(), size + 1);
+                hasNewer = existsAfter(sessionId, archived, messages.isEmpty() ? cursor
+                        : HistoryCursor.of(messages.get(0)));
+            } else {
+                messages = archived != null
+                        ? before(archived, null, size + 1)
+                        : messageStore.findHistoryLatest(sessionId, size + 1);
+                hasNewer = false;
+            }
+            hasOlder = messages.size() > size;
+            messages = trim(messages, size);
+            Collections.reverse(messages);
+        }
+
+        ChatHistoryPage page = new ChatHistoryPage();
+        page.setSessionId(sessionId);
+        page.setMessages(readWatermarkService.getWatermarks(sessionId).apply(messages));
+        page.setHasOlder(hasOlder);
+        page.setHasNewer(hasNewer);
+        if (!messages.isEmpty()) {
+            page.setPreviousCursor(HistoryCursor.of(messages.get(0)).encode());
+            page.setNextCursor(HistoryCursor.of(messages.get(messages.size() - 1)).encode());
+        }
+        return page;
+    }
+
+    /**
+     * Writes the whole transcript as JSON (same shape as {@code ChatHistoryResponse})
+     * chunk by chunk, so memory use does not grow with the transcript length. Archived
+     * transcripts are already in memory once decoded and are written in one go.
+     */
+    public void streamHistory(String sessionId, OutputStream out) throws IOException {
+        LocalDateTime sessionStart = sessionCache.findBySessionId(sessionId)
+                .map(SessionSnapshot::getCreatedAt)
+                .orElse(LocalDateTime.now());
+        ReadWatermarks watermarks = readWatermarkService.getWatermarks(sessionId);
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeStringField("sessionId", sessionId);
+            generator.writeArrayFieldStart("messages");
+
+            int streamed = 0;
+            Optional<List<ChatMessageDTO>> archived = transcriptArchiveService.findTranscript(sessionId);
+            if (archived.isPresent()) {
+                for (ChatMessageDTO message : archived.get()) {
+                    message.setIsRead(watermarks.isRead(message));
+                    generator.writeObject(message);
+                }
+                streamed = archived.get().size();
+            } else {
+                HistoryCursor cursor = null;
+                List<ChatMessageDTO> chunk;
+                do {
+                    chunk = cursor == null
+                            ? messageStore.findHistoryFirst(sessionId, STREAM_CHUNK_SIZE)
+                            : messageStore.findHistoryAfter(sessionId, cursor.timestamp(), cursor.id(), STREAM_CHUNK_SIZE);
+                    for (ChatMessageDTO message : chunk) {
+                        message.setIsRead(watermarks.isRead(message));
+                        generator.writeObject(message);
+                    }
+                    generator.flush();
+                    streamed += chunk.size();
+                    if (!chunk.isEmpty()) {
+                        cursor = HistoryCursor.of(chunk.get(chunk.size() - 1));
+                    }
+                } while (chunk.size() == STREAM_CHUNK_SIZE);
+            }
+
+            generator.writeEndArray();
+            generator.writeFieldName("sessionStart");
+            generator.writeObject(sessionStart);
+            generator.writeEndObject();
+            log.debug("Streamed {} messages for session: {}", streamed, sessionId);
+        }
+    }
+
+    // Messages after the cursor in ascending order, like findHistoryAfter
+    private static List<ChatMessageDTO> after(List<ChatMessageDTO> transcript, HistoryCursor cursor, int limit) {
+        List<ChatMessageDTO> page = new ArrayList<>(Math.min(limit, transcript.size()));
+        for (ChatMessageDTO message : transcript) {
+            if (page.size() == limit) {
+                break;
+            }
+            if (compare(message, cursor) > 0) {
+                page.add(message);
+            }
+        }
+        return page;
+    }
+
+    // Messages before the cursor (or the latest ones) in descending order, like findHistoryBefore
+    private static List<ChatMessageDTO> before(List<ChatMessageDTO> transcript, HistoryCursor cursor, int limit) {
+        List<ChatMessageDTO> page = new ArrayList<>(Math.min(limit, transcript.size()));
+        for (int i = transcript.size() - 1; i >= 0 && page.size() < limit; i--) {
+            ChatMessageDTO message = transcript.get(i);
+            if (cursor == null || compare(message, cursor) < 0) {
+                page.add(message);
+            }
+        }
+        return page;
+    }
+
+    private static int compare(ChatMessageDTO message, HistoryCursor cursor) {
+        return TranscriptArchiveService.TRANSCRIPT_ORDER.compare(message,
+                new ChatMessageDTO(cursor.id(), null, null, null, cursor.timestamp(), null));
+    }
+
+    // One-row probes for the page flags: is there anything older / newer than the position?
+
+    private boolean existsBefore(String sessionId, List<ChatMessageDTO> archived, HistoryCursor position) {
+        return !(archived != null
+                ? before(archived, position, 1)
+                : messageStore.findHistoryBefore(sessionId, position.timestamp(), position.id(), 1)).isEmpty();
+    }
+
+    private boolean existsAfter(String sessionId, List<ChatMessageDTO> archived, HistoryCursor position) {
+        return !(archived != null
+                ? after(archived, position, 1)
+                : messageStore.findHistoryAfter(sessionId, position.timestamp(), position.id(), 1)).isEmpty();
+    }
+
+    private static List<ChatMessageDTO> trim(List<ChatMessageDTO> messages, int size) {
+        return messages.size() > size ? new ArrayList<>(messages.subList(0, size)) : messages;
+    }
+}
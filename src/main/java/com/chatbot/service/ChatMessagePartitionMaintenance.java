@@ -0,0 +1,136 @@
+package com.chatbot.service;
+
+import com.chatbot.config.MessagePartitionProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the monthly range partitions of chat_messages ahead of time and drops those past
+ * the retention period. New months are split off the empty MAXVALUE partition, which
+ * only touches metadata; dropping a partition removes a month of messages without a
+ * row-by-row DELETE. Does nothing unless the database is MySQL and the table is
+ * partitioned (migration V3).
+ */
+@Slf4j
+@Component
+public class ChatMessagePartitionMaintenance {
+
+    private static final String TABLE = "chat_messages";
+    private static final DateTimeFormatter NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+    private static final DateTimeFormatter BOUND = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MessagePartitionProperties properties;
+
+    public ChatMessagePartitionMaintenance(JdbcTemplate jdbcTemplate, MessagePartitionProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+    }
+
+    /**
+     * Range partition; {@code bound} is the exclusive upper bound, null for MAXVALUE.
+     */
+    record Partition(String name, LocalDateTime bound) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${chatbot.message-partitions.cron:0 15 3 * * *}")
+    public void maintain() {
+        if (!properties.isEnabled() || !isMySql()) {
+            return;
+        }
+        List<Partition> partitions = jdbcTemplate.query(
+                "SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL " +
+                "ORDER BY PARTITION_ORDINAL_POSITION",
+                (rs, row) -> new Partition(rs.getString(1), parseBound(rs.getString(2))), TABLE);
+        if (partitions.isEmpty()) {
+            log.debug("{} is not partitioned, skipping partition maintenance", TABLE);
+            return;
+        }
+        for (String statement : plan(partitions, LocalDate.now(), properties.getPremakeMonths(),
+                properties.getRetentionMonths())) {
+            log.info("Partition maintenance: {}", statement);
+            jdbcTemplate.execute(statement);
+        }
+    }
+
+    /**
+     * Statements that bring the partitions up to date: one that adds the missing months up
+     * to {@code premakeMonths} after the current one, and one that drops every month that
+     * ended more than {@code retentionMonths} complete months ago.
+     */
+    static List<String> plan(List<Partition> partitions, LocalDate today, int premakeMonths, int retentionMonths) {
+        List<String> statements = new ArrayList<>();
+        Partition max = null;
+        LocalDateTime highest = null;
+        for (Partition partition : partitions) {
+            if (partition.bound() == null) {
+                max = partition;
+            } else if (highest == null || partition.bound().isAfter(highest)) {
+                highest = partition.bound();
+            }
+        }
+
+        LocalDateTime target = YearMonth.from(today).plusMonths(premakeMonths + 1L).atDay(1).atStartOfDay();
+        if (highest != null && highest.isBefore(target)) {
+            List<String> added = new ArrayList<>();
+            for (YearMonth month = YearMonth.from(highest); month.atDay(1).atStartOfDay().isBefore(target);
+                 month = month.plusMonths(1)) {
+                added.add("PARTITION " + NAME.format(month.atDay(1)) + " VALUES LESS THAN ('"
+                        + BOUND.format(month.plusMonths(1).atDay(1).atStartOfDay()) + "')");
+            }
+            if (max != null) {
+                added.add("PARTITION " + max.name() + " VALUES LESS THAN (MAXVALUE)");
+                statements.add("ALTER TABLE " + TABLE + " REORGANIZE PARTITION " + max.name()
+                        + " INTO (" + String.join(", ", added) + ")");
+            } else {
+                statements.add("ALTER TABLE " + TABLE + " ADD PARTITION (" + String.join(", ", added) + ")");
+            }
+        }
+
+        if (retentionMonths > 0) {
+            LocalDateTime cutoff = YearMonth.from(today).minusMonths(retentionMonths).atDay(1).atStartOfDay();
+            List<String> dropped = new ArrayList<>();
+            for (Partition partition : partitions) {
+                if (partition.bound() != null && !partition.bound().isAfter(cutoff)) {
+                    dropped.add(partition.name());
+                }
+            }
+            // A table needs at least one partition
+            if (!dropped.isEmpty() && dropped.size() < partitions.size()) {
+                statements.add("ALTER TABLE " + TABLE + " DROP PARTITION " + String.join(", ", dropped));
+            }
+        }
+        return statements;
+    }
+
+    private boolean isMySql() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        return "MySQL".equalsIgnoreCase(product);
+    }
+
+    // PARTITION_DESCRIPTION is 'yyyy-MM-dd HH:mm:ss' (quoted) or MAXVALUE
+    private static LocalDateTime parseBound(String description) {
+        if (description == null || description.equalsIgnoreCase("MAXVALUE")) {
+            return null;
+        }
+        String value = description.replace("'", "").trim();
+        return value.length() == 10
+                ? LocalDate.parse(value).atStartOfDay()
+                : LocalDateTime.parse(value.substring(0, 19), BOUND);
+    }
+}
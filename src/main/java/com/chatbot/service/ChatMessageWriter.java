@@ -0,0 +1,321 @@
+package com.chatbot.service;
+
+import com.chatbot.config.WriteBehindProperties;
+import com.chatbot.entity.ChatMessage;
+import com.chatbot.repository.MessageStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Persists chat messages, either directly through the {@link MessageStore} or, when
+ * write-behind is enabled, through a bounded queue that a background thread flushes in
+ * multi-row batches.
+ *
+ * In write-behind mode messages are only queued once the caller's transaction has
+ * committed, and are inserted in their own transaction. Depending on
+ * {@link WriteBehindProperties.Durability} the caller is released right after enqueueing
+ * or after its batch has been committed. When the queue stays full for longer than the
+ * offer timeout the caller writes the message itself, which throttles producers.
+ *
+ * With FLUSH durability the wait happens in {@link #awaitFlushed()}, which callers invoke
+ * after each of their transactions, also a failed one, never in the commit callback. A
+ * message that cannot be stored even on its own is logged, counted as dropped and fails
+ * that call, so the request is not acknowledged and the client can retry it. With
+ * ENQUEUE durability such a message is only logged and counted.
+ *
+ * Every message is handed to the {@link MessageStreamHub} once it is stored: after the
+ * caller's commit, or in write-behind mode once its batch has been flushed.
+ */
+@Slf4j
+@Service
+public class ChatMessageWriter implements SmartLifecycle {
+
+    private final MessageStore messageStore;
+    private final MessageStreamHub streamHub;
+    private final WriteBehindProperties properties;
+    private final TransactionTemplate writeTransaction;
+    private final BlockingQueue<PendingMessage> queue;
+    private final Counter callerRuns;
+    private final Counter dropped;
+    // FLUSH durability: messages queued by this thread's committed transactions, until awaitFlushed
+    private final ThreadLocal<List<CompletableFuture<ChatMessage>>> unflushed = ThreadLocal.withInitial(ArrayList::new);
+    private final DistributionSummary batchSizes;
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public ChatMessageWriter(MessageStore messageStore,
+                             MessageStreamHub streamHub,
+                             WriteBehindProperties properties,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry) {
+        this.messageStore = messageStore;
+        this.streamHub = streamHub;
+        this.properties = properties;
+        if (properties.isEnabled()) {
+            this.writeTransaction = new TransactionTemplate(transactionManager);
+            this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+            Gauge.builder("chat.messages.write_behind.queue", queue, BlockingQueue::size)
+                    .description("Chat messages waiting to be flushed")
+                    .register(meterRegistry);
+        } else {
+            this.writeTransaction = null;
+            this.queue = null;
+        }
+        this.callerRuns = Counter.builder("chat.messages.write_behind.caller_runs")
+                .description("Messages written synchronously because the queue was full")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("chat.messages.write_behind.dropped")
+                .description("Messages that could not be stored after their transaction committed")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("chat.messages.write_behind.batch_size")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Saves the message. In write-behind mode the returned message may not have an id yet.
+     */
+    public ChatMessage save(ChatMessage message) {
+        if (!properties.isEnabled()) {
+            ChatMessage saved = messageStore.save(message);
+            publishAfterCommit(List.of(saved));
+            return saved;
+        }
+        if (message.getTimestamp() == null) {
+            message.setTimestamp(LocalDateTime.now());
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(message, true);
+                }
+            });
+        } else {
+            enqueue(message, false);
+        }
+        return message;
+    }
+
+    /**
+     * With FLUSH durability, waits until the messages queued by this thread's committed
+     * transactions have been flushed, and forgets them.
+     *
+     * @throws IllegalStateException when one of them was dropped
+     */
+    public void awaitFlushed() {
+        List<CompletableFuture<ChatMessage>> pending = unflushed.get();
+        if (pending.isEmpty()) {
+            return;
+        }
+        unflushed.remove();
+        RuntimeException failure = null;
+        for (CompletableFuture<ChatMessage> done : pending) {
+            try {
+                done.join();
+            } catch (CompletionException e) {
+                if (failure == null) {
+                    failure = new IllegalStateException("Failed to persist chat message", e.getCause());
+                } else {
+                    failure.addSuppressed(e.getCause());
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Saves the messages, in order, with batched inserts.
+     */
+    public void saveAll(List<ChatMessage> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        if (!properties.isEnabled()) {
+            messageStore.saveAll(messages);
+            publishAfterCommit(messages);
+            return;
+        }
+        // Queued one by one; the flusher batches them with everything else
+        messages.forEach(this::save);
+    }
+
+    // committed: called after the caller's commit, so failing the caller is no longer an option
+    private void enqueue(ChatMessage message, boolean committed) {
+        PendingMessage pending = new PendingMessage(message, new CompletableFuture<>());
+        pending.done().thenAccept(streamHub::publish);
+        boolean queued;
+        try {
+            queued = running && queue.offer(pending, properties.getOfferTimeout().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queued = false;
+        }
+        if (!queued) {
+            callerRuns.increment();
+            try {
+                writeTransaction.executeWithoutResult(status -> messageStore.save(message));
+            } catch (RuntimeException e) {
+                if (!committed) {
+                    throw e;
+                }
+                dropped.increment();
+                log.error("Dropping chat message for session: {}", message.getSessionId(), e);
+                if (properties.getDurability() == WriteBehindProperties.Durability.FLUSH) {
+                    unflushed.get().add(CompletableFuture.failedFuture(e));
+                }
+                return;
+            }
+            streamHub.publish(message);
+            return;
+        }
+        if (properties.getDurability() != WriteBehindProperties.Durability.FLUSH) {
+            return;
+        }
+        if (committed) {
+            unflushed.get().add(pending.done());
+        } else {
+            try {
+                pending.done().join();
+            } catch (CompletionException e) {
+                throw new IllegalStateException("Failed to persist chat message for session: "
+                        + message.getSessionId(), e.getCause());
+            }
+        }
+    }
+
+    // Log store messages are only readable, and have ids, once the transaction commits
+    private void publishAfterCommit(List<ChatMessage> messages) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            messages.forEach(streamHub::publish);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                messages.forEach(streamHub::publish);
+            }
+        });
+    }
+
+    private void runFlusher() {
+        int batchSize = properties.getBatchSize();
+        long intervalNanos = properties.getFlushInterval().toNanos();
+        List<PendingMessage> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingMessage first = queue.poll(intervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + intervalNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingMessage next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                log.warn("Write-behind flusher interrupted, draining {} queued messages", queue.size());
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingMessage> batch) {
+        List<ChatMessage> messages = new ArrayList<>(batch.size());
+        for (PendingMessage pending : batch) {
+            messages.add(pending.message());
+        }
+        try {
+            writeTransaction.executeWithoutResult(status -> messageStore.saveAll(messages));
+            batchSizes.record(batch.size());
+            for (PendingMessage pending : batch) {
+                pending.done().complete(pending.message());
+            }
+            log.debug("Flushed {} chat messages", batch.size());
+        } catch (RuntimeException e) {
+            log.warn("Batch insert of {} chat messages failed, retrying one by one: {}", batch.size(), e.getMessage());
+            for (PendingMessage pending : batch) {
+                // The rolled back insert already assigned an id; with it the message would be merged, not persisted
+                pending.message().setId(null);
+                try {
+                    writeTransaction.executeWithoutResult(status -> messageStore.save(pending.message()));
+                    pending.done().complete(pending.message());
+                } catch (RuntimeException single) {
+                    dropped.increment();
+                    log.error("Dropping chat message for session: {}", pending.message().getSessionId(), single);
+                    pending.done().completeExceptionally(single);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::runFlusher, "chat-message-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("Chat message write-behind enabled: batchSize={}, flushInterval={}, durability={}",
+                properties.getBatchSize(), properties.getFlushInterval(), properties.getDurability());
+    }
+
+    @Override
+    public void stop() {
+        if (flusher == null) {
+            return;
+        }
+        // No interrupt: the flusher notices within one flush interval and drains the queue
+        running = false;
+        try {
+            flusher.join(properties.getShutdownTimeout().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            log.error("Shutdown left {} chat messages unflushed", queue.size());
+        }
+        flusher = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private record PendingMessage(ChatMessage message, CompletableFuture<ChatMessage> done) {
+    }
+}
@@ -0,0 +1,169 @@
+package com.chatbot.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters of the message processing path: a percentile-histogram timer per stage
+ * ({@code chat.process.stage}), counters per matched intent and per outcome, and the
+ * number of active sessions (read from the {@link ActiveSessionRegistry}).
+ */
+@Component
+public class ChatMetrics {
+
+    private static final String NO_INTENT = "none";
+
+    public enum Stage {
+        SESSION, SAVE_USER_MESSAGE, CLASSIFY, RESPOND, SAVE_BOT_MESSAGE, COMMIT;
+
+        private final String tag = name().toLowerCase();
+    }
+
+    public enum Outcome {
+        // Canned answer for the intent, fallback answer, session closed by the user, exception
+        ANSWERED, FALLBACK, COMPLETED, FAILED;
+
+        private final String tag = name().toLowerCase();
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final Map<Outcome, Counter> outcomeCounters = new EnumMap<>(Outcome.class);
+    private final Map<String, Counter> intentCounters = new ConcurrentHashMap<>();
+    // Knowledge base version whose intents the counters were last trimmed to
+    private volatile long intentsVersion;
+    // Marks transactions whose commit is already timed
+    private final Object commitTimerKey = new Object();
+
+    public ChatMetrics(MeterRegistry meterRegistry, ActiveSessionRegistry activeSessions) {
+        this.meterRegistry = meterRegistry;
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, Timer.builder("chat.process.stage")
+                    .description("Time spent in one stage of processing a chat message")
+                    .tag("stage", stage.tag)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofMillis(1))
+                    .maximumExpectedValue(Duration.ofSeconds(10))
+                    .register(meterRegistry));
+        }
+        for (Outcome outcome : Outcome.values()) {
+            outcomeCounters.put(outcome, Counter.builder("chat.messages.outcome")
+                    .description("Processed chat messages by outcome")
+                    .tag("outcome", outcome.tag)
+                    .register(meterRegistry));
+        }
+        // NaN until the registry has been loaded
+        Gauge.builder("chat.sessions.active", activeSessions,
+                        registry -> registry.isReady() ? registry.count() : Double.NaN)
+                .description("Chat sessions in status ACTIVE")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records the time since {@code startNanos} for the stage and returns the current time,
+     * so consecutive stages can be chained.
+     */
+    public long record(Stage stage, long startNanos) {
+        long now = System.nanoTime();
+        stageTimers.get(stage).record(now - startNanos, TimeUnit.NANOSECONDS);
+        return now;
+    }
+
+    /**
+     * Times the commit of the current transaction, if there is one: from the first
+     * before-commit callback, through the flush, to the first after-commit callback. Any
+     * number of calls within one transaction register a single timer.
+     */
+    public void timeCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(commitTimerKey)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(commitTimerKey, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private long start;
+
+            @Override
+            public int getOrder() {
+                // Starts before the other before-commit work and stops before the after-commit work
+                return HIGHEST_PRECEDENCE;
+            }
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                start = System.nanoTime();
+            }
+
+            @Override
+            public void afterCommit() {
+                if (start != 0) {
+                    record(Stage.COMMIT, start);
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(commitTimerKey);
+            }
+        });
+    }
+
+    /**
+     * Counts the intents matched against {@code knowledgeBase}. The first match against a
+     * newer knowledge base removes the series of intents it no longer has.
+     */
+    public void countIntents(IntentMatch match, KnowledgeBase knowledgeBase) {
+        if (knowledgeBase.getVersion() > intentsVersion) {
+            retainIntents(knowledgeBase);
+        }
+        if (match.isEmpty()) {
+            intentCounter(NO_INTENT).increment();
+            return;
+        }
+        for (String intent : match.getMatched()) {
+            intentCounter(intent).increment();
+        }
+    }
+
+    public void countOutcome(Outcome outcome) {
+        outcomeCounters.get(outcome).increment();
+    }
+
+    private synchronized void retainIntents(KnowledgeBase knowledgeBase) {
+        if (knowledgeBase.getVersion() <= intentsVersion) {
+            return;
+        }
+        Set<String> intents = new HashSet<>(knowledgeBase.getIntents());
+        intents.add(NO_INTENT);
+        intentCounters.entrySet().removeIf(counter -> {
+            if (intents.contains(counter.getKey())) {
+                return false;
+            }
+            meterRegistry.remove(counter.getValue());
+            return true;
+        });
+        intentsVersion = knowledgeBase.getVersion();
+    }
+
+    // Intents come from the knowledge base; tags of replaced ones are dropped by retainIntents,
+    // so the tag set stays bounded by the intents of the versions in use
+    private Counter intentCounter(String intent) {
+        return intentCounters.computeIfAbsent(intent, key -> Counter.builder("chat.messages.intent")
+                .description("Chat messages per matched intent")
+                .tag("intent", key)
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,101 @@
+package com.chatbot.service;
+
+import com.chatbot.dto.CannedResponse;
+import com.chatbot.dto.ChatResponse;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Encodes {@link ChatResponse}s to JSON. Responses backed by a {@link CannedResponse}
+ * only have their per-request fields (sessionId, timestamp, status) encoded; the
+ * static part is copied from the catalog's pre-encoded bytes into a single exact-size
+ * array. Everything else goes through the ObjectMapper as usual.
+ */
+@Component
+public class ChatResponseEncoder {
+
+    private static final byte[] SESSION_ID_PREFIX = "{\"sessionId\":\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TIMESTAMP_PREFIX = ",\"timestamp\":\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] STATUS_PREFIX = "\",\"status\":\"".getBytes(StandardCharsets.US_ASCII);
+
+    private final ObjectMapper objectMapper;
+    // True when the mapper renders LocalDateTime as plain ISO strings, so the timestamp can
+    // be formatted directly instead of going through a serializer lookup per response
+    private final boolean isoTimestamps;
+
+    public ChatResponseEncoder(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.isoTimestamps = rendersIsoTimestamps(objectMapper);
+    }
+
+    public byte[] encode(ChatResponse response) {
+        CannedResponse canned = response.getCanned();
+        if (!isoTimestamps || !isUnchanged(response, canned)) {
+            try {
+                return objectMapper.writeValueAsBytes(response);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        // Assemble {"sessionId":..,<fragment>,"timestamp":..,"status":..} into one exact-size array
+        JsonStringEncoder encoder = JsonStringEncoder.getInstance();
+        byte[] sessionId = encoder.quoteAsUTF8(response.getSessionId());
+        byte[] timestamp = DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(response.getTimestamp())
+                .getBytes(StandardCharsets.US_ASCII);
+        byte[] status = encoder.quoteAsUTF8(response.getStatus());
+
+        byte[] json = new byte[SESSION_ID_PREFIX.length + sessionId.length + 2 + canned.getJsonFragmentLength()
+                + TIMESTAMP_PREFIX.length + timestamp.length + STATUS_PREFIX.length + status.length + 2];
+        int pos = put(json, 0, SESSION_ID_PREFIX);
+        pos = put(json, pos, sessionId);
+        json[pos++] = '"';
+        json[pos++] = ',';
+        pos = canned.copyJsonFragment(json, pos);
+        pos = put(json, pos, TIMESTAMP_PREFIX);
+        pos = put(json, pos, timestamp);
+        pos = put(json, pos, STATUS_PREFIX);
+        pos = put(json, pos, status);
+        json[pos++] = '"';
+        json[pos] = '}';
+        return json;
+    }
+
+    private static int put(byte[] target, int pos, byte[] source) {
+        System.arraycopy(source, 0, target, pos, source.length);
+        return pos + source.length;
+    }
+
+    private static boolean rendersIsoTimestamps(ObjectMapper objectMapper) {
+        try {
+            for (LocalDateTime probe : new LocalDateTime[]{
+                    LocalDateTime.of(2024, 1, 2, 3, 4),
+                    LocalDateTime.of(2024, 1, 2, 3, 4, 5, 600_000_000),
+                    LocalDateTime.of(2024, 11, 12, 13, 14, 15, 123_456_789)}) {
+                String expected = objectMapper.writeValueAsString(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(probe));
+                if (!expected.equals(objectMapper.writeValueAsString(probe))) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static boolean isUnchanged(ChatResponse response, CannedResponse canned) {
+        return canned != null
+                && response.getBotResponse() == canned.getBotResponse()
+                && response.getQuickReplies() == canned.getQuickReplies()
+                && response.getOptions() == null
+                && response.getSessionId() != null
+                && response.getTimestamp() != null
+                && response.getStatus() != null;
+    }
+}
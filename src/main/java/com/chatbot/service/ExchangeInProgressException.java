@@ -0,0 +1,18 @@
+package com.chatbot.service;
+
+import lombok.Getter;
+
+/**
+ * Thrown by {@link AsyncChatService} when the DB stage outlives its timeout after the
+ * exchange has started; it still runs to completion, so it is answered with 202.
+ */
+@Getter
+public class ExchangeInProgressException extends RuntimeException {
+
+    private final String sessionId;
+
+    public ExchangeInProgressException(String sessionId) {
+        super("Message still being processed for session: " + sessionId, null, false, false);
+        this.sessionId = sessionId;
+    }
+}
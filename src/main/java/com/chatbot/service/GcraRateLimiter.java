@@ -0,0 +1,74 @@
+package com.chatbot.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token-bucket rate limiter per key in the GCRA form: a bucket is a single "theoretical
+ * arrival time" that each admitted request moves one emission interval forward, so a
+ * decision is one compare-and-set without locks or refill timers. A request is admitted
+ * while that time is at most {@code burst} intervals ahead of now.
+ *
+ * Buckets live in a size-bounded Caffeine cache and expire once they would be full again
+ * anyway, so memory stays bounded however many keys there are. A bucket evicted early
+ * for size merely starts over full.
+ */
+public class GcraRateLimiter {
+
+    private final long emissionNanos;
+    private final long toleranceNanos;
+    private final LongSupplier nanoClock;
+    private final Cache<String, AtomicLong> buckets;
+
+    public GcraRateLimiter(double perSecond, int burst, long maxKeys, LongSupplier nanoClock) {
+        if (perSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate and burst must be positive");
+        }
+        this.emissionNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / perSecond));
+        this.toleranceNanos = emissionNanos * burst;
+        this.nanoClock = nanoClock;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofNanos(toleranceNanos))
+                .build();
+    }
+
+    /**
+     * Admits one request for the key. Returns 0 when admitted, otherwise the nanoseconds
+     * until a request would be.
+     */
+    public long tryAcquire(String key) {
+        AtomicLong arrival = buckets.get(key, k -> new AtomicLong(nanoClock.getAsLong()));
+        while (true) {
+            long now = nanoClock.getAsLong();
+            long current = arrival.get();
+            long next = (current - now > 0 ? current : now) + emissionNanos;
+            long wait = next - now - toleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (arrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Gives back the request last admitted for the key, when a later check turned it away.
+     */
+    public void refund(String key) {
+        AtomicLong arrival = buckets.getIfPresent(key);
+        if (arrival != null) {
+            arrival.addAndGet(-emissionNanos);
+        }
+    }
+
+    public long size() {
+        return buckets.estimatedSize();
+    }
+}
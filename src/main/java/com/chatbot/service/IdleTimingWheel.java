@@ -0,0 +1,142 @@
+package com.chatbot.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hashed timing wheel of idle deadlines. Every tracked key sits in exactly one slot, the
+ * one of the tick its deadline fell into when it was scheduled. {@link #touch} only moves
+ * the key's last-activity time forward; the key is re-filed lazily when its old slot comes
+ * up, so recording activity is constant time and allocation free for known keys, and each
+ * tick only visits the keys filed under it.
+ *
+ * The wheel spans the whole idle timeout, so a deadline never lies more than one
+ * revolution ahead. {@link #advance} must be called by a single thread.
+ */
+public class IdleTimingWheel {
+
+    private final long tickMillis;
+    private final long timeoutMillis;
+    private final Queue<String>[] slots;
+    private final Map<String, AtomicLong> lastActivity = new ConcurrentHashMap<>();
+    // Last tick whose slot has been processed
+    private volatile long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public IdleTimingWheel(long tickMillis, long timeoutMillis, long nowMillis) {
+        if (tickMillis <= 0 || timeoutMillis < tickMillis) {
+            throw new IllegalArgumentException("Idle timeout must be at least one tick");
+        }
+        this.tickMillis = tickMillis;
+        this.timeoutMillis = timeoutMillis;
+        this.slots = new Queue[(int) (timeoutMillis / tickMillis) + 2];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    /**
+     * Records activity of the key, starting to track it if needed.
+     */
+    public void touch(String key, long nowMillis) {
+        AtomicLong last = lastActivity.get(key);
+        if (last != null) {
+            last.accumulateAndGet(nowMillis, Math::max);
+            return;
+        }
+        lastActivity.computeIfAbsent(key, k -> {
+            schedule(k, nowMillis + timeoutMillis);
+            return new AtomicLong(nowMillis);
+        });
+    }
+
+    /**
+     * Stops tracking the key; its slot entry is dropped when it comes up.
+     */
+    public void forget(String key) {
+        lastActivity.remove(key);
+    }
+
+    /**
+     * Stops tracking the key unless it was active after {@code lastActivityMillis}.
+     * Returns false (and keeps the key) when there was newer activity.
+     */
+    public boolean forget(String key, long lastActivityMillis) {
+        AtomicLong last = lastActivity.get(key);
+        if (last == null) {
+            return true;
+        }
+        if (last.get() > lastActivityMillis) {
+            return false;
+        }
+        return lastActivity.remove(key, last) || !lastActivity.containsKey(key);
+    }
+
+    /**
+     * Last activity of the key, or -1 when it is not tracked.
+     */
+    public long lastActivity(String key) {
+        AtomicLong last = lastActivity.get(key);
+        return last == null ? -1 : last.get();
+    }
+
+    public int size() {
+        return lastActivity.size();
+    }
+
+    /**
+     * Processes the slots up to now and returns the keys idle for at least the timeout.
+     * They stay tracked until they are {@link #forget forgotten}; keys that saw activity
+     * in the meantime are filed under their new deadline.
+     */
+    public List<String> advance(long nowMillis) {
+        long now = nowMillis / tickMillis;
+        List<String> expired = new ArrayList<>();
+        // After a long pause one revolution still covers every slot
+        long from = Math.max(currentTick + 1, now - slots.length + 1);
+        for (long tick = from; tick <= now; tick++) {
+            Queue<String> slot = slots[(int) (tick % slots.length)];
+            // Only what was filed before this pass; keys re-filed into this slot wait a revolution
+            for (int pending = slot.size(); pending > 0; pending--) {
+                String key = slot.poll();
+                if (key == null) {
+                    break;
+                }
+                AtomicLong last = lastActivity.get(key);
+                if (last == null) {
+                    continue;
+                }
+                long deadline = last.get() + timeoutMillis;
+                if (deadline > nowMillis) {
+                    schedule(key, deadline);
+                } else {
+                    expired.add(key);
+                }
+            }
+            currentTick = tick;
+        }
+        currentTick = Math.max(currentTick, now);
+        return expired;
+    }
+
+    /**
+     * Files an expired key again for the next tick, for keys whose expiry could not be applied.
+     */
+    public void retry(String key) {
+        if (lastActivity.containsKey(key)) {
+            schedule(key, currentTick * tickMillis);
+        }
+    }
+
+    private void schedule(String key, long deadlineMillis) {
+        // Never into a slot that has already been processed in this revolution
+        long tick = Math.max(deadlineMillis / tickMillis + 1, currentTick + 1);
+        slots[(int) (tick % slots.length)].add(key);
+    }
+}
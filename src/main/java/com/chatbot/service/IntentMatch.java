@@ -0,0 +1,46 @@
+package com.chatbot.service;
+
+import java.util.List;
+
+/**
+ * Result of classifying one message: the winning intent plus every intent whose
+ * keywords occurred in it.
+ */
+public final class IntentMatch {
+
+    private final IntentMatcher matcher;
+    private final long mask;
+
+    IntentMatch(IntentMatcher matcher, long mask) {
+        this.matcher = matcher;
+        this.mask = mask;
+    }
+
+    /** Highest-priority matched intent, or {@code null} when nothing matched. */
+    public String getPrimary() {
+        return matcher.primaryOf(mask);
+    }
+
+    /** All matched intents, in priority order. */
+    public List<String> getMatched() {
+        return matcher.intentsOf(mask);
+    }
+
+    public boolean matches(String intent) {
+        int idx = matcher.getIntents().indexOf(intent);
+        return idx >= 0 && (mask & (1L << idx)) != 0L;
+    }
+
+    public long getMask() {
+        return mask;
+    }
+
+    public boolean isEmpty() {
+        return mask == 0L;
+    }
+
+    @Override
+    public String toString() {
+        return "IntentMatch{primary=" + getPrimary() + ", matched=" + getMatched() + "}";
+    }
+}
@@ -0,0 +1,217 @@
+package com.chatbot.service;
+
+import java.util.*;
+
+/**
+ * Immutable keyword automaton (Aho-Corasick) used for intent recognition.
+ *
+ * All keywords of all intents are compiled once into a single DFA, so a message is
+ * classified in one pass over its characters, without lowercasing copies or regex
+ * matchers. Matching is case-insensitive substring matching, i.e. the same semantics
+ * as the former {@code (?i)(a|b|c)} patterns.
+ *
+ * Intents are registered in priority order: when several intents match, the one
+ * registered first wins.
+ */
+public final class IntentMatcher {
+
+    /** Maximum number of intents, one bit each in the match mask. */
+    public static final int MAX_INTENTS = Long.SIZE;
+
+    private static final int ASCII = 128;
+
+    private final String[] intents;
+    // Alphabet: ASCII maps to itself, the (rare) non-ASCII keyword chars follow in sorted order
+    private final char[] extraChars;
+    private final int alphabetSize;
+    // Flattened DFA: delta[state * alphabetSize + symbol] -> next state
+    private final int[] delta;
+    // Bit mask of intents recognised when the automaton is in a given state
+    private final long[] output;
+
+    private IntentMatcher(String[] intents, char[] extraChars, int[] delta, long[] output) {
+        this.intents = intents;
+        this.extraChars = extraChars;
+        this.alphabetSize = ASCII + extraChars.length;
+        this.delta = delta;
+        this.output = output;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Scans the message once and returns the bit mask of every matched intent,
+     * bit {@code i} standing for the i-th registered intent. Allocation free.
+     */
+    public long matchMask(CharSequence message) {
+        if (message == null) {
+            return 0L;
+        }
+        long mask = 0L;
+        int state = 0;
+        for (int i = 0, n = message.length(); i < n; i++) {
+            int symbol = symbolOf(Character.toLowerCase(message.charAt(i)));
+            state = symbol < 0 ? 0 : delta[state * alphabetSize + symbol];
+            mask |= output[state];
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the highest-priority intent found in the message, or {@code null} when
+     * nothing matched. Allocation free.
+     */
+    public String classify(CharSequence message) {
+        return primaryOf(matchMask(message));
+    }
+
+    /**
+     * Classifies the message and reports both the winning intent and all matched intents.
+     */
+    public IntentMatch match(CharSequence message) {
+        return new IntentMatch(this, matchMask(message));
+    }
+
+    public String primaryOf(long mask) {
+        return mask == 0L ? null : intents[Long.numberOfTrailingZeros(mask)];
+    }
+
+    public List<String> intentsOf(long mask) {
+        List<String> matched = new ArrayList<>(Long.bitCount(mask));
+        for (long m = mask; m != 0L; m &= m - 1) {
+            matched.add(intents[Long.numberOfTrailingZeros(m)]);
+        }
+        return matched;
+    }
+
+    /** Registered intents, in priority order. */
+    public List<String> getIntents() {
+        return List.of(intents);
+    }
+
+    private int symbolOf(char c) {
+        if (c < ASCII) {
+            return c;
+        }
+        int idx = Arrays.binarySearch(extraChars, c);
+        return idx < 0 ? -1 : ASCII + idx;
+    }
+
+    public static final class Builder {
+
+        private final Map<String, List<String>> keywords = new LinkedHashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Registers an intent with its keywords. Intents registered earlier have priority.
+         */
+        public Builder intent(String name, String... words) {
+            return intent(name, Arrays.asList(words));
+        }
+
+        public Builder intent(String name, Collection<String> words) {
+            Objects.requireNonNull(name, "intent name");
+            if (!keywords.containsKey(name) && keywords.size() == MAX_INTENTS) {
+                throw new IllegalArgumentException("At most " + MAX_INTENTS + " intents are supported");
+            }
+            List<String> list = keywords.computeIfAbsent(name, k -> new ArrayList<>());
+            for (String word : words) {
+                if (word == null || word.isEmpty()) {
+                    throw new IllegalArgumentException("Empty keyword for intent: " + name);
+                }
+                list.add(word.toLowerCase(Locale.ROOT));
+            }
+            return this;
+        }
+
+        public IntentMatcher build() {
+            String[] intents = keywords.keySet().toArray(new String[0]);
+
+            // Alphabet
+            TreeSet<Character> extras = new TreeSet<>();
+            for (List<String> words : keywords.values()) {
+                for (String word : words) {
+                    for (char c : word.toCharArray()) {
+                        if (c >= ASCII) {
+                            extras.add(c);
+                        }
+                    }
+                }
+            }
+            char[] extraChars = new char[extras.size()];
+            int e = 0;
+            for (Character c : extras) {
+                extraChars[e++] = c;
+            }
+            int alphabetSize = ASCII + extraChars.length;
+
+            // Trie
+            List<int[]> gotoTable = new ArrayList<>();
+            List<Long> outputs = new ArrayList<>();
+            gotoTable.add(newRow(alphabetSize));
+            outputs.add(0L);
+            for (int intent = 0; intent < intents.length; intent++) {
+                for (String word : keywords.get(intents[intent])) {
+                    int state = 0;
+                    for (char c : word.toCharArray()) {
+                        int symbol = c < ASCII ? c : ASCII + Arrays.binarySearch(extraChars, c);
+                        int next = gotoTable.get(state)[symbol];
+                        if (next < 0) {
+                            next = gotoTable.size();
+                            gotoTable.add(newRow(alphabetSize));
+                            outputs.add(0L);
+                            gotoTable.get(state)[symbol] = next;
+                        }
+                        state = next;
+                    }
+                    outputs.set(state, outputs.get(state) | (1L << intent));
+                }
+            }
+
+            // Failure links (BFS), folded straight into a complete DFA
+            int states = gotoTable.size();
+            int[] delta = new int[states * alphabetSize];
+            long[] output = new long[states];
+            int[] fail = new int[states];
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            for (int s = 0; s < alphabetSize; s++) {
+                int next = gotoTable.get(0)[s];
+                if (next < 0) {
+                    delta[s] = 0;
+                } else {
+                    delta[s] = next;
+                    fail[next] = 0;
+                    queue.add(next);
+                }
+            }
+            output[0] = outputs.get(0);
+            while (!queue.isEmpty()) {
+                int state = queue.poll();
+                output[state] = outputs.get(state) | output[fail[state]];
+                int[] row = gotoTable.get(state);
+                for (int s = 0; s < alphabetSize; s++) {
+                    int next = row[s];
+                    if (next < 0) {
+                        delta[state * alphabetSize + s] = delta[fail[state] * alphabetSize + s];
+                    } else {
+                        delta[state * alphabetSize + s] = next;
+                        fail[next] = delta[fail[state] * alphabetSize + s];
+                        queue.add(next);
+                    }
+                }
+            }
+
+            return new IntentMatcher(intents, extraChars, delta, output);
+        }
+
+        private static int[] newRow(int size) {
+            int[] row = new int[size];
+            Arrays.fill(row, -1);
+            return row;
+        }
+    }
+}
@@ -1,19 +1,80 @@
 package com.chatbot.service;
 
+import com.chatbot.config.KafkaConfig;
 import com.chatbot.dto.ChatAnalyticsEvent;
 import com.chatbot.dto.ChatMessageEvent;
 import com.chatbot.dto.ChatSessionEvent;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
+/**
+ * Batch listeners for the chat topics. Each poll is handed to
+ * {@link KeyOrderedBatchProcessor}, so throughput scales with worker threads while
+ * events of one session are still handled in order.
+ */
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class KafkaConsumerService {
 
+    private final KeyOrderedBatchProcessor batchProcessor;
+    private final AnalyticsAggregator analyticsAggregator;
+
     // Chat messages consume karega
-    @KafkaListener(topics = "chat-messages", groupId = "chatbot-group")
-    public void consumeChatMessages(ChatMessageEvent event) {
+    @KafkaListener(topics = KafkaConfig.CHAT_MESSAGES_TOPIC, groupId = "chatbot-group",
+            containerFactory = "batchListenerContainerFactory",
+            concurrency = "#{@kafkaConsumerProperties.concurrency.chatMessages}")
+    public void consumeChatMessages(List<ConsumerRecord<String, ChatMessageEvent>> records) {
+        batchProcessor.process(records, record -> {
+            if (record.value() != null) {
+                consumeChatMessage(record.value());
+            } else {
+                logUndeserializable(record);
+            }
+        });
+    }
+
+    // Session events consume karega
+    @KafkaListener(topics = KafkaConfig.CHAT_SESSIONS_TOPIC, groupId = "chatbot-group",
+            containerFactory = "batchListenerContainerFactory",
+            concurrency = "#{@kafkaConsumerProperties.concurrency.chatSessions}")
+    public void consumeSessionEvents(List<ConsumerRecord<String, ChatSessionEvent>> records) {
+        batchProcessor.process(records, record -> {
+            if (record.value() != null) {
+                consumeSessionEvent(record.value());
+            } else {
+                logUndeserializable(record);
+            }
+        });
+    }
+
+    // Analytics events consume karega
+    @KafkaListener(topics = KafkaConfig.CHAT_ANALYTICS_TOPIC, groupId = "chatbot-group",
+            containerFactory = "batchListenerContainerFactory",
+            concurrency = "#{@kafkaConsumerProperties.concurrency.chatAnalytics}")
+    public void consumeAnalyticsEvents(List<ConsumerRecord<String, ChatAnalyticsEvent>> records) {
+        // Counting is cheap and relies on offset order, so it stays on the listener thread
+        analyticsAggregator.accept(records);
+        batchProcessor.process(records, record -> {
+            if (record.value() != null) {
+                consumeAnalyticsEvent(record.value());
+            } else {
+                logUndeserializable(record);
+            }
+        });
+    }
+
+    // ErrorHandlingDeserializer hands over records it could not decode with a null value
+    private static void logUndeserializable(ConsumerRecord<String, ?> record) {
+        log.warn("Skipping undeserializable record {}-{}@{}", record.topic(), record.partition(), record.offset());
+    }
+
+    void consumeChatMessage(ChatMessageEvent event) {
         log.info("📥 Consumed Chat Message - Session: {}, Sender: {}, Message: {}",
                 event.getSessionId(), event.getSenderType(),
                 event.getMessage().substring(0, Math.min(50, event.getMessage().length())) + "...");
@@ -24,9 +85,7 @@ public class KafkaConsumerService {
         // - Live dashboard updates
     }
 
-    // Session events consume karega
-    @KafkaListener(topics = "chat-sessions", groupId = "chatbot-group")
-    public void consumeSessionEvents(ChatSessionEvent event) {
+    void consumeSessionEvent(ChatSessionEvent event) {
         log.info("📥 Consumed Session Event - Session: {}, User: {}, Status: {}",
                 event.getSessionId(), event.getUserName(), event.getStatus());
 
@@ -36,9 +95,7 @@ public class KafkaConsumerService {
         // - Performance metrics
     }
 
-    // Analytics events consume karega
-    @KafkaListener(topics = "chat-analytics", groupId = "chatbot-group")
-    public void consumeAnalyticsEvents(ChatAnalyticsEvent event) {
+    void consumeAnalyticsEvent(ChatAnalyticsEvent event) {
         log.info("📊 Consumed Analytics Event - Session: {}, Event: {}, Intent: {}, Message Count: {}",
                 event.getSessionId(), event.getEventType(), event.getIntent(), event.getMessageCount());
 
@@ -47,15 +104,4 @@ public class KafkaConsumerService {
         // - Reporting
         // - Dashboard updates
     }
-
-    // Error handler
-    @KafkaListener(topics = "chat-messages", groupId = "chatbot-group", errorHandler = "kafkaErrorHandler")
-    public void consumeChatMessagesWithErrorHandling(ChatMessageEvent event) {
-        try {
-            consumeChatMessages(event);
-        } catch (Exception e) {
-            log.error("❌ Error processing chat message: {}", e.getMessage());
-            // Yahan pe error handling logic add kar sakte ho
-        }
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,75 @@
+package com.chatbot.service;
+
+import com.chatbot.config.KafkaConsumerProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Processes a polled batch of records on a shared worker pool. Records are grouped by key
+ * and each group runs sequentially on one worker, so records with the same key (session)
+ * keep their partition order while different keys are processed in parallel.
+ * {@link #process} returns only once every record has been handled, which keeps batch
+ * offset commits after the work they cover.
+ */
+@Slf4j
+@Component
+public class KeyOrderedBatchProcessor {
+
+    private final ExecutorService workers;
+
+    public KeyOrderedBatchProcessor(KafkaConsumerProperties properties) {
+        int threads = properties.getWorkerThreads() > 0
+                ? properties.getWorkerThreads()
+                : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "chat-kafka-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Applies the handler to every record of the batch and rethrows the first failure
+     * once all groups have finished, so the container can retry the batch.
+     */
+    public <K, V> void process(List<ConsumerRecord<K, V>> records, Consumer<ConsumerRecord<K, V>> handler) {
+        if (records.isEmpty()) {
+            return;
+        }
+        Map<K, List<ConsumerRecord<K, V>>> byKey = new LinkedHashMap<>();
+        for (ConsumerRecord<K, V> record : records) {
+            byKey.computeIfAbsent(record.key(), key -> new ArrayList<>()).add(record);
+        }
+        if (byKey.size() == 1) {
+            records.forEach(handler);
+            return;
+        }
+
+        List<CompletableFuture<Void>> groups = new ArrayList<>(byKey.size());
+        for (List<ConsumerRecord<K, V>> group : byKey.values()) {
+            groups.add(CompletableFuture.runAsync(() -> group.forEach(handler), workers));
+        }
+        try {
+            CompletableFuture.allOf(groups.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : e;
+        }
+        log.debug("Processed {} records in {} key groups", records.size(), byKey.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+}
@@ -0,0 +1,190 @@
+package com.chatbot.service;
+
+import com.chatbot.dto.CannedResponse;
+import com.chatbot.dto.ChatResponse;
+import com.chatbot.dto.KnowledgeBaseDocument;
+import com.chatbot.dto.QuickReply;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Immutable, compiled knowledge base: the intent matcher, the answers with their
+ * pre-encoded JSON and the quick-reply sets. Built from a {@link KnowledgeBaseDocument}
+ * and published as a whole by {@link ResponseCatalog}, so readers never see part of one
+ * version and part of another.
+ */
+public final class KnowledgeBase {
+
+    // Fields that differ per request and are therefore not part of the pre-encoded fragment
+    private static final Set<String> PER_REQUEST_FIELDS = Set.of("sessionId", "timestamp", "status");
+
+    private static final String MESSAGE_PLACEHOLDER = "{message}";
+
+    private final long version;
+    private final String source;
+    private final Instant loadedAt;
+    private final IntentMatcher matcher;
+    private final Map<String, CannedResponse> responses;
+    private final String welcomeMessage;
+    // Fallback text around the user's message
+    private final String fallbackPrefix;
+    private final String fallbackSuffix;
+    private final List<QuickReply> fallbackQuickReplies;
+
+    private KnowledgeBase(long version, String source, IntentMatcher matcher, Map<String, CannedResponse> responses,
+                          String welcomeMessage, String fallback, List<QuickReply> fallbackQuickReplies) {
+        this.version = version;
+        this.source = source;
+        this.loadedAt = Instant.now();
+        this.matcher = matcher;
+        this.responses = responses;
+        this.welcomeMessage = welcomeMessage;
+        int at = fallback.indexOf(MESSAGE_PLACEHOLDER);
+        this.fallbackPrefix = at < 0 ? fallback : fallback.substring(0, at);
+        this.fallbackSuffix = at < 0 ? null : fallback.substring(at + MESSAGE_PLACEHOLDER.length());
+        this.fallbackQuickReplies = fallbackQuickReplies;
+    }
+
+    /**
+     * Validates and compiles the document. {@code objectMapper} must be the one that
+     * encodes responses, as the answers are pre-encoded with it.
+     *
+     * @throws IllegalArgumentException when the document is incomplete or inconsistent
+     */
+    public static KnowledgeBase compile(KnowledgeBaseDocument document, ObjectMapper objectMapper,
+                                        long version, String source) {
+        require(document.getWelcome(), "welcome");
+        require(document.getFallback(), "fallback");
+
+        Map<String, List<QuickReply>> quickReplySets = new HashMap<>();
+        for (Map.Entry<String, List<QuickReply>> set : document.getQuickReplySets().entrySet()) {
+            List<QuickReply> replies = new ArrayList<>();
+            for (QuickReply reply : set.getValue() == null ? List.<QuickReply>of() : set.getValue()) {
+                require(reply == null ? null : reply.title(), "quickReplySets." + set.getKey() + ".title");
+                require(reply.payload(), "quickReplySets." + set.getKey() + ".payload");
+                replies.add(reply);
+            }
+            quickReplySets.put(set.getKey(), List.copyOf(replies));
+        }
+
+        IntentMatcher.Builder matcher = IntentMatcher.builder();
+        Map<String, CannedResponse> responses = new HashMap<>();
+        Set<String> names = new HashSet<>();
+        for (KnowledgeBaseDocument.Intent intent : document.getIntents()) {
+            String name = require(intent.getName(), "intents.name");
+            if (!names.add(name)) {
+                throw new IllegalArgumentException("Duplicate intent: " + name);
+            }
+            if (intent.getKeywords() == null || intent.getKeywords().isEmpty()) {
+                throw new IllegalArgumentException("Intent has no keywords: " + name);
+            }
+            matcher.intent(name, intent.getKeywords());
+            if (intent.getResponse() != null) {
+                List<QuickReply> quickReplies = quickReplies(quickReplySets, intent.getQuickReplies());
+                responses.put(name, new CannedResponse(name, intent.getResponse(), quickReplies,
+                        encodeFragment(objectMapper, intent.getResponse(), quickReplies), intent.isEndsSession()));
+            } else if (intent.isEndsSession()) {
+                throw new IllegalArgumentException("Intent ends the session but has no response: " + name);
+            }
+        }
+
+        return new KnowledgeBase(version, source, matcher.build(), Map.copyOf(responses), document.getWelcome(),
+                document.getFallback(), quickReplies(quickReplySets, document.getFallbackQuickReplies()));
+    }
+
+    /**
+     * Classifies a message against the intent keywords, reporting every matched intent.
+     */
+    public IntentMatch match(CharSequence message) {
+        return matcher.match(message);
+    }
+
+    /**
+     * Returns the static answer for the intent, or null when the intent has none.
+     */
+    public CannedResponse get(String intent) {
+        return intent == null ? null : responses.get(intent);
+    }
+
+    public String getWelcomeMessage() {
+        return welcomeMessage;
+    }
+
+    public String getDefaultResponse(String userMessage) {
+        return fallbackSuffix == null ? fallbackPrefix : fallbackPrefix + userMessage + fallbackSuffix;
+    }
+
+    public List<QuickReply> getFallbackQuickReplies() {
+        return fallbackQuickReplies;
+    }
+
+    /** Intents, in priority order. */
+    public List<String> getIntents() {
+        return matcher.getIntents();
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public Instant getLoadedAt() {
+        return loadedAt;
+    }
+
+    private static List<QuickReply> quickReplies(Map<String, List<QuickReply>> sets, String name) {
+        if (name == null) {
+            return null;
+        }
+        List<QuickReply> replies = sets.get(name);
+        if (replies == null) {
+            throw new IllegalArgumentException("Unknown quick-reply set: " + name);
+        }
+        return replies;
+    }
+
+    private static String require(String value, String field) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Missing " + field);
+        }
+        return value;
+    }
+
+    /**
+     * Encodes the static fields exactly as the ObjectMapper would within a full
+     * ChatResponse (same inclusion rules and field order), without the braces.
+     */
+    private static byte[] encodeFragment(ObjectMapper objectMapper, String botResponse, List<QuickReply> quickReplies) {
+        ChatResponse prototype = new ChatResponse();
+        prototype.setBotResponse(botResponse);
+        prototype.setQuickReplies(quickReplies);
+        ObjectNode tree = objectMapper.valueToTree(prototype);
+        tree.remove(PER_REQUEST_FIELDS);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.writeStartObject();
+            for (Iterator<Map.Entry<String, JsonNode>> it = tree.fields(); it.hasNext(); ) {
+                Map.Entry<String, JsonNode> field = it.next();
+                generator.writeFieldName(field.getKey());
+                generator.writeTree(field.getValue());
+            }
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] object = out.toByteArray();
+        return Arrays.copyOfRange(object, 1, object.length - 1);
+    }
+}
@@ -0,0 +1,418 @@
+package com.chatbot.service;
+
+import com.chatbot.config.StreamProperties;
+import com.chatbot.dto.ChatMessageDTO;
+import com.chatbot.entity.ChatMessage;
+import com.chatbot.repository.MessageStore;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes new chat messages of a session to its subscribers (Server-Sent Events) from
+ * memory, so connected clients cause no database reads.
+ *
+ * {@link ChatMessageWriter} publishes every message once it is stored. Sessions with
+ * subscribers have a channel holding the last {@link StreamProperties#getReplaySize()}
+ * messages, each encoded once, and the subscribers. Every subscriber has a bounded queue
+ * drained by a small sender pool; a subscriber whose queue overflows is disconnected and
+ * resumes where it left off when it reconnects.
+ *
+ * A reconnecting client passes the id of the last message it saw (Last-Event-ID). The
+ * first resume of a channel fills its replay buffer from the {@link MessageStore} once;
+ * when that id is no longer in the buffer the client gets a {@code resync} event and
+ * should reload the history. Ids identify messages but are not ordered across instances,
+ * so events are only ever matched by id, never compared. Only messages written by this instance are
+ * streamed.
+ *
+ * Published metrics: {@code chat.stream.sessions}, {@code chat.stream.subscribers},
+ * {@code chat.stream.dropped} (slow subscribers disconnected) and
+ * {@code chat.stream.resyncs}.
+ */
+@Slf4j
+@Component
+public class MessageStreamHub {
+
+    static final String MESSAGE = "message";
+    static final String RESYNC = "resync";
+
+    // Queued in place of an event to send a keep-alive comment
+    private static final StreamEvent HEARTBEAT = new StreamEvent(0, null, null);
+
+    private final MessageStore messageStore;
+    private final ObjectMapper objectMapper;
+    private final StreamProperties properties;
+    private final Cache<String, Channel> channels;
+    private final ExecutorService senders;
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final Counter dropped;
+    private final Counter resyncs;
+
+    public MessageStreamHub(MessageStore messageStore,
+                            ObjectMapper objectMapper,
+                            StreamProperties properties,
+                            MeterRegistry meterRegistry) {
+        this.messageStore = messageStore;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.channels = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSessions())
+                .expireAfterAccess(properties.getIdleTimeout())
+                .removalListener((String sessionId, Channel channel, RemovalCause cause) -> {
+                    if (channel != null) {
+                        channel.close();
+                    }
+                })
+                .build();
+        AtomicInteger counter = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(properties.getSenderThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "chat-stream-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("chat.stream.sessions", channels, Cache::estimatedSize)
+                .description("Sessions with a message stream channel")
+                .register(meterRegistry);
+        Gauge.builder("chat.stream.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Connected message stream subscribers")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("chat.stream.dropped")
+                .description("Subscribers disconnected for falling behind")
+                .register(meterRegistry);
+        this.resyncs = Counter.builder("chat.stream.resyncs")
+                .description("Resumes that reached back past the replay buffer")
+                .register(meterRegistry);
+    }
+
+    /**
+     * One event of a stream: the message id and its JSON encoding.
+     */
+    record StreamEvent(long id, String name, String data) {
+    }
+
+    /**
+     * Where a subscriber's events are written; called from one sender thread at a time.
+     */
+    interface Sink {
+
+        void send(StreamEvent event) throws IOException;
+
+        void heartbeat() throws IOException;
+
+        void close();
+    }
+
+    /**
+     * Opens a stream of the session's new messages. With {@code lastEventId} the stream
+     * starts with the messages after it. Fails with {@link RejectedExecutionException}
+     * when the session already has the maximum number of subscribers.
+     */
+    public SseEmitter subscribe(String sessionId, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(properties.getConnectionTimeout().toMillis());
+        Subscriber subscriber = subscribe(sessionId, lastEventId, new EmitterSink(emitter));
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        return emitter;
+    }
+
+    Subscriber subscribe(String sessionId, Long lastEventId, Sink sink) {
+        while (true) {
+            Channel channel = channels.get(sessionId, Channel::new);
+            if (lastEventId != null) {
+                channel.seed();
+            }
+            Subscriber subscriber = channel.subscribe(lastEventId, sink);
+            // Null when the channel was evicted in the meantime
+            if (subscriber != null) {
+                return subscriber;
+            }
+        }
+    }
+
+    /**
+     * Fans a stored message out to the subscribers of its session; a no-op for sessions
+     * nobody is streaming. The message must have its id.
+     */
+    public void publish(ChatMessage message) {
+        if (message.getId() == null) {
+            return;
+        }
+        Channel channel = channels.getIfPresent(message.getSessionId());
+        if (channel == null) {
+            return;
+        }
+        channel.publish(encode(new ChatMessageDTO(message.getId(), message.getContent(), message.getSenderType(),
+                message.getMessageType(), message.getTimestamp())));
+    }
+
+    @Scheduled(fixedDelayString = "${chatbot.stream.heartbeat:15s}")
+    public void heartbeat() {
+        for (Map.Entry<String, Channel> entry : channels.asMap().entrySet()) {
+            if (entry.getValue().heartbeat()) {
+                // Counts as an access, so channels with subscribers do not expire
+                channels.getIfPresent(entry.getKey());
+            }
+        }
+    }
+
+    int subscribers() {
+        return subscriberCount.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        channels.invalidateAll();
+        senders.shutdown();
+    }
+
+    private StreamEvent encode(ChatMessageDTO message) {
+        try {
+            return new StreamEvent(message.getId(), MESSAGE, objectMapper.writeValueAsString(message));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private final class Channel {
+
+        private final String sessionId;
+        // In publish order; ids are unique but, across instances, not ascending
+        private final ArrayDeque<StreamEvent> replay = new ArrayDeque<>();
+        private final Set<Long> replayIds = new HashSet<>();
+        private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        // Id of the message just before the replay buffer, once known
+        private Long before;
+        // Until seeded, messages from before the channel existed are unknown
+        private boolean seeded;
+        private boolean closed;
+
+        Channel(String sessionId) {
+            this.sessionId = sessionId;
+        }
+
+        /**
+         * Fills the replay buffer with the session's latest stored messages, once. The
+         * read runs outside the lock; messages published meanwhile follow them unless the
+         * read already picked them up.
+         */
+        void seed() {
+            synchronized (this) {
+                if (seeded) {
+                    return;
+                }
+            }
+            int size = properties.getReplaySize();
+            // One more than fits, to learn the id just before the buffer
+            List<ChatMessageDTO> latest = messageStore.findHistoryLatest(sessionId, size + 1);
+            List<StreamEvent> stored = new ArrayList<>(latest.size());
+            for (ChatMessageDTO message : latest) {
+                stored.add(encode(message));
+            }
+            synchronized (this) {
+                if (seeded) {
+                    return;
+                }
+                seeded = true;
+                List<StreamEvent> published = new ArrayList<>(replay);
+                replay.clear();
+                replayIds.clear();
+                before = null;
+                // Newest first from the store; the extra oldest one is evicted and becomes before
+                for (int i = stored.size() - 1; i >= 0; i--) {
+                    add(stored.get(i));
+                }
+                for (StreamEvent event : published) {
+                    if (!replayIds.contains(event.id())) {
+                        add(event);
+                    }
+                }
+            }
+        }
+
+        synchronized Subscriber subscribe(Long lastEventId, Sink sink) {
+            if (closed) {
+                return null;
+            }
+            if (subscribers.size() >= properties.getMaxSubscribersPerSession()) {
+                throw new RejectedExecutionException("Too many streams for session: " + sessionId);
+            }
+            List<StreamEvent> backlog = new ArrayList<>();
+            if (lastEventId != null) {
+                // Resumes after the client's last event by position, not by comparing ids
+                boolean found = lastEventId.equals(before);
+                for (StreamEvent event : replay) {
+                    if (found) {
+                        backlog.add(event);
+                    } else if (event.id() == lastEventId) {
+                        found = true;
+                    }
+                }
+                if (!found) {
+                    resyncs.increment();
+                    backlog.add(new StreamEvent(lastEventId, RESYNC, "{}"));
+                }
+            }
+            Subscriber subscriber = new Subscriber(this, sink, properties.getSubscriberQueueSize() + backlog.size());
+            subscribers.add(subscriber);
+            subscriberCount.incrementAndGet();
+            backlog.forEach(subscriber::offer);
+            return subscriber;
+        }
+
+        synchronized void publish(StreamEvent event) {
+            // Already there when the seed read picked it up
+            if (replayIds.contains(event.id())) {
+                return;
+            }
+            add(event);
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(event);
+            }
+        }
+
+        // Returns whether the channel has subscribers
+        boolean heartbeat() {
+            for (Subscriber subscriber : subscribers) {
+                subscriber.heartbeat();
+            }
+            return !subscribers.isEmpty();
+        }
+
+        synchronized void remove(Subscriber subscriber) {
+            if (subscribers.remove(subscriber)) {
+                subscriberCount.decrementAndGet();
+            }
+        }
+
+        void close() {
+            synchronized (this) {
+                closed = true;
+            }
+            for (Subscriber subscriber : subscribers) {
+                subscriber.close();
+            }
+        }
+
+        private void add(StreamEvent event) {
+            replay.addLast(event);
+            replayIds.add(event.id());
+            if (replay.size() > properties.getReplaySize()) {
+                StreamEvent evicted = replay.removeFirst();
+                replayIds.remove(evicted.id());
+                before = evicted.id();
+            }
+        }
+    }
+
+    final class Subscriber {
+
+        private final Channel channel;
+        private final Sink sink;
+        private final BlockingQueue<StreamEvent> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscriber(Channel channel, Sink sink, int capacity) {
+            this.channel = channel;
+            this.sink = sink;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        void offer(StreamEvent event) {
+            if (closed.get()) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                dropped.increment();
+                log.debug("Disconnecting slow stream subscriber of session {}", channel.sessionId);
+                close();
+                return;
+            }
+            schedule();
+        }
+
+        void heartbeat() {
+            // Only for idle subscribers; a busy one is sending anyway
+            if (!closed.get() && queue.isEmpty() && queue.offer(HEARTBEAT)) {
+                schedule();
+            }
+        }
+
+        void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            channel.remove(this);
+            queue.clear();
+            sink.close();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    close();
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                StreamEvent event;
+                while (!closed.get() && (event = queue.poll()) != null) {
+                    if (event == HEARTBEAT) {
+                        sink.heartbeat();
+                    } else {
+                        sink.send(event);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                log.debug("Stream subscriber of session {} failed: {}", channel.sessionId, e.getMessage());
+                close();
+            } finally {
+                scheduled.set(false);
+                // An event offered after the last poll but before the flag was cleared
+                if (!closed.get() && !queue.isEmpty()) {
+                    schedule();
+                }
+            }
+        }
+    }
+
+    private record EmitterSink(SseEmitter emitter) implements Sink {
+
+        @Override
+        public void send(StreamEvent event) throws IOException {
+            emitter.send(SseEmitter.event().id(Long.toString(event.id())).name(event.name()).data(event.data()));
+        }
+
+        @Override
+        public void heartbeat() throws IOException {
+            emitter.send(SseEmitter.event().comment("keep-alive"));
+        }
+
+        @Override
+        public void close() {
+            emitter.complete();
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.chatbot.service;
+
+import com.chatbot.config.OutboxProperties;
+import com.chatbot.entity.OutboxEvent;
+import com.chatbot.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.errors.SerializationException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+/**
+ * Publishes outbox rows to Kafka in batches. Only the instance holding the relay lease in
+ * {@code chat_outbox_lease} publishes, so events of one key leave through one producer in
+ * the order the database recorded them. Each poll renews the lease, reads the oldest
+ * rows, hands them all to the producer (which batches and compresses them) and waits for
+ * the acknowledgements without a transaction open; a short transaction then deletes the
+ * acknowledged prefix. A failed send ends the poll, and the next one starts again from
+ * that event. Delivery is at-least-once: a crash before the delete, or losing the lease
+ * while waiting, republishes the batch.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "chatbot.outbox.relay", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    // Only event classes from this package are ever instantiated from outbox rows
+    private static final String EVENT_PACKAGE = "com.chatbot.dto.";
+
+    private static final String LEASE = "relay";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final OutboxProperties properties;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, Class<?>> eventTypes = new ConcurrentHashMap<>();
+    private final String owner = UUID.randomUUID().toString();
+
+    private final Timer lag;
+    private final DistributionSummary batchSizes;
+    private final Counter published;
+    private final Counter failed;
+    // System.nanoTime() at which the oldest event still waiting was recorded, null when drained
+    private volatile Long oldestPending;
+    private volatile boolean leader;
+    // System.nanoTime() by which the lease, as last renewed, has certainly expired
+    private long leaseDeadline;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       KafkaTemplate<String, Object> kafkaTemplate,
+                       OutboxProperties properties,
+                       ObjectMapper objectMapper,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        if (properties.getRelay().getLeaseDuration().compareTo(properties.getRelay().getSendTimeout()) <= 0) {
+            throw new IllegalArgumentException("chatbot.outbox.relay.lease-duration must exceed send-timeout");
+        }
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.lag = Timer.builder("chat.outbox.relay.lag")
+                .description("Time from recording an event to its acknowledgement by Kafka")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("chat.outbox.relay.batch_size")
+                .register(meterRegistry);
+        this.published = Counter.builder("chat.outbox.relay.published").register(meterRegistry);
+        this.failed = Counter.builder("chat.outbox.relay.failed").register(meterRegistry);
+        Gauge.builder("chat.outbox.relay.oldest_pending", this, OutboxRelay::oldestPendingSeconds)
+                .description("Age in seconds of the oldest unpublished event")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${chatbot.outbox.relay.poll-interval:100ms}")
+    public void relay() {
+        int batchSize = properties.getRelay().getBatchSize();
+        int published;
+        do {
+            if (!renewLease()) {
+                return;
+            }
+            published = publishBatch(batchSize);
+        } while (published == batchSize);
+    }
+
+    @PreDestroy
+    public void releaseLease() {
+        if (leader) {
+            transactionTemplate.execute(status -> outboxEventRepository.releaseLease(LEASE, owner));
+            leader = false;
+        }
+    }
+
+    private boolean renewLease() {
+        long start = System.nanoTime();
+        Duration duration = properties.getRelay().getLeaseDuration();
+        Integer acquired = transactionTemplate.execute(status ->
+                outboxEventRepository.acquireLease(LEASE, owner, duration.toNanos() / 1000));
+        boolean held = acquired != null && acquired == 1;
+        if (held != leader) {
+            log.info(held ? "Took the outbox relay lease" : "Lost the outbox relay lease to another instance");
+        }
+        leader = held;
+        if (!held) {
+            // The leader reports the backlog
+            oldestPending = null;
+            return false;
+        }
+        leaseDeadline = start + duration.toNanos();
+        return true;
+    }
+
+    private int publishBatch(int batchSize) {
+        List<OutboxEvent> batch = outboxEventRepository.findNextBatch(Limit.of(batchSize));
+        if (batch.isEmpty()) {
+            oldestPending = null;
+            return 0;
+        }
+        // created_at is stamped by the database clock, so ages are taken there and carried on with nanoTime
+        LocalDateTime first = batch.get(0).getCreatedAt();
+        long firstRecorded = System.nanoTime() - outboxEventRepository.microsSince(first) * 1000;
+        oldestPending = firstRecorded;
+
+        List<CompletableFuture<SendResult<String, Object>>> sends = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            sends.add(send(event));
+        }
+        kafkaTemplate.flush();
+
+        // Only the acknowledged prefix is deleted, so per-key order survives a failed send.
+        // Waiting ends with the lease: after that another instance may already republish.
+        long deadline = Math.min(System.nanoTime() + properties.getRelay().getSendTimeout().toNanos(), leaseDeadline);
+        List<Long> done = new ArrayList<>(batch.size());
+        int dropped = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxEvent event = batch.get(i);
+            try {
+                sends.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                failed.increment();
+                if (isPermanent(e.getCause())) {
+                    // Retrying cannot succeed and would block every later event
+                    log.error("Dropping unpublishable outbox event {} to {}", event.getId(), event.getTopic(), e.getCause());
+                    done.add(event.getId());
+                    dropped++;
+                    continue;
+                }
+                log.warn("Outbox event {} to {} not acknowledged, retrying from there next poll: {}",
+                        event.getId(), event.getTopic(), e.getMessage());
+                oldestPending = recordedAt(firstRecorded, first, event);
+                break;
+            } catch (TimeoutException e) {
+                failed.increment();
+                log.warn("Outbox event {} to {} not acknowledged, retrying from there next poll: {}",
+                        event.getId(), event.getTopic(), e.getMessage());
+                oldestPending = recordedAt(firstRecorded, first, event);
+                break;
+            }
+            done.add(event.getId());
+            lag.record(System.nanoTime() - recordedAt(firstRecorded, first, event), TimeUnit.NANOSECONDS);
+        }
+
+        if (!done.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> outboxEventRepository.deleteAllByIdInBatch(done));
+            published.increment(done.size() - dropped);
+            batchSizes.record(done.size());
+            log.debug("Published {} outbox events", done.size());
+        }
+        return done.size();
+    }
+
+    private CompletableFuture<SendResult<String, Object>> send(OutboxEvent event) {
+        Object payload;
+        try {
+            payload = objectMapper.readValue(event.getPayload(), eventType(event.getEventType()));
+        } catch (IOException | ClassNotFoundException e) {
+            return CompletableFuture.failedFuture(new SerializationException("Cannot decode outbox payload", e));
+        }
+        try {
+            return kafkaTemplate.send(event.getTopic(), event.getEventKey(), payload);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static boolean isPermanent(Throwable error) {
+        Throwable cause = error instanceof KafkaException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof SerializationException || cause instanceof RecordTooLargeException;
+    }
+
+    private Class<?> eventType(String name) throws ClassNotFoundException {
+        Class<?> type = eventTypes.get(name);
+        if (type == null) {
+            if (!name.startsWith(EVENT_PACKAGE)) {
+                throw new ClassNotFoundException("Not an event type: " + name);
+            }
+            type = Class.forName(name);
+            eventTypes.put(name, type);
+        }
+        return type;
+    }
+
+    // nanoTime() at which the event was recorded, from its distance to the batch's first event
+    private static long recordedAt(long firstRecorded, LocalDateTime first, OutboxEvent event) {
+        return firstRecorded + Duration.between(first, event.getCreatedAt()).toNanos();
+    }
+
+    private double oldestPendingSeconds() {
+        Long oldest = oldestPending;
+        return oldest == null ? 0 : (System.nanoTime() - oldest) / 1e9;
+    }
+}
@@ -0,0 +1,64 @@
+package com.chatbot.service;
+
+import com.chatbot.dto.HistoryCursor;
+import com.chatbot.entity.ChatMessage;
+import com.chatbot.entity.ChatReadWatermark;
+import com.chatbot.repository.ChatReadWatermarkRepository;
+import com.chatbot.repository.MessageStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read receipts as one last-read position per session and sender type, instead of an
+ * is_read flag on every message row. Positions are (timestamp, id) in history order, like
+ * {@link HistoryCursor}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReadWatermarkService {
+
+    private final ChatReadWatermarkRepository watermarkRepository;
+    private final MessageStore messageStore;
+
+    /**
+     * Marks all messages of the sender type up to the latest one as read. Returns the
+     * position the watermark now points at, or null if the session has no such messages.
+     *
+     * Deliberately not transactional: the update and the rare first insert each run in
+     * their own short transaction, so a concurrent insert can be retried as an update.
+     */
+    public HistoryCursor markRead(String sessionId, ChatMessage.SenderType senderType) {
+        HistoryCursor position = messageStore.findLatestPosition(sessionId, senderType);
+        if (position == null) {
+            return null;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (watermarkRepository.advance(sessionId, senderType, position.timestamp(), position.id(), now) == 0
+                && !watermarkRepository.existsBySessionIdAndSenderType(sessionId, senderType)) {
+            try {
+                watermarkRepository.saveAndFlush(ChatReadWatermark.builder()
+                        .sessionId(sessionId)
+                        .senderType(senderType)
+                        .lastReadAt(position.timestamp())
+                        .lastReadMessageId(position.id())
+                        .build());
+            } catch (DataIntegrityViolationException e) {
+                // Created concurrently, move it forward instead
+                watermarkRepository.advance(sessionId, senderType, position.timestamp(), position.id(), now);
+            }
+        }
+        log.debug("Read watermark for session: {}, sender: {} at message {}", sessionId, senderType, position.id());
+        return position;
+    }
+
+    @Transactional(readOnly = true)
+    public ReadWatermarks getWatermarks(String sessionId) {
+        return new ReadWatermarks(watermarkRepository.findBySessionId(sessionId));
+    }
+}
@@ -0,0 +1,52 @@
+package com.chatbot.service;
+
+import com.chatbot.dto.ChatMessageDTO;
+import com.chatbot.dto.HistoryCursor;
+import com.chatbot.entity.ChatMessage;
+import com.chatbot.entity.ChatReadWatermark;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Snapshot of a session's read watermarks, used to derive {@code isRead} per message.
+ * A message is read when it is at or before its sender's watermark in (timestamp, id)
+ * order; pooled ids alone are not in insert order across instances.
+ */
+public final class ReadWatermarks {
+
+    private final Map<ChatMessage.SenderType, HistoryCursor> lastRead = new EnumMap<>(ChatMessage.SenderType.class);
+
+    ReadWatermarks(List<ChatReadWatermark> watermarks) {
+        for (ChatReadWatermark watermark : watermarks) {
+            lastRead.put(watermark.getSenderType(),
+                    new HistoryCursor(watermark.getLastReadAt(), watermark.getLastReadMessageId()));
+        }
+    }
+
+    /**
+     * Id of the last read message, 0 when none. Ids are unique, so it identifies the
+     * watermark position.
+     */
+    public long lastRead(ChatMessage.SenderType senderType) {
+        HistoryCursor position = lastRead.get(senderType);
+        return position == null ? 0L : position.id();
+    }
+
+    public boolean isRead(ChatMessageDTO message) {
+        HistoryCursor position = lastRead.get(ChatMessage.SenderType.valueOf(message.getSenderType()));
+        if (position == null || message.getId() == null || message.getTimestamp() == null) {
+            return false;
+        }
+        int order = message.getTimestamp().compareTo(position.timestamp());
+        return order < 0 || order == 0 && message.getId() <= position.id();
+    }
+
+    public List<ChatMessageDTO> apply(List<ChatMessageDTO> messages) {
+        for (ChatMessageDTO message : messages) {
+            message.setIsRead(isRead(message));
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,188 @@
+package com.chatbot.service;
+
+import com.chatbot.config.KnowledgeBaseProperties;
+import com.chatbot.dto.KnowledgeBaseDocument;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the current {@link KnowledgeBase}: intents, keywords, answers and quick replies,
+ * loaded from the file at {@code chatbot.knowledge-base.location}.
+ *
+ * A reload, on a change of the file or through the admin endpoint, parses and compiles
+ * a complete new snapshot and then swaps it in with a single reference write. The
+ * request path reads the reference without locking; an exchange takes one snapshot and
+ * uses it throughout. A file that fails to load leaves the current snapshot in place,
+ * except at startup, where it fails the application.
+ */
+@Slf4j
+@Component
+public class ResponseCatalog implements SmartLifecycle {
+
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper yamlMapper = new ObjectMapper(new YAMLFactory());
+    private final KnowledgeBaseProperties properties;
+    private final ResourceLoader resourceLoader;
+    private final AtomicReference<KnowledgeBase> current = new AtomicReference<>();
+    private final Counter reloads;
+    private final Counter failedReloads;
+
+    private volatile boolean running;
+    private WatchService watchService;
+    private Thread watcher;
+
+    public ResponseCatalog(ObjectMapper objectMapper,
+                           KnowledgeBaseProperties properties,
+                           ResourceLoader resourceLoader,
+                           MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.resourceLoader = resourceLoader;
+        this.current.set(load(1));
+        this.reloads = Counter.builder("chat.knowledge_base.reloads")
+                .tag("result", "success")
+                .register(meterRegistry);
+        this.failedReloads = Counter.builder("chat.knowledge_base.reloads")
+                .tag("result", "failure")
+                .register(meterRegistry);
+        Gauge.builder("chat.knowledge_base.version", current, ref -> ref.get().getVersion())
+                .description("Version of the knowledge base in use, counting loads since startup")
+                .register(meterRegistry);
+        log.info("Loaded knowledge base from {}: {} intents", properties.getLocation(), current().getIntents().size());
+    }
+
+    /**
+     * The knowledge base in use. Callers should read it once per exchange.
+     */
+    public KnowledgeBase current() {
+        return current.get();
+    }
+
+    /**
+     * Loads the file again and, if it is valid, makes it the current knowledge base.
+     *
+     * @throws IllegalArgumentException when the file cannot be read or is invalid; the
+     *                                  current knowledge base stays in use
+     */
+    public synchronized KnowledgeBase reload() {
+        KnowledgeBase next;
+        try {
+            next = load(current.get().getVersion() + 1);
+        } catch (IllegalArgumentException e) {
+            failedReloads.increment();
+            log.warn("Keeping knowledge base version {}: {}", current.get().getVersion(), e.getMessage());
+            throw e;
+        }
+        current.set(next);
+        reloads.increment();
+        log.info("Reloaded knowledge base from {}: version {}, {} intents", next.getSource(), next.getVersion(),
+                next.getIntents().size());
+        return next;
+    }
+
+    private KnowledgeBase load(long version) {
+        String location = properties.getLocation();
+        Resource resource = resourceLoader.getResource(location);
+        try (InputStream in = resource.getInputStream()) {
+            KnowledgeBaseDocument document = yamlMapper.readValue(in, KnowledgeBaseDocument.class);
+            if (document == null) {
+                throw new IllegalArgumentException("File is empty");
+            }
+            return KnowledgeBase.compile(document, objectMapper, version, location);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid knowledge base " + location + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void watch(Path file) {
+        long settleMillis = properties.getSettleDelay().toMillis();
+        try {
+            while (running) {
+                boolean changed = drain(watchService.take(), file);
+                // Editors save in several steps; wait until the directory is quiet
+                WatchKey more;
+                while ((more = watchService.poll(settleMillis, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= drain(more, file);
+                }
+                if (changed) {
+                    try {
+                        reload();
+                    } catch (IllegalArgumentException e) {
+                        // Logged by reload; the next save is picked up again
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Stopped
+        }
+    }
+
+    private static boolean drain(WatchKey key, Path file) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            changed |= event.kind() == StandardWatchEventKinds.OVERFLOW
+                    || file.getFileName().equals(event.context());
+        }
+        key.reset();
+        return changed;
+    }
+
+    @Override
+    public void start() {
+        Resource resource = resourceLoader.getResource(properties.getLocation());
+        if (!properties.isWatch() || !resource.isFile()) {
+            return;
+        }
+        try {
+            // The directory, since editors and deploy tools often replace the file rather than write it
+            Path file = resource.getFile().toPath().toAbsolutePath();
+            watchService = file.getFileSystem().newWatchService();
+            file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+            running = true;
+            watcher = new Thread(() -> watch(file), "knowledge-base-watcher");
+            watcher.setDaemon(true);
+            watcher.start();
+            log.info("Watching knowledge base file {}", file);
+        } catch (IOException e) {
+            log.warn("Cannot watch knowledge base {}, reload it through the admin endpoint: {}",
+                    properties.getLocation(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (watcher == null) {
+            return;
+        }
+        running = false;
+        try {
+            watchService.close();
+            watcher.join(1000);
+        } catch (IOException e) {
+            log.debug("Failed to close knowledge base watcher", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        watcher = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
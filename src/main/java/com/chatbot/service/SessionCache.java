@@ -0,0 +1,135 @@
+package com.chatbot.service;
+
+import com.chatbot.config.SessionCacheProperties;
+import com.chatbot.dto.SessionSnapshot;
+import com.chatbot.entity.ChatSession;
+import com.chatbot.repository.ChatSessionRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Bounded in-memory cache in front of {@link ChatSessionRepository#findBySessionId}.
+ *
+ * The cache holds immutable {@link SessionSnapshot}s, so requests share them safely;
+ * writers load the entity in their own transaction (see {@link #load}). Writes go through
+ * to the database; the cache and the {@link ActiveSessionRegistry} are only updated once
+ * the surrounding transaction has committed, so a rolled back session never becomes
+ * visible.
+ * Hit/miss/eviction stats are published as {@code cache.*} metrics with
+ * {@code cache=chat.sessions}.
+ */
+@Component
+public class SessionCache {
+
+    private final ChatSessionRepository chatSessionRepository;
+    private final ActiveSessionRegistry activeSessions;
+    private final Cache<String, SessionSnapshot> cache;
+
+    public SessionCache(ChatSessionRepository chatSessionRepository,
+                        ActiveSessionRegistry activeSessions,
+                        SessionCacheProperties properties,
+                        MeterRegistry meterRegistry) {
+        this.chatSessionRepository = chatSessionRepository;
+        this.activeSessions = activeSessions;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterAccess(properties.getExpireAfterAccess())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "chat.sessions");
+    }
+
+    public Optional<SessionSnapshot> findBySessionId(String sessionId) {
+        SessionSnapshot cached = cache.getIfPresent(sessionId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        // Misses are not cached: an unknown session id is about to be created
+        Optional<SessionSnapshot> session = chatSessionRepository.findBySessionId(sessionId).map(SessionSnapshot::of);
+        session.ifPresent(s -> cache.put(sessionId, s));
+        return session;
+    }
+
+    /**
+     * Loads the session entity from the database, for changing it in the current
+     * transaction; never from the cache.
+     */
+    public ChatSession load(SessionSnapshot session) {
+        return chatSessionRepository.findById(session.getId())
+                .orElseThrow(() -> new IllegalStateException("Session no longer exists: " + session.getSessionId()));
+    }
+
+    /**
+     * Looks up several sessions at once: cached ones from memory, the rest with a single
+     * query. Unknown session ids are missing from the result.
+     */
+    public Map<String, SessionSnapshot> findAllBySessionId(Collection<String> sessionIds) {
+        Map<String, SessionSnapshot> found = new HashMap<>(cache.getAllPresent(sessionIds));
+        if (found.size() < sessionIds.size()) {
+            List<String> missing = new ArrayList<>(sessionIds.size() - found.size());
+            for (String sessionId : sessionIds) {
+                if (!found.containsKey(sessionId)) {
+                    missing.add(sessionId);
+                }
+            }
+            for (ChatSession entity : chatSessionRepository.findBySessionIdIn(missing)) {
+                SessionSnapshot session = SessionSnapshot.of(entity);
+                cache.put(session.getSessionId(), session);
+                found.put(session.getSessionId(), session);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Saves the session and refreshes the cached copy after commit.
+     *
+     * @return the saved state, which later changes to the entity do not affect
+     */
+    public SessionSnapshot save(ChatSession session) {
+        SessionSnapshot saved = SessionSnapshot.of(chatSessionRepository.save(session));
+        putAfterCommit(saved);
+        return saved;
+    }
+
+    public void evict(String sessionId) {
+        cache.invalidate(sessionId);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private void putAfterCommit(SessionSnapshot session) {
+        String sessionId = session.getSessionId();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.put(sessionId, session);
+            activeSessions.update(session);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.put(sessionId, session);
+                activeSessions.update(session);
+            }
+        });
+    }
+}
@@ -0,0 +1,182 @@
+package com.chatbot.service;
+
+import com.chatbot.config.SessionExpiryProperties;
+import com.chatbot.dto.ActiveSessionSummary;
+import com.chatbot.entity.ChatSession;
+import com.chatbot.repository.ChatSessionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Expires ACTIVE sessions that have not seen a message for the configured idle timeout.
+ *
+ * Activity is tracked in an {@link IdleTimingWheel}, so recording a message is constant
+ * time and each sweep only looks at the sessions whose deadline has come up. Due sessions
+ * are switched to EXPIRED with one bulk UPDATE per batch; the rows that actually changed
+ * get a session event and a SESSION_ENDED analytics event through the outbox in the same
+ * transaction, and are dropped from the session cache and the active-session registry.
+ *
+ * Sessions that were active before a restart are tracked from the moment the application
+ * is ready, i.e. they expire one idle timeout after startup at the earliest.
+ */
+@Slf4j
+@Service
+public class SessionExpiryService {
+
+    private static final int LOAD_CHUNK_SIZE = 1000;
+
+    private final ChatSessionRepository chatSessionRepository;
+    private final SessionCache sessionCache;
+    private final ActiveSessionRegistry activeSessionRegistry;
+    private final KafkaProducerService kafkaProducerService;
+    private final SessionExpiryProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final IdleTimingWheel wheel;
+    private final Counter expired;
+
+    public SessionExpiryService(ChatSessionRepository chatSessionRepository,
+                                SessionCache sessionCache,
+                                ActiveSessionRegistry activeSessionRegistry,
+                                KafkaProducerService kafkaProducerService,
+                                SessionExpiryProperties properties,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry) {
+        this.chatSessionRepository = chatSessionRepository;
+        this.sessionCache = sessionCache;
+        this.activeSessionRegistry = activeSessionRegistry;
+        this.kafkaProducerService = kafkaProducerService;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.wheel = new IdleTimingWheel(properties.getTick().toMillis(), properties.getIdleTimeout().toMillis(),
+                System.currentTimeMillis());
+        this.expired = Counter.builder("chat.sessions.expired")
+                .description("Sessions expired after being idle")
+                .register(meterRegistry);
+        Gauge.builder("chat.sessions.idle_tracked", wheel, IdleTimingWheel::size)
+                .description("Sessions tracked for idle expiry")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records a message in the session, (re)starting its idle timeout.
+     */
+    public void touch(String sessionId) {
+        if (properties.isEnabled()) {
+            wheel.touch(sessionId, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Stops tracking a session that was closed otherwise.
+     */
+    public void forget(String sessionId) {
+        wheel.forget(sessionId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void trackActiveSessions() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long afterId = 0;
+        int tracked = 0;
+        List<ActiveSessionSummary> chunk;
+        do {
+            chunk = chatSessionRepository.findSummaries(ChatSession.ChatStatus.ACTIVE, afterId,
+                    Limit.of(LOAD_CHUNK_SIZE));
+            for (ActiveSessionSummary session : chunk) {
+                wheel.touch(session.getSessionId(), now);
+            }
+            tracked += chunk.size();
+            if (!chunk.isEmpty()) {
+                afterId = chunk.get(chunk.size() - 1).getId();
+            }
+        } while (chunk.size() == LOAD_CHUNK_SIZE);
+        log.info("Tracking {} active sessions for idle expiry (timeout {})", tracked, properties.getIdleTimeout());
+    }
+
+    @Scheduled(fixedDelayString = "${chatbot.session-expiry.tick:10s}")
+    public void sweep() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<String> due = wheel.advance(now);
+        int batchSize = properties.getBatchSize();
+        int total = 0;
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<String> batch = due.subList(from, Math.min(from + batchSize, due.size()));
+            try {
+                total += expire(batch, now);
+            } catch (RuntimeException e) {
+                log.warn("Failed to expire {} idle sessions, retrying next tick: {}", batch.size(), e.getMessage());
+                batch.forEach(wheel::retry);
+            }
+        }
+        if (total > 0) {
+            log.info("Expired {} idle sessions", total);
+        }
+    }
+
+    private int expire(List<String> due, long now) {
+        // Activity after the sweep started keeps the session alive
+        long cutoff = now - properties.getIdleTimeout().toMillis();
+        Set<String> sessionIds = new HashSet<>();
+        for (String sessionId : due) {
+            long last = wheel.lastActivity(sessionId);
+            if (last >= 0 && last <= cutoff) {
+                sessionIds.add(sessionId);
+            } else if (last > cutoff) {
+                wheel.retry(sessionId);
+            }
+        }
+        if (sessionIds.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime stamp = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        List<ActiveSessionSummary> expiredSessions = transactionTemplate.execute(status -> {
+            int updated = chatSessionRepository.transition(sessionIds, ChatSession.ChatStatus.ACTIVE,
+                    ChatSession.ChatStatus.EXPIRED, stamp);
+            if (updated == 0) {
+                return List.of();
+            }
+            List<ActiveSessionSummary> changed = chatSessionRepository.findSummariesUpdatedAt(sessionIds,
+                    ChatSession.ChatStatus.EXPIRED, stamp);
+            for (ActiveSessionSummary session : changed) {
+                kafkaProducerService.sendSessionEvent(session.getSessionId(), session.getUserId(),
+                        session.getUserName(), ChatSession.ChatStatus.EXPIRED.name());
+                kafkaProducerService.sendAnalyticsEvent(session.getSessionId(), "SESSION_ENDED", null,
+                        session.getUserId(), null, 0);
+            }
+            return changed;
+        });
+
+        // Sessions that were no longer ACTIVE are dropped as well
+        for (String sessionId : sessionIds) {
+            sessionCache.evict(sessionId);
+            activeSessionRegistry.remove(sessionId);
+            if (!wheel.forget(sessionId, cutoff)) {
+                wheel.retry(sessionId);
+            }
+        }
+        expired.increment(expiredSessions.size());
+        return expiredSessions.size();
+    }
+}
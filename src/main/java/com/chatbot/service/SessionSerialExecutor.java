@@ -0,0 +1,102 @@
+package com.chatbot.service;
+
+import com.chatbot.config.SessionExecutorProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs work for one session at a time, in arrival order, while work for different
+ * sessions runs fully in parallel.
+ *
+ * Each session with work in flight has a mailbox: the future that completes when its most
+ * recently submitted task is done. A new task swaps itself in as the tail and starts once
+ * its predecessor has finished, so tasks of a session form a chain and nothing is shared
+ * across sessions. The tail removes its entry when it completes without a successor,
+ * which keeps the map at the number of sessions with work in flight; an idle session
+ * costs nothing.
+ *
+ * Work must not submit to the mailbox of the session it runs for, as it would wait for
+ * itself. Published metric: {@code chat.session_executor.keys}.
+ */
+@Component
+public class SessionSerialExecutor {
+
+    private final Map<String, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+    private final SessionExecutorProperties properties;
+
+    public SessionSerialExecutor(SessionExecutorProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        Gauge.builder("chat.session_executor.keys", tails, Map::size)
+                .description("Sessions with work queued or running")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code work} on the calling thread once every earlier task of the session has
+     * finished. Fails with {@link RejectedExecutionException} when that takes longer than
+     * the configured wait timeout; the session's later tasks still run in order.
+     */
+    public <T> T execute(String key, Supplier<T> work) {
+        CompletableFuture<Void> turn = new CompletableFuture<>();
+        CompletableFuture<Void> previous = tails.put(key, turn);
+        if (previous != null) {
+            try {
+                previous.get(properties.getWaitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException | InterruptedException e) {
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                // Give up the turn only once it has come, so successors keep their order
+                previous.whenComplete((ignored, error) -> release(key, turn));
+                throw new RejectedExecutionException("Session busy: " + key, e);
+            } catch (ExecutionException e) {
+                // Turns always complete normally; a failed task does not block its successors
+            }
+        }
+        try {
+            return work.get();
+        } finally {
+            release(key, turn);
+        }
+    }
+
+    /**
+     * Runs {@code work} on {@code executor} once every earlier task of the session has
+     * finished, without blocking the caller. A rejection by the executor fails the
+     * returned future with {@link RejectedExecutionException}; timing out or cancelling the
+     * returned future does not stop the work nor let successors overtake it.
+     */
+    public <T> CompletableFuture<T> submit(String key, Supplier<T> work, Executor executor) {
+        CompletableFuture<Void> turn = new CompletableFuture<>();
+        CompletableFuture<Void> previous = tails.put(key, turn);
+        CompletableFuture<T> task = (previous != null ? previous : CompletableFuture.<Void>completedFuture(null))
+                .thenApplyAsync(ignored -> work.get(), executor);
+        task.whenComplete((value, error) -> release(key, turn));
+        // A copy, so a caller completing it early (orTimeout, cancel) cannot end the turn
+        return task.copy();
+    }
+
+    /**
+     * Number of sessions with work queued or running.
+     */
+    public int size() {
+        return tails.size();
+    }
+
+    private void release(String key, CompletableFuture<Void> turn) {
+        turn.complete(null);
+        // Only the tail leaves the map; a successor has already replaced it otherwise
+        tails.remove(key, turn);
+    }
+}
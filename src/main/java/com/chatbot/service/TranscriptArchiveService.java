@@ -0,0 +1,224 @@
+package com.chatbot.service;
+
+import com.chatbot.config.ArchiveProperties;
+import com.chatbot.dto.ChatMessageDTO;
+import com.chatbot.entity.ChatSession;
+import com.chatbot.entity.TranscriptArchive;
+import com.chatbot.repository.ChatMessageRepository;
+import com.chatbot.repository.ChatSessionRepository;
+import com.chatbot.repository.MessageStore;
+import com.chatbot.repository.TranscriptArchiveRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves transcripts of finished sessions (COMPLETED or EXPIRED, no messages for
+ * {@link ArchiveProperties#getAfter()}) out of chat_messages into one compressed
+ * {@link TranscriptArchive} row per session, then deletes the original rows in batches.
+ *
+ * The archive row is written first and the rows are deleted afterwards, so a transcript is
+ * always complete; until the deletes are done a message can be in both places, which
+ * {@link #findTranscript} resolves by id. A session that gets new messages after being
+ * archived has them merged into its archive on a later run.
+ *
+ * Archival works on the chat_messages table; with the log {@link MessageStore} there are
+ * no rows to move and no session is ever a candidate.
+ *
+ * Published metrics: {@code chat.archive.sessions}, {@code chat.archive.messages},
+ * {@code chat.archive.bytes} (tag {@code stage=raw|compressed}) and the per-session
+ * {@code chat.archive.duration}; their ratio is the space saved by compression.
+ */
+@Slf4j
+@Service
+public class TranscriptArchiveService {
+
+    private static final List<ChatSession.ChatStatus> FINISHED =
+            List.of(ChatSession.ChatStatus.COMPLETED, ChatSession.ChatStatus.EXPIRED);
+
+    static final Comparator<ChatMessageDTO> TRANSCRIPT_ORDER = Comparator
+            .comparing(ChatMessageDTO::getTimestamp, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(ChatMessageDTO::getId);
+
+    private final ChatSessionRepository chatSessionRepository;
+    private final ChatMessageRepository chatMessageRepository;
+    private final MessageStore messageStore;
+    private final TranscriptArchiveRepository transcriptArchiveRepository;
+    private final ArchiveProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter archivedSessions;
+    private final Counter archivedMessages;
+    private final Counter rawBytes;
+    private final Counter compressedBytes;
+    private final Timer archiveTimer;
+    private final DistributionSummary compressionRatio;
+
+    public TranscriptArchiveService(ChatSessionRepository chatSessionRepository,
+                                    ChatMessageRepository chatMessageRepository,
+                                    MessageStore messageStore,
+                                    TranscriptArchiveRepository transcriptArchiveRepository,
+                                    ArchiveProperties properties,
+                                    PlatformTransactionManager transactionManager,
+                                    MeterRegistry meterRegistry) {
+        this.chatSessionRepository = chatSessionRepository;
+        this.chatMessageRepository = chatMessageRepository;
+        this.messageStore = messageStore;
+        this.transcriptArchiveRepository = transcriptArchiveRepository;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archivedSessions = Counter.builder("chat.archive.sessions")
+                .description("Session transcripts archived")
+                .register(meterRegistry);
+        this.archivedMessages = Counter.builder("chat.archive.messages")
+                .description("Chat messages moved into archived transcripts")
+                .register(meterRegistry);
+        this.rawBytes = Counter.builder("chat.archive.bytes")
+                .description("Archived transcript bytes")
+                .tag("stage", "raw")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.compressedBytes = Counter.builder("chat.archive.bytes")
+                .description("Archived transcript bytes")
+                .tag("stage", "compressed")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.archiveTimer = Timer.builder("chat.archive.duration")
+                .description("Time to archive one session transcript")
+                .register(meterRegistry);
+        this.compressionRatio = DistributionSummary.builder("chat.archive.compression_ratio")
+                .description("Raw to compressed size of archived transcripts")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Full transcript of a session that has an archive, merged with any messages still (or
+     * again) in the message store; empty when the session was never archived.
+     */
+    public Optional<List<ChatMessageDTO>> findTranscript(String sessionId) {
+        return transcriptArchiveRepository.findById(sessionId)
+                .map(archive -> merge(TranscriptCodec.decode(archive.getTranscript()),
+                        messageStore.findHistory(sessionId)));
+    }
+
+    /**
+     * Number of archived messages of the session, 0 when it was never archived. Grows with
+     * every archival run that moves messages, so it versions the archived part of the
+     * transcript.
+     */
+    public int findArchivedCount(String sessionId) {
+        return transcriptArchiveRepository.findMessageCount(sessionId).orElse(0);
+    }
+
+    @Scheduled(cron = "${chatbot.archive.cron:0 45 3 * * *}")
+    public void archiveFinishedSessions() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.getAfter());
+        Set<String> attempted = new HashSet<>();
+        int sessions = 0;
+        long messages = 0;
+        boolean progress = true;
+        while (progress) {
+            progress = false;
+            for (String sessionId : chatSessionRepository.findArchivable(FINISHED, cutoff,
+                    Limit.of(properties.getSessionsPerQuery()))) {
+                // Failed sessions stay candidates; try each only once per run
+                if (!attempted.add(sessionId)) {
+                    continue;
+                }
+                progress = true;
+                try {
+                    messages += archive(sessionId);
+                    sessions++;
+                } catch (RuntimeException e) {
+                    log.warn("Failed to archive transcript of session {}", sessionId, e);
+                }
+            }
+        }
+        if (sessions > 0) {
+            log.info("Archived {} sessions ({} messages) in {} ms", sessions, messages,
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    /**
+     * Archives the transcript of one session and deletes its rows; returns the number of
+     * rows moved.
+     */
+    public int archive(String sessionId) {
+        long start = System.nanoTime();
+        List<ChatMessageDTO> live = chatMessageRepository.findHistory(sessionId);
+        if (live.isEmpty()) {
+            return 0;
+        }
+        TranscriptCodec.Encoded encoded = transactionTemplate.execute(status -> {
+            Optional<TranscriptArchive> existing = transcriptArchiveRepository.findById(sessionId);
+            List<ChatMessageDTO> transcript = existing
+                    .map(archive -> merge(TranscriptCodec.decode(archive.getTranscript()), live))
+                    .orElse(live);
+            TranscriptCodec.Encoded result = TranscriptCodec.encode(transcript, properties.getCompressionLevel());
+            TranscriptArchive archive = existing.orElseGet(() -> TranscriptArchive.builder().sessionId(sessionId).build());
+            archive.setMessageCount(transcript.size());
+            archive.setFirstMessageAt(transcript.get(0).getTimestamp());
+            archive.setLastMessageAt(transcript.get(transcript.size() - 1).getTimestamp());
+            archive.setRawBytes(result.rawBytes());
+            archive.setCompressedBytes(result.data().length);
+            archive.setArchivedAt(LocalDateTime.now());
+            archive.setTranscript(result.data());
+            transcriptArchiveRepository.save(archive);
+            return result;
+        });
+
+        int batchSize = properties.getDeleteBatchSize();
+        for (int from = 0; from < live.size(); from += batchSize) {
+            List<Long> ids = new ArrayList<>(Math.min(batchSize, live.size() - from));
+            for (ChatMessageDTO message : live.subList(from, Math.min(from + batchSize, live.size()))) {
+                ids.add(message.getId());
+            }
+            transactionTemplate.executeWithoutResult(status -> chatMessageRepository.deleteArchived(sessionId, ids));
+        }
+
+        archivedSessions.increment();
+        archivedMessages.increment(live.size());
+        rawBytes.increment(encoded.rawBytes());
+        compressedBytes.increment(encoded.data().length);
+        compressionRatio.record((double) encoded.rawBytes() / encoded.data().length);
+        archiveTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        log.debug("Archived {} messages of session {}: {} -> {} bytes", live.size(), sessionId,
+                encoded.rawBytes(), encoded.data().length);
+        return live.size();
+    }
+
+    // Archived and live messages in transcript order; a message in both counts once
+    static List<ChatMessageDTO> merge(List<ChatMessageDTO> archived, List<ChatMessageDTO> live) {
+        if (live.isEmpty()) {
+            return archived;
+        }
+        Set<Long> archivedIds = new HashSet<>(archived.size() * 2);
+        for (ChatMessageDTO message : archived) {
+            archivedIds.add(message.getId());
+        }
+        List<ChatMessageDTO> merged = new ArrayList<>(archived.size() + live.size());
+        merged.addAll(archived);
+        for (ChatMessageDTO message : live) {
+            if (!archivedIds.contains(message.getId())) {
+                merged.add(message);
+            }
+        }
+        merged.sort(TRANSCRIPT_ORDER);
+        return merged;
+    }
+}
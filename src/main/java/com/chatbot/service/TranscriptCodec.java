@@ -0,0 +1,108 @@
+package com.chatbot.service;
+
+import com.chatbot.dto.ChatMessageDTO;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Encoding of an archived session transcript: {@link #MAGIC}, the format version and a
+ * deflate stream of the message count followed by, per message, id, timestamp (epoch
+ * micros read as UTC, {@link Long#MIN_VALUE} for none), sender type, message type and
+ * content. Types are stored by name, which deflate reduces to a few bits.
+ */
+public final class TranscriptCodec {
+
+    public static final byte MAGIC = (byte) 0xCA;
+    public static final byte VERSION = 1;
+
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    private TranscriptCodec() {
+    }
+
+    /**
+     * Encoded transcript plus its size before compression.
+     */
+    public record Encoded(byte[] data, int rawBytes) {
+    }
+
+    public static Encoded encode(List<ChatMessageDTO> messages, int compressionLevel) {
+        try {
+            ByteArrayOutputStream raw = new ByteArrayOutputStream(256 + messages.size() * 64);
+            DataOutputStream out = new DataOutputStream(raw);
+            out.writeInt(messages.size());
+            for (ChatMessageDTO message : messages) {
+                out.writeLong(message.getId());
+                out.writeLong(message.getTimestamp() == null ? NO_TIMESTAMP : toMicros(message.getTimestamp()));
+                out.writeUTF(message.getSenderType());
+                out.writeUTF(message.getMessageType());
+                byte[] content = message.getContent().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(content.length);
+                out.write(content);
+            }
+            out.flush();
+
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.size() / 3 + 16);
+            compressed.write(MAGIC);
+            compressed.write(VERSION);
+            Deflater deflater = new Deflater(compressionLevel);
+            try (DeflaterOutputStream deflate = new DeflaterOutputStream(compressed, deflater)) {
+                raw.writeTo(deflate);
+            } finally {
+                deflater.end();
+            }
+            return new Encoded(compressed.toByteArray(), raw.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static List<ChatMessageDTO> decode(byte[] data) {
+        if (data == null || data.length < 2 || data[0] != MAGIC) {
+            throw new IllegalArgumentException("Not an archived transcript");
+        }
+        if (data[1] != VERSION) {
+            throw new IllegalArgumentException("Unsupported transcript version: " + data[1]);
+        }
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(
+                new ByteArrayInputStream(data, 2, data.length - 2)))) {
+            int count = in.readInt();
+            List<ChatMessageDTO> messages = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long id = in.readLong();
+                long micros = in.readLong();
+                String senderType = in.readUTF();
+                String messageType = in.readUTF();
+                byte[] content = new byte[in.readInt()];
+                in.readFully(content);
+                messages.add(new ChatMessageDTO(id, new String(content, StandardCharsets.UTF_8), senderType,
+                        messageType, micros == NO_TIMESTAMP ? null : fromMicros(micros), null));
+            }
+            return messages;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Corrupt archived transcript", e);
+        }
+    }
+
+    private static long toMicros(LocalDateTime value) {
+        return value.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + value.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,97 @@
+package com.chatbot.service;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Event count over a time window, kept as a ring of {@link LongAdder} buckets so
+ * concurrent increments never contend on a single counter. The ring holds the current
+ * and the previous aligned window plus buckets ahead of time, which a single
+ * maintenance thread clears via {@link #clearAhead} before they come into use.
+ */
+public class WindowCounter {
+
+    // Buckets cleared ahead of the current one; covers maintenance pauses up to this many buckets
+    private static final int CLEAR_AHEAD = 30;
+
+    private final long bucketMillis;
+    private final int windowBuckets;
+    private final LongAdder[] buckets;
+    // Highest bucket index known to be cleared; later buckets may still hold old counts
+    private volatile long clearedThrough;
+
+    public WindowCounter(long bucketMillis, int windowBuckets, long nowMillis) {
+        this.bucketMillis = bucketMillis;
+        this.windowBuckets = windowBuckets;
+        this.buckets = new LongAdder[2 * windowBuckets + CLEAR_AHEAD];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+        this.clearedThrough = bucketOf(nowMillis) + CLEAR_AHEAD;
+    }
+
+    /**
+     * Counts one event at the given time. Events older than the previous window are
+     * ignored (returns false), future ones are counted in the current bucket.
+     */
+    public boolean increment(long eventMillis, long nowMillis) {
+        long now = bucketOf(nowMillis);
+        long bucket = Math.min(bucketOf(eventMillis), now);
+        if (bucket <= now - 2L * windowBuckets) {
+            return false;
+        }
+        if (now > clearedThrough) {
+            // Maintenance fell behind; catch up before writing into a stale bucket
+            synchronized (this) {
+                clearAhead(nowMillis);
+            }
+        }
+        buckets[slot(bucket)].increment();
+        return true;
+    }
+
+    /**
+     * Count over the last {@code windowBuckets} buckets, including the current one.
+     */
+    public long sliding(long nowMillis) {
+        long now = bucketOf(nowMillis);
+        return sum(now - windowBuckets + 1, now);
+    }
+
+    /**
+     * Count over the last complete window aligned to multiples of the window length.
+     */
+    public long tumbling(long nowMillis) {
+        long start = Math.floorDiv(bucketOf(nowMillis), windowBuckets) * windowBuckets - windowBuckets;
+        return sum(start, start + windowBuckets - 1);
+    }
+
+    /**
+     * Clears the buckets that come into use next. Called periodically by one thread.
+     */
+    public synchronized void clearAhead(long nowMillis) {
+        long target = bucketOf(nowMillis) + CLEAR_AHEAD;
+        long from = Math.max(clearedThrough + 1, target - buckets.length + 1);
+        for (long bucket = from; bucket <= target; bucket++) {
+            buckets[slot(bucket)].reset();
+        }
+        if (target > clearedThrough) {
+            clearedThrough = target;
+        }
+    }
+
+    private long sum(long fromBucket, long toBucket) {
+        long total = 0;
+        for (long bucket = fromBucket; bucket <= toBucket; bucket++) {
+            total += buckets[slot(bucket)].sum();
+        }
+        return total;
+    }
+
+    private long bucketOf(long millis) {
+        return Math.floorDiv(millis, bucketMillis);
+    }
+
+    private int slot(long bucket) {
+        return (int) Math.floorMod(bucket, (long) buckets.length);
+    }
+}
@@ -0,0 +1,14 @@
+-- Converts the legacy per-row is_read flags into read watermarks. The watermark is placed
+-- right before the session's first unread message of that sender, or on its last message
+-- when everything was read. Sessions that already have a watermark keep it.
+INSERT INTO chat_read_watermarks (session_id, sender_type, last_read_message_id, updated_at)
+SELECT m.session_id, m.sender_type,
+       COALESCE((SELECT MIN(u.id) - 1 FROM chat_messages u
+                 WHERE u.session_id = m.session_id AND u.sender_type = m.sender_type
+                 AND u.is_read = FALSE), MAX(m.id)),
+       CURRENT_TIMESTAMP
+FROM chat_messages m
+WHERE m.is_read = TRUE
+AND NOT EXISTS (SELECT 1 FROM chat_read_watermarks w
+                WHERE w.session_id = m.session_id AND w.sender_type = m.sender_type)
+GROUP BY m.session_id, m.sender_type;
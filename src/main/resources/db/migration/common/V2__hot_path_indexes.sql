@@ -0,0 +1,19 @@
+-- Indexes for the queries on the request path; each one matches the filter and the
+-- sort order of its queries, so pages are read in index order without a sort.
+
+-- History (findHistory*, findBySessionIdOrderByTimestampAsc):
+--   WHERE session_id = ? [AND (timestamp, id) > / < cursor] ORDER BY timestamp, id
+CREATE INDEX idx_chat_messages_session_time ON chat_messages (session_id, timestamp, id);
+
+-- Unread counts and read watermarks (countUnreadUserMessages, findLatestMessageId):
+--   WHERE session_id = ? AND sender_type = ? AND id > ? / MAX(id)
+-- Read state moved from is_read to chat_read_watermarks, so id takes its place.
+CREATE INDEX idx_chat_messages_session_sender ON chat_messages (session_id, sender_type, id);
+
+-- Active-session listing, registry rebuild and idle expiry:
+--   WHERE status = ? AND id > ? ORDER BY id
+CREATE INDEX idx_chat_sessions_status ON chat_sessions (status, id);
+
+-- Per-user listing (findByUserId, findSummariesByUser):
+--   WHERE user_id = ? [AND status = ? AND id > ? ORDER BY id]
+CREATE INDEX idx_chat_sessions_user ON chat_sessions (user_id, status, id);
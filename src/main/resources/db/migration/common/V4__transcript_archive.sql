@@ -0,0 +1,16 @@
+-- Compressed transcripts of finished sessions (see TranscriptArchiveService); their
+-- chat_messages rows are deleted once the transcript has been written.
+CREATE TABLE chat_transcript_archive (
+    session_id varchar(255) NOT NULL,
+    message_count integer NOT NULL,
+    first_message_at datetime(6),
+    last_message_at datetime(6),
+    raw_bytes integer NOT NULL,
+    compressed_bytes integer NOT NULL,
+    archived_at datetime(6) NOT NULL,
+    transcript LONGBLOB NOT NULL,
+    PRIMARY KEY (session_id)
+);
+
+-- Archival candidates: WHERE status IN (...) AND updated_at < ? ORDER BY updated_at
+CREATE INDEX idx_chat_sessions_status_updated ON chat_sessions (status, updated_at);
@@ -0,0 +1,3 @@
+-- chat_messages ids come from the pooled chat_messages_seq (allocationSize 50). H2
+-- databases are always created by these migrations, so there are no ids to start above.
+CREATE SEQUENCE IF NOT EXISTS chat_messages_seq START WITH 1 INCREMENT BY 50;
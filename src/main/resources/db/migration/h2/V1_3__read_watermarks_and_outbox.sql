@@ -0,0 +1,23 @@
+-- Tables added after the V1 baseline
+
+CREATE SEQUENCE IF NOT EXISTS chat_outbox_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS chat_read_watermarks (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    session_id varchar(255) NOT NULL,
+    sender_type enum ('AGENT','BOT','USER') NOT NULL,
+    last_read_message_id bigint NOT NULL,
+    updated_at timestamp(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_chat_read_watermarks_session_sender UNIQUE (session_id, sender_type)
+);
+
+CREATE TABLE IF NOT EXISTS chat_outbox (
+    id bigint NOT NULL,
+    topic varchar(255) NOT NULL,
+    event_key varchar(255),
+    event_type varchar(255) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at timestamp(6) NOT NULL,
+    PRIMARY KEY (id)
+);
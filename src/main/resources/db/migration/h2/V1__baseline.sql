@@ -0,0 +1,24 @@
+-- Schema as previously generated by Hibernate (ddl-auto), H2 in MySQL mode
+
+CREATE TABLE chat_sessions (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    session_id varchar(255) NOT NULL,
+    user_id varchar(255),
+    user_name varchar(255),
+    status enum ('ACTIVE','COMPLETED','EXPIRED','TRANSFERRED'),
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_chat_sessions_session_id UNIQUE (session_id)
+);
+
+CREATE TABLE chat_messages (
+    id bigint NOT NULL,
+    session_id varchar(255) NOT NULL,
+    message_type enum ('OPTIONS','QUICK_REPLY','SYSTEM','TEXT') NOT NULL,
+    content TEXT NOT NULL,
+    sender_type enum ('AGENT','BOT','USER') NOT NULL,
+    timestamp timestamp(6),
+    is_read boolean,
+    PRIMARY KEY (id)
+);
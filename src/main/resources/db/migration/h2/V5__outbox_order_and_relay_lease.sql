@@ -0,0 +1,14 @@
+-- Outbox order and relay leadership (see OutboxRelay and the MySQL migration)
+
+ALTER TABLE chat_outbox ALTER COLUMN created_at SET DEFAULT CURRENT_TIMESTAMP(6);
+
+CREATE INDEX idx_chat_outbox_created ON chat_outbox (created_at, id);
+
+CREATE TABLE chat_outbox_lease (
+    name varchar(64) NOT NULL,
+    owner varchar(64),
+    expires_at timestamp(6),
+    PRIMARY KEY (name)
+);
+
+INSERT INTO chat_outbox_lease (name) VALUES ('relay');
@@ -0,0 +1,15 @@
+-- Read watermarks as (timestamp, id) positions (see the MySQL migration)
+
+ALTER TABLE chat_read_watermarks ADD COLUMN last_read_at timestamp(6);
+
+UPDATE chat_read_watermarks w
+SET last_read_at = (SELECT MAX(m.timestamp) FROM chat_messages m
+                    WHERE m.session_id = w.session_id AND m.sender_type = w.sender_type
+                    AND m.id <= w.last_read_message_id);
+
+DELETE FROM chat_read_watermarks WHERE last_read_at IS NULL;
+
+ALTER TABLE chat_read_watermarks ALTER COLUMN last_read_at SET NOT NULL;
+
+DROP INDEX idx_chat_messages_session_sender;
+CREATE INDEX idx_chat_messages_session_sender ON chat_messages (session_id, sender_type, timestamp, id);
@@ -0,0 +1,3 @@
+-- Databases created by ddl-auto before EXPIRED existed; a no-op on a fresh baseline
+ALTER TABLE chat_sessions
+    MODIFY status enum ('ACTIVE','COMPLETED','EXPIRED','TRANSFERRED');
@@ -0,0 +1,16 @@
+-- chat_messages ids come from the pooled chat_messages_seq (allocationSize 50) instead of
+-- AUTO_INCREMENT. Databases baselined at V1 already have messages, so the sequence has
+-- to start above their ids. The pooled optimizer hands out the 50 ids up to and
+-- including the value it reads, hence MAX(id) + 50.
+-- Instances still inserting with AUTO_INCREMENT would collide with these ids: stop them
+-- before the first instance with this migration starts.
+
+CREATE TABLE IF NOT EXISTS chat_messages_seq (
+    next_val bigint
+) ENGINE=InnoDB;
+
+INSERT INTO chat_messages_seq (next_val)
+SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT 1 FROM chat_messages_seq);
+
+UPDATE chat_messages_seq
+SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(id), 0) + 50 FROM chat_messages));
@@ -0,0 +1,30 @@
+-- Tables added after the V1 baseline. Databases baselined at V1 get them here; IF NOT
+-- EXISTS keeps this safe on databases where ddl-auto already created them.
+
+-- MySQL has no sequences; Hibernate emulates the pooled generator with a table
+CREATE TABLE IF NOT EXISTS chat_outbox_seq (
+    next_val bigint
+) ENGINE=InnoDB;
+
+INSERT INTO chat_outbox_seq (next_val)
+SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT 1 FROM chat_outbox_seq);
+
+CREATE TABLE IF NOT EXISTS chat_read_watermarks (
+    id bigint NOT NULL AUTO_INCREMENT,
+    session_id varchar(255) NOT NULL,
+    sender_type enum ('AGENT','BOT','USER') NOT NULL,
+    last_read_message_id bigint NOT NULL,
+    updated_at datetime(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_chat_read_watermarks_session_sender UNIQUE (session_id, sender_type)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS chat_outbox (
+    id bigint NOT NULL,
+    topic varchar(255) NOT NULL,
+    event_key varchar(255),
+    event_type varchar(255) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at datetime(6) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
@@ -0,0 +1,25 @@
+-- Schema as previously generated by Hibernate (ddl-auto). Existing databases are
+-- baselined at this version (spring.flyway.baseline-on-migrate) and skip it.
+
+CREATE TABLE chat_sessions (
+    id bigint NOT NULL AUTO_INCREMENT,
+    session_id varchar(255) NOT NULL,
+    user_id varchar(255),
+    user_name varchar(255),
+    status enum ('ACTIVE','COMPLETED','EXPIRED','TRANSFERRED'),
+    created_at datetime(6),
+    updated_at datetime(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_chat_sessions_session_id UNIQUE (session_id)
+) ENGINE=InnoDB;
+
+CREATE TABLE chat_messages (
+    id bigint NOT NULL,
+    session_id varchar(255) NOT NULL,
+    message_type enum ('OPTIONS','QUICK_REPLY','SYSTEM','TEXT') NOT NULL,
+    content TEXT NOT NULL,
+    sender_type enum ('AGENT','BOT','USER') NOT NULL,
+    timestamp datetime(6),
+    is_read bit,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
@@ -0,0 +1,19 @@
+-- Monthly range partitions on chat_messages.timestamp, so a whole month of messages can
+-- be removed with DROP PARTITION instead of a long DELETE. Partition pYYYYMM holds the
+-- rows before the first day of the following month; p202610 also takes everything
+-- older. ChatMessagePartitionMaintenance splits new months off pmax ahead of time and
+-- drops partitions past the retention period.
+
+-- The partitioning column must be NOT NULL and part of every unique key
+UPDATE chat_messages SET timestamp = CURRENT_TIMESTAMP(6) WHERE timestamp IS NULL;
+
+ALTER TABLE chat_messages
+    MODIFY timestamp datetime(6) NOT NULL,
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, timestamp);
+
+ALTER TABLE chat_messages
+    PARTITION BY RANGE COLUMNS (timestamp) (
+        PARTITION p202610 VALUES LESS THAN ('2026-11-01 00:00:00'),
+        PARTITION pmax VALUES LESS THAN (MAXVALUE)
+    );
@@ -0,0 +1,19 @@
+-- Outbox order and relay leadership (see OutboxRelay)
+
+-- Pooled ids are allocated in blocks per instance and do not follow commit order across
+-- instances. The database clock does: a transaction that starts after another committed
+-- inserts its events at a later time. The relay publishes in (created_at, id) order.
+ALTER TABLE chat_outbox MODIFY created_at datetime(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6);
+
+CREATE INDEX idx_chat_outbox_created ON chat_outbox (created_at, id);
+
+-- Only the instance holding the lease publishes, so events of one key are sent by one
+-- producer in order
+CREATE TABLE chat_outbox_lease (
+    name varchar(64) NOT NULL,
+    owner varchar(64),
+    expires_at datetime(6),
+    PRIMARY KEY (name)
+) ENGINE=InnoDB;
+
+INSERT INTO chat_outbox_lease (name) VALUES ('relay');
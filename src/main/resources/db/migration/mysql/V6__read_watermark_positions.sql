@@ -0,0 +1,21 @@
+-- Read watermarks as (timestamp, id) positions in history order (see ReadWatermarks).
+-- Pooled ids are allocated in blocks per instance, so a message stored after a mark-read
+-- can have a lower id than the watermark; an id alone cannot tell whether it was read.
+
+ALTER TABLE chat_read_watermarks ADD COLUMN last_read_at datetime(6);
+
+-- Existing watermarks were derived from identity ids or set shortly after; the newest
+-- message they cover gives the position
+UPDATE chat_read_watermarks w
+SET last_read_at = (SELECT MAX(m.timestamp) FROM chat_messages m
+                    WHERE m.session_id = w.session_id AND m.sender_type = w.sender_type
+                    AND m.id <= w.last_read_message_id);
+
+DELETE FROM chat_read_watermarks WHERE last_read_at IS NULL;
+
+ALTER TABLE chat_read_watermarks MODIFY last_read_at datetime(6) NOT NULL;
+
+-- Unread counts and the latest read position (countUnreadUserMessages, findLatestPosition):
+--   WHERE session_id = ? AND sender_type = ? AND (timestamp, id) <= / ORDER BY timestamp DESC, id DESC
+DROP INDEX idx_chat_messages_session_sender ON chat_messages;
+CREATE INDEX idx_chat_messages_session_sender ON chat_messages (session_id, sender_type, timestamp, id);
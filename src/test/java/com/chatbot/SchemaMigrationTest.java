@@ -0,0 +1,81 @@
+package com.chatbot;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the Flyway migrations against the embedded database; Hibernate validates the
+ * entities against the result.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class SchemaMigrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void createsHotPathIndexes() {
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT INDEX_NAME FROM INFORMATION_SCHEMA.INDEXES WHERE TABLE_NAME IN ('CHAT_MESSAGES', 'CHAT_SESSIONS')",
+                String.class))
+                .contains("IDX_CHAT_MESSAGES_SESSION_TIME", "IDX_CHAT_MESSAGES_SESSION_SENDER",
+                        "IDX_CHAT_SESSIONS_STATUS", "IDX_CHAT_SESSIONS_USER");
+    }
+
+    @Test
+    void historyQueryUsesSessionIndex() {
+        String plan = jdbcTemplate.queryForObject(
+                "EXPLAIN SELECT id FROM chat_messages WHERE session_id = 's' ORDER BY timestamp, id", String.class);
+        assertThat(plan).containsIgnoringCase("IDX_CHAT_MESSAGES_SESSION_TIME");
+    }
+
+    @Test
+    void migratesDatabaseCreatedBeforeFlyway() {
+        // A database created by ddl-auto before Flyway: sessions and messages only
+        DriverManagerDataSource legacy = new DriverManagerDataSource(
+                "jdbc:h2:mem:legacy;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(legacy);
+        jdbc.execute("CREATE TABLE chat_sessions (id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+                "session_id varchar(255) NOT NULL UNIQUE, user_id varchar(255), user_name varchar(255), " +
+                "status enum ('ACTIVE','COMPLETED','TRANSFERRED'), created_at timestamp(6), updated_at timestamp(6))");
+        jdbc.execute("CREATE TABLE chat_messages (id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+                "session_id varchar(255) NOT NULL, message_type enum ('OPTIONS','QUICK_REPLY','SYSTEM','TEXT') NOT NULL, " +
+                "content TEXT NOT NULL, sender_type enum ('AGENT','BOT','USER') NOT NULL, timestamp timestamp(6), " +
+                "is_read boolean)");
+        jdbc.update("INSERT INTO chat_messages (session_id, message_type, content, sender_type, timestamp, is_read) " +
+                "VALUES ('s1', 'TEXT', 'a', 'USER', TIMESTAMP '2025-01-01 10:00:00', TRUE), " +
+                "('s1', 'TEXT', 'b', 'USER', TIMESTAMP '2025-01-01 10:00:01', TRUE), " +
+                "('s1', 'TEXT', 'c', 'USER', TIMESTAMP '2025-01-01 10:00:02', FALSE), " +
+                "('s1', 'TEXT', 'd', 'USER', TIMESTAMP '2025-01-01 10:00:03', TRUE), " +
+                "('s2', 'TEXT', 'e', 'USER', TIMESTAMP '2025-01-01 10:00:04', FALSE)");
+
+        Flyway.configure()
+                .dataSource(legacy)
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+
+        assertThat(jdbc.queryForList("SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES", String.class))
+                .contains("CHAT_READ_WATERMARKS", "CHAT_OUTBOX", "CHAT_OUTBOX_LEASE", "CHAT_TRANSCRIPT_ARCHIVE");
+        assertThat(jdbc.queryForList("SELECT SEQUENCE_NAME FROM INFORMATION_SCHEMA.SEQUENCES", String.class))
+                .contains("CHAT_MESSAGES_SEQ", "CHAT_OUTBOX_SEQ");
+        // Read up to the first unread message; nothing read, no watermark
+        assertThat(jdbc.queryForList("SELECT session_id || ':' || last_read_message_id FROM chat_read_watermarks",
+                String.class)).containsExactly("s1:2");
+        // Positioned on that message's timestamp
+        assertThat(jdbc.queryForObject("SELECT last_read_at FROM chat_read_watermarks", LocalDateTime.class))
+                .isEqualTo(LocalDateTime.of(2025, 1, 1, 10, 0, 1));
+    }
+}
@@ -0,0 +1,204 @@
+package com.chatbot.repository;
+
+import com.chatbot.config.MessageStoreProperties;
+import com.chatbot.dto.ChatMessageDTO;
+import com.chatbot.dto.HistoryCursor;
+import com.chatbot.dto.HistoryVersion;
+import com.chatbot.entity.ChatMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogMessageStoreTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 10, 1, 12, 0);
+
+    @TempDir
+    Path directory;
+
+    private final List<LogMessageStore> opened = new ArrayList<>();
+
+    @AfterEach
+    void close() throws IOException {
+        for (LogMessageStore store : opened) {
+            store.destroy();
+        }
+    }
+
+    @Test
+    void pagesInTimestampOrder() {
+        LogMessageStore store = open();
+        for (int i = 0; i < 10; i++) {
+            store.save(message("s1", "m" + i, T0.plusSeconds(i)));
+        }
+        store.save(message("s2", "other", T0));
+        // Out-of-order timestamp is placed by time, not by id
+        store.save(message("s1", "late", T0.plusNanos(500_000_000)));
+
+        List<String> all = contents(store.findHistory("s1"));
+        assertEquals(List.of("m0", "late", "m1", "m2", "m3", "m4", "m5", "m6", "m7", "m8", "m9"), all);
+
+        List<ChatMessageDTO> latest = store.findHistoryLatest("s1", 3);
+        assertEquals(List.of("m9", "m8", "m7"), contents(latest));
+        ChatMessageDTO oldest = latest.get(2);
+        assertEquals(List.of("m6", "m5"), contents(
+                store.findHistoryBefore("s1", oldest.getTimestamp(), oldest.getId(), 2)));
+        assertEquals(List.of("m8", "m9"), contents(
+                store.findHistoryAfter("s1", oldest.getTimestamp(), oldest.getId(), 5)));
+        assertEquals(List.of("m0", "late"), contents(store.findHistoryFirst("s1", 2)));
+
+        // Not the late message, although it has the highest id
+        assertEquals(new HistoryCursor(T0.plusSeconds(9), 10), store.findLatestPosition("s1", ChatMessage.SenderType.USER));
+        assertNull(store.findLatestPosition("s1", ChatMessage.SenderType.BOT));
+        assertTrue(store.findHistory("missing").isEmpty());
+
+        assertEquals(new HistoryVersion(12L, 11), store.findHistoryVersion("s1"));
+        assertEquals(new HistoryVersion(null, 0), store.findHistoryVersion("missing"));
+    }
+
+    @Test
+    void recoversIndexFromSegmentsAfterRestart() throws IOException {
+        LogMessageStore store = open();
+        for (int i = 0; i < 200; i++) {
+            store.save(message("s" + (i % 3), "message " + i, T0.plusSeconds(i)));
+        }
+        List<ChatMessageDTO> before = store.findHistory("s1");
+        store.destroy();
+        try (Stream<Path> files = Files.list(directory)) {
+            assertTrue(files.count() > 1, "expected the log to roll over");
+        }
+
+        LogMessageStore reopened = open();
+        assertEquals(before, reopened.findHistory("s1"));
+        ChatMessage next = reopened.save(message("s1", "after restart", T0.plusDays(1)));
+        assertEquals(201L, next.getId());
+    }
+
+    @Test
+    void discardsTornTailOnRecovery() throws IOException {
+        LogMessageStore store = open();
+        store.save(message("s1", "kept", T0));
+        store.save(message("s1", "torn-tail-marker", T0.plusSeconds(1)));
+        store.destroy();
+
+        corrupt("torn-tail-marker");
+
+        LogMessageStore reopened = open();
+        assertEquals(List.of("kept"), contents(reopened.findHistory("s1")));
+        reopened.save(message("s1", "appended", T0.plusSeconds(2)));
+        reopened.destroy();
+
+        assertEquals(List.of("kept", "appended"), contents(open().findHistory("s1")));
+    }
+
+    @Test
+    void rolledBackMessagesStayHiddenAfterRestart() throws IOException {
+        LogMessageStore store = open();
+        store.save(message("s1", "committed", T0));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            store.save(message("s1", "rolled back", T0.plusSeconds(1)));
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+            // The database commit fails after the append
+            synchronizations.forEach(synchronization ->
+                    synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(List.of("committed"), contents(store.findHistory("s1")));
+        store.destroy();
+
+        LogMessageStore reopened = open();
+        assertEquals(List.of("committed"), contents(reopened.findHistory("s1")));
+        assertEquals(new HistoryVersion(1L, 1), reopened.findHistoryVersion("s1"));
+    }
+
+    @Test
+    void deletesSegmentsPastRetention() throws IOException {
+        LogMessageStore store = open();
+        LocalDateTime old = LocalDateTime.now().minusDays(2);
+        for (int i = 0; i < 100; i++) {
+            store.save(message("old", "message " + i, old.plusSeconds(i)));
+        }
+        // Too large for the rest of the segment holding the last old messages
+        store.save(message("recent", "x".repeat(3000), LocalDateTime.now()));
+        long before;
+        try (Stream<Path> files = Files.list(directory)) {
+            before = files.count();
+        }
+
+        store.enforceRetention();
+
+        assertTrue(store.findHistory("old").isEmpty());
+        assertEquals(new HistoryVersion(null, 0), store.findHistoryVersion("old"));
+        assertEquals(1, store.findHistory("recent").size());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertTrue(files.count() < before);
+        }
+    }
+
+    private LogMessageStore open() {
+        MessageStoreProperties properties = new MessageStoreProperties();
+        properties.setType(MessageStoreProperties.Type.LOG);
+        properties.getLog().setDirectory(directory.toString());
+        properties.getLog().setSegmentSize(DataSize.ofKilobytes(4));
+        properties.getLog().setFsync(MessageStoreProperties.Fsync.ALWAYS);
+        properties.getLog().setRetention(Duration.ofDays(1));
+        LogMessageStore store = new LogMessageStore(properties);
+        opened.add(store);
+        return store;
+    }
+
+    // Flips a byte of the record holding the content, as a crash in mid-write would leave it
+    private void corrupt(String content) throws IOException {
+        byte[] needle = content.getBytes(StandardCharsets.UTF_8);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                byte[] data = Files.readAllBytes(file);
+                for (int i = 0; i + needle.length <= data.length; i++) {
+                    if (Arrays.equals(data, i, i + needle.length, needle, 0, needle.length)) {
+                        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                            channel.write(ByteBuffer.wrap(new byte[]{(byte) ~data[i]}), i);
+                        }
+                        return;
+                    }
+                }
+            }
+        }
+        fail("content not found in the log: " + content);
+    }
+
+    private static ChatMessage message(String sessionId, String content, LocalDateTime timestamp) {
+        return ChatMessage.builder()
+                .sessionId(sessionId)
+                .content(content)
+                .senderType(ChatMessage.SenderType.USER)
+                .messageType(ChatMessage.MessageType.TEXT)
+                .timestamp(timestamp)
+                .build();
+    }
+
+    private static List<String> contents(List<ChatMessageDTO> messages) {
+        return messages.stream().map(ChatMessageDTO::getContent).toList();
+    }
+}
@@ -0,0 +1,73 @@
+package com.chatbot.repository;
+
+import com.chatbot.entity.OutboxEvent;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class OutboxEventRepositoryTest {
+
+    private static final long MINUTE_MICROS = 60_000_000L;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void leaseHasOneOwnerAtATime() {
+        assertThat(outboxEventRepository.acquireLease("relay", "a", MINUTE_MICROS)).isEqualTo(1);
+        assertThat(outboxEventRepository.acquireLease("relay", "b", MINUTE_MICROS)).isZero();
+        // The owner renews
+        assertThat(outboxEventRepository.acquireLease("relay", "a", MINUTE_MICROS)).isEqualTo(1);
+
+        assertThat(outboxEventRepository.releaseLease("relay", "b")).isZero();
+        assertThat(outboxEventRepository.releaseLease("relay", "a")).isEqualTo(1);
+        assertThat(outboxEventRepository.acquireLease("relay", "b", MINUTE_MICROS)).isEqualTo(1);
+    }
+
+    @Test
+    void databaseStampsEventsInInsertOrder() {
+        outboxEventRepository.save(event("first"));
+        outboxEventRepository.save(event("second"));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<OutboxEvent> batch = outboxEventRepository.findNextBatch(Limit.of(10));
+
+        assertThat(batch).extracting(OutboxEvent::getEventKey).containsExactly("first", "second");
+        assertThat(batch).allSatisfy(event -> assertThat(event.getCreatedAt()).isNotNull());
+    }
+
+    @Test
+    void agesEventsByTheDatabaseClock() {
+        outboxEventRepository.save(event("aged"));
+        entityManager.flush();
+        entityManager.clear();
+
+        OutboxEvent event = outboxEventRepository.findNextBatch(Limit.of(1)).get(0);
+
+        assertThat(outboxEventRepository.microsSince(event.getCreatedAt())).isBetween(0L, MINUTE_MICROS);
+        assertThat(outboxEventRepository.microsSince(event.getCreatedAt().minusMinutes(1)))
+                .isBetween(MINUTE_MICROS, 2 * MINUTE_MICROS);
+    }
+
+    private static OutboxEvent event(String key) {
+        return OutboxEvent.builder()
+                .topic("chat-sessions")
+                .eventKey(key)
+                .eventType("com.chatbot.dto.SessionEvent")
+                .payload("{}")
+                .build();
+    }
+}
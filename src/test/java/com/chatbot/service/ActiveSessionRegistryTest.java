@@ -0,0 +1,86 @@
+package com.chatbot.service;
+
+import com.chatbot.dto.ActiveSessionPage;
+import com.chatbot.dto.ActiveSessionSummary;
+import com.chatbot.dto.SessionSnapshot;
+import com.chatbot.entity.ChatSession;
+import com.chatbot.repository.ChatSessionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ActiveSessionRegistryTest {
+
+    private final ChatSessionRepository repository = mock(ChatSessionRepository.class);
+    private final ActiveSessionRegistry registry = new ActiveSessionRegistry(repository);
+
+    @Test
+    void pagesActiveSessionsInIdOrder() {
+        registry.rebuild();
+        for (long id = 1; id <= 5; id++) {
+            registry.update(session(id, id % 2 == 0 ? "alice" : "bob", ChatSession.ChatStatus.ACTIVE));
+        }
+        registry.update(session(3, "bob", ChatSession.ChatStatus.COMPLETED));
+
+        ActiveSessionPage first = registry.getPage(null, null, 2);
+        assertThat(first.getSessions()).extracting(ActiveSessionSummary::getId).containsExactly(1L, 2L);
+        assertThat(first.isHasMore()).isTrue();
+        assertThat(first.getTotal()).isEqualTo(4);
+
+        ActiveSessionPage second = registry.getPage(null, first.getNextCursor(), 2);
+        assertThat(second.getSessions()).extracting(ActiveSessionSummary::getId).containsExactly(4L, 5L);
+        assertThat(second.isHasMore()).isFalse();
+        assertThat(second.getNextCursor()).isNull();
+
+        ActiveSessionPage bob = registry.getPage("bob", null, 10);
+        assertThat(bob.getSessions()).extracting(ActiveSessionSummary::getId).containsExactly(1L, 5L);
+        assertThat(bob.getTotal()).isEqualTo(2);
+        assertThat(registry.getPage("carol", null, 10).getSessions()).isEmpty();
+    }
+
+    @Test
+    void rebuildSkipsSessionsClosedWhileLoading() {
+        when(repository.findSummaries(eq(ChatSession.ChatStatus.ACTIVE), anyLong(), any(Limit.class)))
+                .thenReturn(List.of(summary(1, "alice"), summary(2, "alice")));
+        registry.update(session(2, "alice", ChatSession.ChatStatus.COMPLETED));
+
+        registry.rebuild();
+
+        assertThat(registry.isReady()).isTrue();
+        assertThat(registry.count()).isEqualTo(1);
+        assertThat(registry.getPage("alice", null, 10).getSessions())
+                .extracting(ActiveSessionSummary::getId).containsExactly(1L);
+    }
+
+    @Test
+    void readsFromDatabaseUntilLoaded() {
+        when(repository.findSummariesByUser(eq(ChatSession.ChatStatus.ACTIVE), eq("alice"), eq(0L), any(Limit.class)))
+                .thenReturn(List.of(summary(7, "alice")));
+
+        ActiveSessionPage page = registry.getPage("alice", null, 10);
+
+        assertThat(page.getSessions()).extracting(ActiveSessionSummary::getId).containsExactly(7L);
+        assertThat(page.getTotal()).isNull();
+        assertThatThrownBy(() -> registry.getPage(null, "not-a-cursor", 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static SessionSnapshot session(long id, String userId, ChatSession.ChatStatus status) {
+        return SessionSnapshot.of(ChatSession.builder().id(id).sessionId("s-" + id).userId(userId).status(status)
+                .createdAt(LocalDateTime.now()).build());
+    }
+
+    private static ActiveSessionSummary summary(long id, String userId) {
+        return new ActiveSessionSummary(id, "s-" + id, userId, null, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,102 @@
+package com.chatbot.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AimdConcurrencyLimiterTest {
+
+    private static final long THRESHOLD = 100;
+
+    private final AtomicLong clock = new AtomicLong(1_000);
+
+    @Test
+    void rejectsOverLimit() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(2, 1, 10, 0.5, THRESHOLD, clock::get);
+        OptionalLong first = limiter.tryAcquire();
+        assertTrue(first.isPresent());
+        assertTrue(limiter.tryAcquire().isPresent());
+        assertTrue(limiter.tryAcquire().isEmpty());
+
+        limiter.release(first.getAsLong(), true);
+        assertTrue(limiter.tryAcquire().isPresent());
+        limiter.cancel();
+        assertEquals(1, limiter.getInFlight());
+    }
+
+    @Test
+    void admitsWhenTheClockIsNegative() {
+        clock.set(-5_000);
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(1, 1, 10, 0.5, THRESHOLD, clock::get);
+        OptionalLong start = limiter.tryAcquire();
+        assertEquals(OptionalLong.of(-5_000), start);
+        limiter.release(start.getAsLong(), true);
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void backsOffOnSlowRequestsOncePerRound() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(8, 2, 16, 0.5, THRESHOLD, clock::get);
+        clock.incrementAndGet();
+        long[] starts = new long[4];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = limiter.tryAcquire().getAsLong();
+        }
+        clock.addAndGet(THRESHOLD * 2);
+        for (long start : starts) {
+            limiter.release(start, true);
+        }
+        // All four were in flight together: one back-off, not four
+        assertEquals(4, limiter.getLimit());
+
+        clock.incrementAndGet();
+        limiter.release(limiter.tryAcquire().getAsLong(), false);
+        assertEquals(2, limiter.getLimit());
+        clock.incrementAndGet();
+        limiter.release(limiter.tryAcquire().getAsLong(), false);
+        assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    void growsWhileFastAndUsed() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(4, 1, 5, 0.5, THRESHOLD, clock::get);
+        for (int round = 0; round < 20; round++) {
+            int limit = limiter.getLimit();
+            long[] starts = new long[limit];
+            for (int i = 0; i < limit; i++) {
+                starts[i] = limiter.tryAcquire().getAsLong();
+            }
+            clock.addAndGet(THRESHOLD / 2);
+            for (long start : starts) {
+                limiter.release(start, true);
+            }
+        }
+        assertEquals(5, limiter.getLimit());
+
+        // Sequential traffic does not use the limit, so it does not grow it
+        AimdConcurrencyLimiter idle = new AimdConcurrencyLimiter(4, 1, 100, 0.5, THRESHOLD, clock::get);
+        for (int i = 0; i < 100; i++) {
+            idle.release(idle.tryAcquire().getAsLong(), true);
+        }
+        assertEquals(4, idle.getLimit());
+    }
+
+    @Test
+    void judgesBatchLatencyPerUnit() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(8, 2, 16, 0.5, THRESHOLD, clock::get);
+        clock.incrementAndGet();
+        long start = limiter.tryAcquire().getAsLong();
+        clock.addAndGet(THRESHOLD * 5);
+        // Ten messages in five thresholds is fast per message
+        limiter.release(start, true, 10);
+        assertEquals(8, limiter.getLimit());
+
+        start = limiter.tryAcquire().getAsLong();
+        clock.addAndGet(THRESHOLD * 5);
+        limiter.release(start, true, 2);
+        assertEquals(4, limiter.getLimit());
+    }
+}
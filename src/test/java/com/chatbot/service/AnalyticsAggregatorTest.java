@@ -0,0 +1,71 @@
+package com.chatbot.service;
+
+import com.chatbot.config.AnalyticsProperties;
+import com.chatbot.dto.AnalyticsWindow;
+import com.chatbot.dto.ChatAnalyticsEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnalyticsAggregatorTest {
+
+    // Aligned to a full hour so tumbling windows are easy to reason about
+    private final AtomicLong now = new AtomicLong(1_700_002_800_000L);
+
+    @Test
+    void slidingWindowForgetsOldBuckets() {
+        WindowCounter counter = new WindowCounter(1_000, 60, now.get());
+        counter.increment(now.get(), now.get());
+        counter.increment(now.get() - 30_000, now.get());
+
+        assertThat(counter.sliding(now.get())).isEqualTo(2);
+        assertThat(counter.sliding(now.get() + 45_000)).isEqualTo(1);
+        counter.clearAhead(now.get() + 200_000);
+        assertThat(counter.sliding(now.get() + 200_000)).isZero();
+        assertThat(counter.increment(now.get(), now.get() + 200_000)).isFalse();
+    }
+
+    @Test
+    void tumblingWindowReportsLastCompleteWindow() {
+        WindowCounter counter = new WindowCounter(1_000, 60, now.get());
+        counter.increment(now.get() + 5_000, now.get() + 5_000);
+        counter.increment(now.get() + 59_000, now.get() + 59_000);
+
+        assertThat(counter.tumbling(now.get() + 59_000)).isZero();
+        assertThat(counter.tumbling(now.get() + 61_000)).isEqualTo(2);
+    }
+
+    @Test
+    void countsPerDimensionAndSkipsRedeliveredOffsets() {
+        AnalyticsProperties properties = new AnalyticsProperties();
+        properties.setMaxKeysPerDimension(2);
+        AnalyticsAggregator aggregator = new AnalyticsAggregator(properties, now::get);
+
+        List<ConsumerRecord<String, ChatAnalyticsEvent>> batch = List.of(
+                record(0, "pricing"), record(1, "pricing"), record(2, "support"), record(3, "contact"));
+        aggregator.accept(batch);
+        aggregator.accept(batch);
+        aggregator.refresh();
+
+        AnalyticsWindow minute = aggregator.getSnapshot().getWindows().get(0);
+        assertThat(minute.getWindow()).isEqualTo("1m");
+        assertThat(minute.getType()).isEqualTo("SLIDING");
+        assertThat(minute.getTotal()).isEqualTo(4);
+        assertThat(minute.getByIntent()).containsEntry("pricing", 2L).containsEntry("support", 1L)
+                .containsEntry("other", 1L);
+        assertThat(minute.getBySegment()).containsEntry("registered", 4L);
+    }
+
+    private ConsumerRecord<String, ChatAnalyticsEvent> record(long offset, String intent) {
+        ChatAnalyticsEvent event = new ChatAnalyticsEvent();
+        event.setSessionId("session-" + offset);
+        event.setEventType("MESSAGE_SENT");
+        event.setIntent(intent);
+        event.setSegment("registered");
+        return new ConsumerRecord<>("chat-analytics", 0, offset, event.getSessionId(), event);
+    }
+}
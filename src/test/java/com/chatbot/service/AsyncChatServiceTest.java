@@ -0,0 +1,72 @@
+package com.chatbot.service;
+
+import com.chatbot.config.AsyncChatProperties;
+import com.chatbot.config.SessionExecutorProperties;
+import com.chatbot.dto.ChatRequest;
+import com.chatbot.dto.ChatResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class AsyncChatServiceTest {
+
+    private final ChatBotService chatBotService = mock(ChatBotService.class);
+    private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void timeoutCancelsExchangesThatHaveNotStarted() throws Exception {
+        AsyncChatProperties properties = new AsyncChatProperties();
+        properties.getDb().setTimeout(Duration.ofMillis(200));
+        executor.setCorePoolSize(1);
+        executor.initialize();
+        AsyncChatService service = new AsyncChatService(chatBotService,
+                new SessionSerialExecutor(new SessionExecutorProperties(), new SimpleMeterRegistry()),
+                executor, properties);
+
+        CountDownLatch release = new CountDownLatch(1);
+        when(chatBotService.exchange(argThat(request -> request.getMessage().equals("slow")), any()))
+                .thenAnswer(invocation -> {
+                    release.await(5, TimeUnit.SECONDS);
+                    return new ChatResponse();
+                });
+
+        CompletableFuture<ChatResponse> slow = service.processMessage(request("slow"));
+        CompletableFuture<ChatResponse> queued = service.processMessage(request("queued"));
+
+        // The first one is running and will commit; the one behind it never started
+        assertThatThrownBy(slow::get).isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(ExchangeInProgressException.class);
+        assertThatThrownBy(queued::get).isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(TimeoutException.class);
+        release.countDown();
+        executor.getThreadPoolExecutor().shutdown();
+        assertThat(executor.getThreadPoolExecutor().awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        verify(chatBotService, times(1)).exchange(any(), any());
+    }
+
+    private static ChatRequest request(String message) {
+        ChatRequest request = new ChatRequest();
+        request.setSessionId("s1");
+        request.setMessage(message);
+        return request;
+    }
+}
@@ -0,0 +1,126 @@
+package com.chatbot.service;
+
+import com.chatbot.config.AdmissionProperties;
+import com.chatbot.config.ChatBatchProperties;
+import com.chatbot.config.SessionExecutorProperties;
+import com.chatbot.dto.ChatBatchResponse;
+import com.chatbot.dto.ChatBatchResult;
+import com.chatbot.dto.ChatRequest;
+import com.chatbot.dto.ChatResponse;
+import com.chatbot.dto.SessionSnapshot;
+import com.chatbot.entity.ChatSession;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ChatBatchServiceTest {
+
+    private final ChatBotService chatBotService = mock(ChatBotService.class);
+    private final SessionCache sessionCache = mock(SessionCache.class);
+    private final AdmissionProperties admission = new AdmissionProperties();
+    private final ChatBatchProperties properties = new ChatBatchProperties();
+
+    @Test
+    void groupsBySessionAndReportsEachItem() {
+        when(sessionCache.findAllBySessionId(any())).thenReturn(Map.of("s1", SessionSnapshot.of(new ChatSession())));
+        when(chatBotService.exchangeAll(anyList(), anyList(), anyBoolean())).thenAnswer(invocation -> {
+            List<ChatRequest> requests = invocation.getArgument(0);
+            return requests.stream().map(request -> response(request.getMessage())).toList();
+        });
+
+        ChatBatchResponse response = service().processBatch(Arrays.asList(
+                request("s1", "a"), request("s2", "b"), request("s1", "c"), request("s3", " "), null));
+
+        // One lookup for all sessions, one group per session with its messages in order
+        verify(sessionCache).findAllBySessionId(Set.of("s1", "s2"));
+        verify(chatBotService).exchangeAll(argThat(group -> messages(group).equals(List.of("a", "c"))), anyList(), eq(true));
+        verify(chatBotService).exchangeAll(argThat(group -> messages(group).equals(List.of("b"))), anyList(), eq(false));
+
+        assertThat(response.getResults()).extracting(ChatBatchResult::getIndex).containsExactly(0, 1, 2, 3, 4);
+        assertThat(response.getResults()).extracting(ChatBatchResult::getStatus).containsExactly(
+                ChatBatchResult.Status.OK, ChatBatchResult.Status.OK, ChatBatchResult.Status.OK,
+                ChatBatchResult.Status.INVALID, ChatBatchResult.Status.INVALID);
+        assertThat(response.getResults().get(2).getResponse().getBotResponse()).isEqualTo("c");
+        assertThat(response.getSucceeded()).isEqualTo(3);
+        assertThat(response.getFailed()).isEqualTo(2);
+    }
+
+    @Test
+    void failedGroupIsRetriedOneByOne() {
+        when(sessionCache.findAllBySessionId(any())).thenReturn(Map.of());
+        when(chatBotService.exchangeAll(anyList(), anyList(), anyBoolean()))
+                .thenThrow(new IllegalStateException("constraint violation"));
+        when(chatBotService.exchange(any(), any())).thenAnswer(invocation -> {
+            ChatRequest request = invocation.getArgument(0);
+            if (request.getMessage().equals("bad")) {
+                throw new RuntimeException("Failed to process message");
+            }
+            return response("ok");
+        });
+
+        ChatBatchResponse response = service().processBatch(List.of(request("s1", "good"), request("s1", "bad")));
+
+        assertThat(response.getResults()).extracting(ChatBatchResult::getStatus)
+                .containsExactly(ChatBatchResult.Status.OK, ChatBatchResult.Status.FAILED);
+    }
+
+    @Test
+    void rateLimitedItemsAreRejectedIndividually() {
+        admission.getSession().setPerSecond(1);
+        admission.getSession().setBurst(1);
+        when(sessionCache.findAllBySessionId(any())).thenReturn(Map.of());
+        when(chatBotService.exchangeAll(anyList(), anyList(), anyBoolean()))
+                .thenAnswer(invocation -> List.of(response("ok")));
+
+        ChatBatchResponse response = service().processBatch(List.of(request("s1", "first"), request("s1", "second")));
+
+        assertThat(response.getResults()).extracting(ChatBatchResult::getStatus)
+                .containsExactly(ChatBatchResult.Status.OK, ChatBatchResult.Status.REJECTED);
+        assertThat(response.getResults().get(1).getRetryAfterSeconds()).isPositive();
+    }
+
+    @Test
+    void rejectsEmptyAndOversizedBatches() {
+        properties.setMaxItems(1);
+        assertThatThrownBy(() -> service().processBatch(List.of())).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service().processBatch(List.of(request("s1", "a"), request("s1", "b"))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private ChatBatchService service() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        return new ChatBatchService(chatBotService, sessionCache,
+                new SessionSerialExecutor(new SessionExecutorProperties(), registry),
+                new AdmissionControl(admission, registry), properties);
+    }
+
+    private static ChatRequest request(String sessionId, String message) {
+        ChatRequest request = new ChatRequest();
+        request.setSessionId(sessionId);
+        request.setMessage(message);
+        return request;
+    }
+
+    private static ChatResponse response(String text) {
+        ChatResponse response = new ChatResponse();
+        response.setBotResponse(text);
+        return response;
+    }
+
+    private static List<String> messages(List<ChatRequest> requests) {
+        return requests.stream().map(ChatRequest::getMessage).toList();
+    }
+}
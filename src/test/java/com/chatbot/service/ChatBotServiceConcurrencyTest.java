@@ -0,0 +1,92 @@
+package com.chatbot.service;
+
+import com.chatbot.dto.ChatMessageDTO;
+import com.chatbot.dto.ChatRequest;
+import com.chatbot.entity.ChatMessage;
+import com.chatbot.repository.MessageStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Concurrent messages for one new session through the whole persistence path, against
+ * the embedded database.
+ */
+@SpringBootTest
+class ChatBotServiceConcurrencyTest {
+
+    private static final int SENDERS = 8;
+    private static final int MESSAGES_PER_SENDER = 10;
+
+    @Autowired
+    private ChatBotService chatBotService;
+
+    @Autowired
+    private MessageStore messageStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(SENDERS);
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void concurrentFirstMessagesCreateOneSessionAndKeepTheirOrder() throws Exception {
+        String sessionId = "race-" + UUID.randomUUID();
+        CyclicBarrier start = new CyclicBarrier(SENDERS);
+
+        List<Future<?>> senders = new ArrayList<>();
+        for (int s = 0; s < SENDERS; s++) {
+            int sender = s;
+            senders.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < MESSAGES_PER_SENDER; i++) {
+                    ChatRequest request = new ChatRequest();
+                    request.setSessionId(sessionId);
+                    request.setUserId("user-" + sender);
+                    request.setMessage("msg " + sender + "-" + i);
+                    chatBotService.processMessage(request);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> sender : senders) {
+            sender.get(60, TimeUnit.SECONDS);
+        }
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM chat_sessions WHERE session_id = ?",
+                Integer.class, sessionId)).isEqualTo(1);
+
+        List<ChatMessageDTO> history = messageStore.findHistory(sessionId);
+        assertThat(history).hasSize(1 + 2 * SENDERS * MESSAGES_PER_SENDER);
+        // The welcome, then each user message directly followed by its answer
+        assertThat(history.get(0).getSenderType()).isEqualTo(ChatMessage.SenderType.BOT.name());
+        Map<Integer, Integer> next = new HashMap<>();
+        for (int at = 1; at < history.size(); at += 2) {
+            ChatMessageDTO user = history.get(at);
+            assertThat(user.getSenderType()).isEqualTo(ChatMessage.SenderType.USER.name());
+            assertThat(history.get(at + 1).getSenderType()).isEqualTo(ChatMessage.SenderType.BOT.name());
+            // Each sender's messages are stored in the order it sent them
+            String[] position = user.getContent().substring("msg ".length()).split("-");
+            int sender = Integer.parseInt(position[0]);
+            assertThat(Integer.parseInt(position[1])).isEqualTo(next.getOrDefault(sender, 0));
+            next.put(sender, Integer.parseInt(position[1]) + 1);
+        }
+        assertThat(next.values()).hasSize(SENDERS).containsOnly(MESSAGES_PER_SENDER);
+    }
+}
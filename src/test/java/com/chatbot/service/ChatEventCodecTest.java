@@ -0,0 +1,99 @@
+package com.chatbot.service;
+
+import com.chatbot.config.ChatEventDeserializer;
+import com.chatbot.config.ChatEventSerializer;
+import com.chatbot.dto.ChatAnalyticsEvent;
+import com.chatbot.dto.ChatMessageEvent;
+import com.chatbot.dto.ChatSessionEvent;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatEventCodecTest {
+
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_000);
+
+    @Test
+    void roundTripsAllEventTypes() {
+        ChatMessageEvent message = new ChatMessageEvent();
+        message.setSessionId("session-1");
+        message.setMessage("Grüße, how much is the Pro plan? 👋");
+        message.setSenderType("USER");
+        message.setUserId("user-7");
+        message.setTimestamp(TIMESTAMP);
+        message.setMessageType("TEXT");
+
+        ChatSessionEvent session = new ChatSessionEvent();
+        session.setSessionId("session-1");
+        session.setUserName("Asha");
+        session.setStatus("ESCALATED"); // not in the code table, travels as a string
+        session.setCreatedAt(TIMESTAMP);
+        session.setUpdatedAt(TIMESTAMP.plusMinutes(3));
+
+        ChatAnalyticsEvent analytics = new ChatAnalyticsEvent();
+        analytics.setSessionId("session-1");
+        analytics.setEventType("MESSAGE_SENT");
+        analytics.setMessageType("TEXT");
+        analytics.setTimestamp(TIMESTAMP);
+        analytics.setMessageCount(3);
+        analytics.setIntent("pricing");
+        analytics.setSegment("registered");
+
+        for (Object event : new Object[]{message, session, analytics}) {
+            byte[] encoded = ChatEventCodec.encode(event);
+            assertThat(ChatEventCodec.isBinary(encoded)).isTrue();
+            assertThat(ChatEventCodec.decode(encoded)).isEqualTo(event);
+        }
+    }
+
+    @Test
+    void skipsFieldsAddedByNewerVersions() {
+        ChatAnalyticsEvent analytics = new ChatAnalyticsEvent();
+        analytics.setSessionId("session-1");
+        analytics.setIntent("support");
+        byte[] encoded = ChatEventCodec.encode(analytics);
+
+        // Append field 30 as a string and field 31 as a varint
+        byte[] extended = Arrays.copyOf(encoded, encoded.length + 6);
+        int pos = encoded.length;
+        extended[pos++] = (byte) ((30 << 1) | 1);
+        extended[pos++] = 2;
+        extended[pos++] = 'o';
+        extended[pos++] = 'k';
+        extended[pos++] = (byte) (31 << 1);
+        extended[pos] = 42;
+
+        assertThat(ChatEventCodec.decode(extended)).isEqualTo(analytics);
+    }
+
+    @Test
+    void deserializerReadsBinaryAndJson() {
+        ChatSessionEvent session = new ChatSessionEvent();
+        session.setSessionId("session-2");
+        session.setStatus("ACTIVE");
+
+        RecordHeaders headers = new RecordHeaders();
+        byte[] json;
+        try (JsonSerializer<Object> serializer = new JsonSerializer<>()) {
+            json = serializer.serialize("chat-sessions", headers, session);
+        }
+        byte[] binary;
+        try (ChatEventSerializer serializer = new ChatEventSerializer()) {
+            binary = serializer.serialize("chat-sessions", session);
+        }
+        assertThat(binary.length).isLessThan(json.length);
+
+        try (ChatEventDeserializer deserializer = new ChatEventDeserializer()) {
+            deserializer.configure(Map.of(JsonDeserializer.TRUSTED_PACKAGES, "com.chatbot.dto"), false);
+            assertThat(deserializer.deserialize("chat-sessions", headers, json)).isEqualTo(session);
+            assertThat(deserializer.deserialize("chat-sessions", new RecordHeaders(), binary)).isEqualTo(session);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.chatbot.service;
+
+import com.chatbot.dto.ChatHistoryPage;
+import com.chatbot.dto.ChatMessageDTO;
+import com.chatbot.dto.HistoryCursor;
+import com.chatbot.repository.MessageStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ChatHistoryServiceTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 10, 1, 12, 0);
+
+    private final MessageStore messageStore = mock(MessageStore.class);
+    private final ReadWatermarkService readWatermarkService = mock(ReadWatermarkService.class);
+    private final TranscriptArchiveService transcriptArchiveService = mock(TranscriptArchiveService.class);
+    private final ChatHistoryService service = new ChatHistoryService(messageStore, mock(SessionCache.class),
+            readWatermarkService, new ObjectMapper(), transcriptArchiveService);
+
+    @Test
+    void afterPageFromTheStartHasNothingOlder() {
+        when(transcriptArchiveService.findTranscript("s1")).thenReturn(Optional.empty());
+        when(readWatermarkService.getWatermarks("s1")).thenReturn(new ReadWatermarks(List.of()));
+        ChatMessageDTO first = message(1, T0);
+        when(messageStore.findHistoryAfter(eq("s1"), any(), anyLong(), anyInt()))
+                .thenReturn(new ArrayList<>(List.of(first, message(2, T0.plusSeconds(1)))));
+        when(messageStore.findHistoryBefore("s1", T0, 1, 1)).thenReturn(new ArrayList<>());
+
+        ChatHistoryPage page = service.getPage("s1", null,
+                new HistoryCursor(T0.minusSeconds(1), 0).encode(), 10);
+
+        assertThat(page.getMessages()).hasSize(2);
+        assertThat(page.isHasOlder()).isFalse();
+        assertThat(page.isHasNewer()).isFalse();
+    }
+
+    private static ChatMessageDTO message(long id, LocalDateTime timestamp) {
+        return new ChatMessageDTO(id, "m" + id, "USER", "TEXT", timestamp, null);
+    }
+}
@@ -0,0 +1,43 @@
+package com.chatbot.service;
+
+import com.chatbot.service.ChatMessagePartitionMaintenance.Partition;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatMessagePartitionMaintenanceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 17);
+
+    @Test
+    void splitsUpcomingMonthsOffMaxPartition() {
+        List<Partition> partitions = List.of(
+                new Partition("p202610", LocalDateTime.of(2026, 11, 1, 0, 0)),
+                new Partition("pmax", null));
+
+        assertThat(ChatMessagePartitionMaintenance.plan(partitions, TODAY, 2, 0)).containsExactly(
+                "ALTER TABLE chat_messages REORGANIZE PARTITION pmax INTO ("
+                        + "PARTITION p202611 VALUES LESS THAN ('2026-12-01 00:00:00'), "
+                        + "PARTITION p202612 VALUES LESS THAN ('2027-01-01 00:00:00'), "
+                        + "PARTITION pmax VALUES LESS THAN (MAXVALUE))");
+    }
+
+    @Test
+    void dropsMonthsPastRetention() {
+        List<Partition> partitions = List.of(
+                new Partition("p202607", LocalDateTime.of(2026, 8, 1, 0, 0)),
+                new Partition("p202608", LocalDateTime.of(2026, 9, 1, 0, 0)),
+                new Partition("p202609", LocalDateTime.of(2026, 10, 1, 0, 0)),
+                new Partition("p202610", LocalDateTime.of(2026, 11, 1, 0, 0)),
+                new Partition("p202611", LocalDateTime.of(2026, 12, 1, 0, 0)),
+                new Partition("pmax", null));
+
+        assertThat(ChatMessagePartitionMaintenance.plan(partitions, TODAY, 1, 2))
+                .containsExactly("ALTER TABLE chat_messages DROP PARTITION p202607");
+        assertThat(ChatMessagePartitionMaintenance.plan(partitions, TODAY, 1, 0)).isEmpty();
+    }
+}
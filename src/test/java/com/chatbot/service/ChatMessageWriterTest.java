@@ -0,0 +1,87 @@
+package com.chatbot.service;
+
+import com.chatbot.config.WriteBehindProperties;
+import com.chatbot.dto.ChatMessageDTO;
+import com.chatbot.entity.ChatMessage;
+import com.chatbot.repository.ChatMessageRepository;
+import com.chatbot.repository.JpaMessageStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Write-behind against the embedded database; the writer commits its own transactions.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ChatMessageWriterTest {
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void storesTheRestOfABatchAroundAPoisonMessage() {
+        WriteBehindProperties properties = new WriteBehindProperties();
+        properties.setEnabled(true);
+        properties.setDurability(WriteBehindProperties.Durability.ENQUEUE);
+        ChatMessageWriter writer = new ChatMessageWriter(new JpaMessageStore(chatMessageRepository),
+                mock(MessageStreamHub.class), properties, transactionManager, new SimpleMeterRegistry());
+        writer.start();
+
+        // content is NOT NULL, so the batch insert fails and is retried one by one
+        writer.saveAll(List.of(message("poison-batch", "first"), message("poison-batch", null),
+                message("poison-batch", "third")));
+        writer.stop();
+
+        assertThat(chatMessageRepository.findHistory("poison-batch"))
+                .extracting(ChatMessageDTO::getContent)
+                .containsExactly("first", "third");
+    }
+
+    @Test
+    void failedFlushAfterCommitFailsAwaitFlushed() {
+        WriteBehindProperties properties = new WriteBehindProperties();
+        properties.setEnabled(true);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ChatMessageWriter writer = new ChatMessageWriter(new JpaMessageStore(chatMessageRepository),
+                mock(MessageStreamHub.class), properties, transactionManager, meterRegistry);
+        writer.start();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                writer.saveAll(List.of(message("flush-after-commit", "first"), message("flush-after-commit", null))));
+        assertThatThrownBy(writer::awaitFlushed).isInstanceOf(IllegalStateException.class);
+        // Forgotten once reported
+        writer.awaitFlushed();
+
+        assertThat(chatMessageRepository.findHistory("flush-after-commit"))
+                .extracting(ChatMessageDTO::getContent)
+                .containsExactly("first");
+        assertThat(meterRegistry.counter("chat.messages.write_behind.dropped").count()).isEqualTo(1);
+        writer.stop();
+    }
+
+    private static ChatMessage message(String sessionId, String content) {
+        return ChatMessage.builder()
+                .sessionId(sessionId)
+                .content(content)
+                .senderType(ChatMessage.SenderType.USER)
+                .messageType(ChatMessage.MessageType.TEXT)
+                .build();
+    }
+}
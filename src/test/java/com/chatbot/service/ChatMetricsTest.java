@@ -0,0 +1,109 @@
+package com.chatbot.service;
+
+import com.chatbot.dto.KnowledgeBaseDocument;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ChatMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ChatMetrics metrics = new ChatMetrics(meterRegistry, mock(ActiveSessionRegistry.class));
+    private final TransactionTemplate transaction = new TransactionTemplate(new NoOpTransactionManager());
+
+    @Test
+    void timesEachCommitOnceAndNotItsAfterCommitWork() {
+        transaction.executeWithoutResult(status -> {
+            for (int i = 0; i < 3; i++) {
+                metrics.timeCommit();
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    sleep(200);
+                }
+            });
+        });
+        transaction.executeWithoutResult(status -> metrics.timeCommit());
+
+        Timer commit = meterRegistry.get("chat.process.stage").tag("stage", "commit").timer();
+        assertThat(commit.count()).isEqualTo(2);
+        assertThat(commit.max(TimeUnit.MILLISECONDS)).isLessThan(200);
+    }
+
+    @Test
+    void doesNotTimeRolledBackTransactions() {
+        transaction.executeWithoutResult(status -> {
+            metrics.timeCommit();
+            status.setRollbackOnly();
+        });
+
+        assertThat(meterRegistry.get("chat.process.stage").tag("stage", "commit").timer().count()).isZero();
+    }
+
+    @Test
+    void dropsIntentSeriesOfAReplacedKnowledgeBase() {
+        KnowledgeBase first = knowledgeBase(1, "greeting", "hello");
+        KnowledgeBase second = knowledgeBase(2, "pricing", "price");
+        metrics.countIntents(first.match("hello"), first);
+        metrics.countIntents(first.match("nothing"), first);
+
+        metrics.countIntents(second.match("price"), second);
+
+        assertThat(meterRegistry.find("chat.messages.intent").counters())
+                .extracting(counter -> counter.getId().getTag("intent"))
+                .containsExactlyInAnyOrder("none", "pricing");
+    }
+
+    private static KnowledgeBase knowledgeBase(long version, String intent, String keyword) {
+        KnowledgeBaseDocument.Intent entry = new KnowledgeBaseDocument.Intent();
+        entry.setName(intent);
+        entry.setKeywords(List.of(keyword));
+        KnowledgeBaseDocument document = new KnowledgeBaseDocument();
+        document.setWelcome("Hi");
+        document.setFallback("Sorry");
+        document.setIntents(List.of(entry));
+        return KnowledgeBase.compile(document, new ObjectMapper(), version, "test");
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.chatbot.service;
+
+import com.chatbot.config.KnowledgeBaseProperties;
+import com.chatbot.dto.CannedResponse;
+import com.chatbot.dto.ChatResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatResponseEncoderTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+    private final KnowledgeBase catalog = new ResponseCatalog(objectMapper, new KnowledgeBaseProperties(),
+            new DefaultResourceLoader(), new SimpleMeterRegistry()).current();
+    private final ChatResponseEncoder encoder = new ChatResponseEncoder(objectMapper);
+
+    @Test
+    void cannedResponsesEncodeExactlyLikeJackson() throws Exception {
+        for (String intent : List.of("greeting", "pricing", "support", "contact", "thanks", "bye")) {
+            CannedResponse canned = catalog.get(intent);
+            ChatResponse response = new ChatResponse();
+            response.setSessionId("session-\"1\"");
+            response.setTimestamp(LocalDateTime.of(2025, 3, 1, 10, 15, 30, 123_000_000));
+            response.setStatus("bye".equals(intent) ? "COMPLETED" : "ACTIVE");
+            response.setBotResponse(canned.getBotResponse());
+            response.setQuickReplies(canned.getQuickReplies());
+            response.setCanned(canned);
+
+            assertThat(new String(encoder.encode(response), StandardCharsets.UTF_8))
+                    .as(intent)
+                    .isEqualTo(new String(objectMapper.writeValueAsBytes(response), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void modifiedResponseFallsBackToJackson() throws Exception {
+        CannedResponse canned = catalog.get("pricing");
+        ChatResponse response = new ChatResponse();
+        response.setSessionId("s1");
+        response.setTimestamp(LocalDateTime.now());
+        response.setStatus("ACTIVE");
+        response.setBotResponse("Something else");
+        response.setQuickReplies(canned.getQuickReplies());
+        response.setCanned(canned);
+
+        assertThat(new String(encoder.encode(response), StandardCharsets.UTF_8))
+                .isEqualTo(new String(objectMapper.writeValueAsBytes(response), StandardCharsets.UTF_8))
+                .contains("Something else");
+    }
+}
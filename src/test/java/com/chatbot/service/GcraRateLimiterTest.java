@@ -0,0 +1,55 @@
+package com.chatbot.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GcraRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+
+    @Test
+    void admitsBurstThenSustainedRate() {
+        GcraRateLimiter limiter = new GcraRateLimiter(10, 3, 1000, clock::get);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("user"));
+        }
+        long wait = limiter.tryAcquire("user");
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), wait);
+        // Other keys have their own bucket
+        assertEquals(0, limiter.tryAcquire("other"));
+
+        clock.addAndGet(wait);
+        assertEquals(0, limiter.tryAcquire("user"));
+        assertTrue(limiter.tryAcquire("user") > 0);
+    }
+
+    @Test
+    void refillsAfterQuietPeriod() {
+        GcraRateLimiter limiter = new GcraRateLimiter(2, 2, 1000, clock::get);
+        assertEquals(0, limiter.tryAcquire("user"));
+        assertEquals(0, limiter.tryAcquire("user"));
+        assertTrue(limiter.tryAcquire("user") > 0);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertEquals(0, limiter.tryAcquire("user"));
+        assertEquals(0, limiter.tryAcquire("user"));
+        assertTrue(limiter.tryAcquire("user") > 0);
+    }
+
+    @Test
+    void refundGivesBackTheLastRequest() {
+        GcraRateLimiter limiter = new GcraRateLimiter(10, 2, 1000, clock::get);
+        assertEquals(0, limiter.tryAcquire("user"));
+        assertEquals(0, limiter.tryAcquire("user"));
+        assertTrue(limiter.tryAcquire("user") > 0);
+
+        limiter.refund("user");
+        assertEquals(0, limiter.tryAcquire("user"));
+        assertTrue(limiter.tryAcquire("user") > 0);
+    }
+}
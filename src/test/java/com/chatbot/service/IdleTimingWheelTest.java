@@ -0,0 +1,59 @@
+package com.chatbot.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdleTimingWheelTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    void expiresKeysIdleForTheTimeout() {
+        IdleTimingWheel wheel = new IdleTimingWheel(1_000, 10_000, START);
+        wheel.touch("a", START);
+        wheel.touch("b", START + 4_000);
+
+        assertThat(wheel.advance(START + 9_000)).isEmpty();
+        assertThat(wheel.advance(START + 11_000)).containsExactly("a");
+        assertThat(wheel.advance(START + 15_000)).containsExactly("b");
+    }
+
+    @Test
+    void activityPostponesExpiry() {
+        IdleTimingWheel wheel = new IdleTimingWheel(1_000, 10_000, START);
+        wheel.touch("a", START);
+        wheel.touch("a", START + 8_000);
+
+        assertThat(wheel.advance(START + 12_000)).isEmpty();
+        assertThat(wheel.advance(START + 19_000)).containsExactly("a");
+        assertThat(wheel.size()).isEqualTo(1);
+    }
+
+    @Test
+    void forgottenKeysAreDropped() {
+        IdleTimingWheel wheel = new IdleTimingWheel(1_000, 10_000, START);
+        wheel.touch("a", START);
+        wheel.touch("b", START);
+        wheel.forget("a");
+
+        assertThat(wheel.advance(START + 11_000)).containsExactly("b");
+        // Activity after the cutoff keeps the key
+        wheel.touch("b", START + 11_000);
+        assertThat(wheel.forget("b", START)).isFalse();
+        assertThat(wheel.forget("b", START + 11_000)).isTrue();
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void catchesUpAfterLongPause() {
+        IdleTimingWheel wheel = new IdleTimingWheel(1_000, 10_000, START);
+        for (int i = 0; i < 100; i++) {
+            wheel.touch("s" + i, START + i * 100L);
+        }
+
+        assertThat(wheel.advance(START + 60_000)).hasSize(100);
+        wheel.retry("s1");
+        assertThat(wheel.advance(START + 61_000)).containsExactly("s1");
+    }
+}
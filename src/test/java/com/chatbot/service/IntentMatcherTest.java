@@ -0,0 +1,67 @@
+package com.chatbot.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IntentMatcherTest {
+
+    private final IntentMatcher matcher = IntentMatcher.builder()
+            .intent("greeting", "hello", "hi", "hey", "good morning", "good afternoon")
+            .intent("pricing", "price", "cost", "how much", "fee", "charges")
+            .intent("support", "help", "support", "issue", "problem", "error")
+            .intent("contact", "contact", "email", "phone", "call", "speak to human")
+            .intent("thanks", "thank", "thanks", "appreciate")
+            .intent("bye", "bye", "goodbye", "see you", "later")
+            .build();
+
+    @Test
+    void respectsPriorityAndReportsAllMatches() {
+        IntentMatch match = matcher.match("Thanks, and how MUCH is the Pro plan?");
+
+        assertThat(match.getPrimary()).isEqualTo("pricing");
+        assertThat(match.getMatched()).containsExactly("pricing", "thanks");
+        assertThat(match.matches("thanks")).isTrue();
+        assertThat(match.matches("bye")).isFalse();
+    }
+
+    @Test
+    void returnsNullWhenNothingMatches() {
+        assertThat(matcher.classify("xyz")).isNull();
+        assertThat(matcher.classify("")).isNull();
+        assertThat(matcher.classify(null)).isNull();
+    }
+
+    @Test
+    void agreesWithLegacyRegexChain() {
+        Map<String, Pattern> legacy = new LinkedHashMap<>();
+        legacy.put("greeting", Pattern.compile("(?i)(hello|hi|hey|good morning|good afternoon)"));
+        legacy.put("pricing", Pattern.compile("(?i)(price|cost|how much|fee|charges)"));
+        legacy.put("support", Pattern.compile("(?i)(help|support|issue|problem|error)"));
+        legacy.put("contact", Pattern.compile("(?i)(contact|email|phone|call|speak to human)"));
+        legacy.put("thanks", Pattern.compile("(?i)(thank|thanks|appreciate)"));
+        legacy.put("bye", Pattern.compile("(?i)(bye|goodbye|see you|later)"));
+
+        List<String> corpus = List.of(
+                "Hello there", "this is something", "What does it COST?", "I have an ERROR",
+                "speak to human please", "goodbye", "see you later", "good afternoon!",
+                "fees and charges", "ok", "shipping to Munich", "cal", "thank you so much",
+                "hehey", "éhello", "issue with my phone", "speak to a human");
+
+        for (String message : corpus) {
+            String expected = null;
+            for (Map.Entry<String, Pattern> entry : legacy.entrySet()) {
+                if (entry.getValue().matcher(message.toLowerCase()).find()) {
+                    expected = entry.getKey();
+                    break;
+                }
+            }
+            assertThat(matcher.classify(message)).as(message).isEqualTo(expected);
+        }
+    }
+}
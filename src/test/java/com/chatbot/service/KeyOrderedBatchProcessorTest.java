@@ -0,0 +1,68 @@
+package com.chatbot.service;
+
+import com.chatbot.config.KafkaConsumerProperties;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeyOrderedBatchProcessorTest {
+
+    private final KeyOrderedBatchProcessor processor = newProcessor(4);
+
+    @AfterEach
+    void shutdown() {
+        processor.shutdown();
+    }
+
+    @Test
+    void keepsOrderPerKeyAcrossWorkers() {
+        List<ConsumerRecord<String, Integer>> records = new ArrayList<>();
+        for (int offset = 0; offset < 2000; offset++) {
+            records.add(new ConsumerRecord<>("chat-messages", 0, offset, "session-" + (offset % 7), offset));
+        }
+        Map<String, List<Integer>> seen = new ConcurrentHashMap<>();
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        processor.process(records, record -> {
+            threads.add(Thread.currentThread().getName());
+            seen.computeIfAbsent(record.key(), key -> new CopyOnWriteArrayList<>()).add(record.value());
+        });
+
+        assertThat(seen).hasSize(7);
+        seen.values().forEach(values -> assertThat(values).isSorted().hasSizeGreaterThan(280));
+        assertThat(threads).allMatch(name -> name.startsWith("chat-kafka-worker-"));
+    }
+
+    @Test
+    void rethrowsFailureAfterBatchCompletes() {
+        List<ConsumerRecord<String, Integer>> records = List.of(
+                new ConsumerRecord<>("chat-messages", 0, 0, "a", 1),
+                new ConsumerRecord<>("chat-messages", 0, 1, "b", 2),
+                new ConsumerRecord<>("chat-messages", 0, 2, "c", 3));
+        List<Integer> handled = new CopyOnWriteArrayList<>();
+
+        assertThatThrownBy(() -> processor.process(records, record -> {
+            if (record.value() == 2) {
+                throw new IllegalStateException("boom");
+            }
+            handled.add(record.value());
+        })).isInstanceOf(IllegalStateException.class).hasMessage("boom");
+        assertThat(handled).containsExactlyInAnyOrder(1, 3);
+    }
+
+    private static KeyOrderedBatchProcessor newProcessor(int threads) {
+        KafkaConsumerProperties properties = new KafkaConsumerProperties();
+        properties.setWorkerThreads(threads);
+        return new KeyOrderedBatchProcessor(properties);
+    }
+}
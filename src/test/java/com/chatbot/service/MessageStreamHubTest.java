@@ -0,0 +1,204 @@
+package com.chatbot.service;
+
+import com.chatbot.config.StreamProperties;
+import com.chatbot.dto.ChatMessageDTO;
+import com.chatbot.entity.ChatMessage;
+import com.chatbot.repository.MessageStore;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class MessageStreamHubTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 10, 1, 12, 0);
+
+    private final MessageStore messageStore = mock(MessageStore.class);
+    private final StreamProperties properties = new StreamProperties();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private MessageStreamHub hub;
+
+    @AfterEach
+    void shutdown() {
+        if (hub != null) {
+            hub.shutdown();
+        }
+    }
+
+    @Test
+    void fansOutNewMessagesFromMemory() throws Exception {
+        hub = hub();
+        hub.publish(message("s1", 1));
+
+        RecordingSink first = new RecordingSink();
+        RecordingSink second = new RecordingSink();
+        hub.subscribe("s1", null, first);
+        hub.subscribe("s1", null, second);
+        RecordingSink other = new RecordingSink();
+        hub.subscribe("s2", null, other);
+        for (long id = 2; id <= 4; id++) {
+            hub.publish(message("s1", id));
+        }
+
+        assertThat(first.take(3)).extracting(MessageStreamHub.StreamEvent::id).containsExactly(2L, 3L, 4L);
+        assertThat(second.take(3)).extracting(MessageStreamHub.StreamEvent::id).containsExactly(2L, 3L, 4L);
+        assertThat(first.events.poll(100, TimeUnit.MILLISECONDS)).isNull();
+        assertThat(other.events).isEmpty();
+        verifyNoInteractions(messageStore);
+    }
+
+    @Test
+    void resumesFromReplayBufferOrAsksForResync() throws Exception {
+        properties.setReplaySize(3);
+        hub = hub();
+        hub.subscribe("s1", null, new RecordingSink());
+        for (long id = 1; id <= 5; id++) {
+            hub.publish(message("s1", id));
+        }
+        // What the store holds when the first resume seeds the buffer: the latest four, newest first
+        when(messageStore.findHistoryLatest(eq("s1"), anyInt()))
+                .thenReturn(List.of(dto(5), dto(4), dto(3), dto(2)));
+
+        RecordingSink resumed = new RecordingSink();
+        hub.subscribe("s1", 3L, resumed);
+        assertThat(resumed.take(2)).extracting(MessageStreamHub.StreamEvent::id).containsExactly(4L, 5L);
+
+        RecordingSink covered = new RecordingSink();
+        hub.subscribe("s1", 2L, covered);
+        assertThat(covered.take(3)).extracting(MessageStreamHub.StreamEvent::id).containsExactly(3L, 4L, 5L);
+
+        RecordingSink tooOld = new RecordingSink();
+        hub.subscribe("s1", 1L, tooOld);
+        assertThat(tooOld.take(1)).extracting(MessageStreamHub.StreamEvent::name)
+                .containsExactly(MessageStreamHub.RESYNC);
+
+        // Live events continue after the replay
+        hub.publish(message("s1", 6));
+        assertThat(resumed.take(1)).extracting(MessageStreamHub.StreamEvent::id).containsExactly(6L);
+        verify(messageStore, times(1)).findHistoryLatest("s1", 4);
+        assertThat(registry.get("chat.stream.resyncs").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void deliversMessagesWhoseIdsAreNotAscending() throws Exception {
+        hub = hub();
+        // Pooled ids: this instance allocates from 51, another instance's message got 3
+        when(messageStore.findHistoryLatest(eq("s1"), anyInt())).thenReturn(List.of(dto(3), dto(51)));
+        RecordingSink sink = new RecordingSink();
+        hub.subscribe("s1", 51L, sink);
+
+        // 3 is already in the buffer from the seed read; 52 and 4 are new
+        hub.publish(message("s1", 3));
+        hub.publish(message("s1", 52));
+        hub.publish(message("s1", 4));
+
+        assertThat(sink.take(1)).extracting(MessageStreamHub.StreamEvent::id).containsExactly(3L);
+        assertThat(sink.take(2)).extracting(MessageStreamHub.StreamEvent::id).containsExactly(52L, 4L);
+        assertThat(sink.events.poll(100, TimeUnit.MILLISECONDS)).isNull();
+
+        RecordingSink resumed = new RecordingSink();
+        hub.subscribe("s1", 52L, resumed);
+        assertThat(resumed.take(1)).extracting(MessageStreamHub.StreamEvent::id).containsExactly(4L);
+    }
+
+    @Test
+    void disconnectsSubscribersThatFallBehind() throws Exception {
+        properties.setSubscriberQueueSize(2);
+        hub = hub();
+        CountDownLatch unblock = new CountDownLatch(1);
+        RecordingSink slow = new RecordingSink() {
+            @Override
+            public void send(MessageStreamHub.StreamEvent event) throws IOException {
+                try {
+                    unblock.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.send(event);
+            }
+        };
+        RecordingSink fast = new RecordingSink();
+        hub.subscribe("s1", null, slow);
+        hub.subscribe("s1", null, fast);
+
+        // Paced by the fast subscriber, which keeps up; the slow one is stuck on its first event
+        for (long id = 1; id <= 10; id++) {
+            hub.publish(message("s1", id));
+            assertThat(fast.take(1)).extracting(MessageStreamHub.StreamEvent::id).containsExactly(id);
+        }
+        assertThat(slow.closed.await(5, TimeUnit.SECONDS)).isTrue();
+        unblock.countDown();
+
+        assertThat(hub.subscribers()).isEqualTo(1);
+        assertThat(registry.get("chat.stream.dropped").counter().count()).isEqualTo(1);
+    }
+
+    private MessageStreamHub hub() {
+        return new MessageStreamHub(messageStore,
+                Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build(),
+                properties, registry);
+    }
+
+    private static ChatMessage message(String sessionId, long id) {
+        return ChatMessage.builder()
+                .id(id)
+                .sessionId(sessionId)
+                .content("m" + id)
+                .senderType(ChatMessage.SenderType.BOT)
+                .messageType(ChatMessage.MessageType.TEXT)
+                .timestamp(T0.plusSeconds(id))
+                .build();
+    }
+
+    private static ChatMessageDTO dto(long id) {
+        return new ChatMessageDTO(id, "m" + id, ChatMessage.SenderType.BOT, ChatMessage.MessageType.TEXT,
+                T0.plusSeconds(id));
+    }
+
+    private static class RecordingSink implements MessageStreamHub.Sink {
+
+        final BlockingQueue<MessageStreamHub.StreamEvent> events = new LinkedBlockingQueue<>();
+        final CountDownLatch closed = new CountDownLatch(1);
+
+        @Override
+        public void send(MessageStreamHub.StreamEvent event) throws IOException {
+            events.add(event);
+        }
+
+        @Override
+        public void heartbeat() {
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+
+        List<MessageStreamHub.StreamEvent> take(int count) throws InterruptedException {
+            List<MessageStreamHub.StreamEvent> taken = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                MessageStreamHub.StreamEvent event = events.poll(5, TimeUnit.SECONDS);
+                if (event == null) {
+                    break;
+                }
+                taken.add(event);
+            }
+            return taken;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.chatbot.service;
+
+import com.chatbot.dto.ChatMessageDTO;
+import com.chatbot.entity.ChatMessage;
+import com.chatbot.repository.ChatMessageRepository;
+import com.chatbot.repository.ChatReadWatermarkRepository;
+import com.chatbot.repository.JpaMessageStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ReadWatermarkServiceTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 10, 1, 12, 0);
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Autowired
+    private ChatReadWatermarkRepository watermarkRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void messageStoredAfterMarkReadIsUnreadDespiteALowerId() {
+        ReadWatermarkService service = new ReadWatermarkService(watermarkRepository,
+                new JpaMessageStore(chatMessageRepository));
+        // Ids from two instances' blocks: the later message has the lower id
+        insert(5_000_100, "first", T0);
+        insert(5_000_200, "second", T0.plusSeconds(1));
+        service.markRead("wm", ChatMessage.SenderType.USER);
+        insert(5_000_050, "third", T0.plusSeconds(2));
+
+        assertThat(chatMessageRepository.countUnreadUserMessages("wm")).isEqualTo(1);
+        assertThat(service.getWatermarks("wm").apply(chatMessageRepository.findHistory("wm")))
+                .extracting(ChatMessageDTO::getContent, ChatMessageDTO::getIsRead)
+                .containsExactly(tuple("first", true),
+                        tuple("second", true),
+                        tuple("third", false));
+
+        service.markRead("wm", ChatMessage.SenderType.USER);
+        assertThat(chatMessageRepository.countUnreadUserMessages("wm")).isZero();
+    }
+
+    private void insert(long id, String content, LocalDateTime timestamp) {
+        jdbcTemplate.update("INSERT INTO chat_messages (id, session_id, message_type, content, sender_type, timestamp, " +
+                "is_read) VALUES (?, 'wm', 'TEXT', ?, 'USER', ?, FALSE)", id, content, timestamp);
+    }
+}
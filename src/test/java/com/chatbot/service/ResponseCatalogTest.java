@@ -0,0 +1,112 @@
+package com.chatbot.service;
+
+import com.chatbot.config.KnowledgeBaseProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResponseCatalogTest {
+
+    private final KnowledgeBaseProperties properties = new KnowledgeBaseProperties();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private ResponseCatalog catalog;
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void stop() {
+        if (catalog != null) {
+            catalog.stop();
+        }
+    }
+
+    @Test
+    void compilesBundledKnowledgeBase() {
+        KnowledgeBase knowledgeBase = catalog().current();
+
+        assertThat(knowledgeBase.match("How much is the Pro plan?").getPrimary()).isEqualTo("pricing");
+        assertThat(knowledgeBase.get("pricing").getQuickReplies()).extracting("payload")
+                .containsExactly("basic plan", "pro plan", "enterprise plan", "compare plans");
+        assertThat(knowledgeBase.get("bye").isEndsSession()).isTrue();
+        assertThatThrownBy(() -> knowledgeBase.get("pricing").getQuickReplies().clear())
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThat(knowledgeBase.get("product")).isNull();
+        assertThat(knowledgeBase.getDefaultResponse("refund")).startsWith("I understand you're asking about: \"refund\"");
+    }
+
+    @Test
+    void swapsInValidFilesAndKeepsTheLastGoodOne() throws IOException {
+        Path file = write(knowledgeBase("hello", "Hi there"));
+        properties.setLocation(file.toUri().toString());
+        KnowledgeBase first = catalog().current();
+
+        write(knowledgeBase("hola", "Hola"));
+        KnowledgeBase second = catalog.reload();
+        assertThat(catalog.current()).isSameAs(second);
+        assertThat(second.getVersion()).isEqualTo(2);
+        assertThat(second.match("hola amigo").getPrimary()).isEqualTo("greeting");
+        assertThat(second.get("greeting").getBotResponse()).isEqualTo("Hola");
+        // Snapshots are never changed in place
+        assertThat(first.match("hola amigo").isEmpty()).isTrue();
+        assertThat(first.get("greeting").getBotResponse()).isEqualTo("Hi there");
+
+        write(knowledgeBase("hey", "Hey").replace("quickReplies: main", "quickReplies: missing"));
+        assertThatThrownBy(catalog::reload).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Unknown quick-reply set: missing");
+        assertThat(catalog.current()).isSameAs(second);
+        assertThat(registry.get("chat.knowledge_base.reloads").tag("result", "failure").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void reloadsWhenTheFileChanges() throws Exception {
+        Path file = write(knowledgeBase("hello", "Hi there"));
+        properties.setLocation(file.toUri().toString());
+        properties.setSettleDelay(Duration.ofMillis(50));
+        catalog().start();
+
+        write(knowledgeBase("hola", "Hola"));
+        long deadline = System.nanoTime() + Duration.ofSeconds(20).toNanos();
+        while (catalog.current().getVersion() == 1 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(catalog.current().get("greeting").getBotResponse()).isEqualTo("Hola");
+    }
+
+    private ResponseCatalog catalog() {
+        catalog = new ResponseCatalog(new ObjectMapper(), properties, new DefaultResourceLoader(), registry);
+        return catalog;
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.writeString(directory.resolve("knowledge-base.yml"), content);
+    }
+
+    private static String knowledgeBase(String keyword, String response) {
+        return """
+                welcome: Welcome
+                fallback: "Sorry, {message}?"
+                fallbackQuickReplies: main
+                quickReplySets:
+                  main:
+                    - { title: Pricing, payload: pricing }
+                intents:
+                  - name: greeting
+                    keywords: [ %s ]
+                    response: %s
+                    quickReplies: main
+                """.formatted(keyword, response);
+    }
+}
@@ -0,0 +1,152 @@
+package com.chatbot.service;
+
+import com.chatbot.config.SessionExecutorProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionSerialExecutorTest {
+
+    private static final int SESSIONS = 8;
+    private static final int THREADS = 16;
+    private static final int MESSAGES_PER_THREAD = 200;
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void concurrentGetOrCreateNeverDuplicatesAndNeverOverlaps() throws Exception {
+        SessionSerialExecutor executor = executor(Duration.ofSeconds(30));
+        // Check-then-insert like ChatBotService's session lookup, with a window for the race
+        Map<String, Integer> sessions = new ConcurrentHashMap<>();
+        Map<String, AtomicInteger> running = new ConcurrentHashMap<>();
+        AtomicInteger duplicates = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        CyclicBarrier start = new CyclicBarrier(THREADS);
+
+        List<Future<?>> senders = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            senders.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < MESSAGES_PER_THREAD; i++) {
+                    String sessionId = "s" + ThreadLocalRandom.current().nextInt(SESSIONS);
+                    executor.execute(sessionId, () -> {
+                        AtomicInteger active = running.computeIfAbsent(sessionId, key -> new AtomicInteger());
+                        if (active.incrementAndGet() > 1) {
+                            overlaps.incrementAndGet();
+                        }
+                        if (!sessions.containsKey(sessionId)) {
+                            Thread.yield();
+                            if (sessions.putIfAbsent(sessionId, 1) != null) {
+                                duplicates.incrementAndGet();
+                            }
+                        } else {
+                            sessions.merge(sessionId, 1, Integer::sum);
+                        }
+                        active.decrementAndGet();
+                        return null;
+                    });
+                }
+                return null;
+            }));
+        }
+        for (Future<?> sender : senders) {
+            sender.get(60, TimeUnit.SECONDS);
+        }
+
+        assertEquals(0, duplicates.get());
+        assertEquals(0, overlaps.get());
+        assertEquals(THREADS * MESSAGES_PER_THREAD, sessions.values().stream().mapToInt(Integer::intValue).sum());
+        assertEquals(0, executor.size(), "idle sessions must not keep a mailbox");
+    }
+
+    @Test
+    void submittedWorkRunsInArrivalOrderPerSession() throws Exception {
+        SessionSerialExecutor executor = executor(Duration.ofSeconds(30));
+        Map<String, List<Integer>> processed = new ConcurrentHashMap<>();
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+
+        // One producer per session submits faster than the multi-threaded pool drains
+        for (int i = 0; i < MESSAGES_PER_THREAD; i++) {
+            for (int s = 0; s < SESSIONS; s++) {
+                String sessionId = "s" + s;
+                int sequence = i;
+                results.add(executor.submit(sessionId, () -> {
+                    processed.computeIfAbsent(sessionId, key -> Collections.synchronizedList(new ArrayList<>()))
+                            .add(sequence);
+                    return sequence;
+                }, pool));
+            }
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(60, TimeUnit.SECONDS);
+
+        for (int s = 0; s < SESSIONS; s++) {
+            List<Integer> sequence = processed.get("s" + s);
+            assertEquals(MESSAGES_PER_THREAD, sequence.size());
+            for (int i = 0; i < sequence.size(); i++) {
+                assertEquals(i, sequence.get(i), "session s" + s + " reordered");
+            }
+        }
+        // Turns are released just after the results complete
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (executor.size() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(0, executor.size());
+    }
+
+    @Test
+    void timedOutWaiterDoesNotLetLaterWorkOvertake() throws Exception {
+        SessionSerialExecutor executor = executor(Duration.ofMillis(50));
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+
+        Future<?> first = pool.submit(() -> executor.execute("s1", () -> {
+            holding.countDown();
+            await(release);
+            order.add("first");
+            return null;
+        }));
+        holding.await();
+
+        assertThrows(RejectedExecutionException.class,
+                () -> executor.execute("s1", () -> order.add("timed out")));
+        CompletableFuture<Boolean> third = executor.submit("s1", () -> order.add("third"), pool);
+        // Other sessions are not held up
+        assertEquals("other", executor.execute("s2", () -> "other"));
+
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        third.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("first", "third"), order);
+    }
+
+    private static SessionSerialExecutor executor(Duration waitTimeout) {
+        SessionExecutorProperties properties = new SessionExecutorProperties();
+        properties.setWaitTimeout(waitTimeout);
+        return new SessionSerialExecutor(properties, new SimpleMeterRegistry());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
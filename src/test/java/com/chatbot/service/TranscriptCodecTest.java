@@ -0,0 +1,44 @@
+package com.chatbot.service;
+
+import com.chatbot.dto.ChatMessageDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TranscriptCodecTest {
+
+    @Test
+    void roundTripsAndCompresses() {
+        List<ChatMessageDTO> messages = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.of(2026, 9, 1, 12, 0, 0, 123_456_000);
+        for (int i = 0; i < 40; i++) {
+            messages.add(new ChatMessageDTO((long) 1000 + i, i % 2 == 0 ? "How much does the Pro plan cost? ✓"
+                    : "Here's our pricing information:\n\n *Basic Plan:* $9.99/month", i % 2 == 0 ? "USER" : "BOT",
+                    "TEXT", start.plusSeconds(i), null));
+        }
+        messages.add(new ChatMessageDTO(2000L, "", "AGENT", "SYSTEM", null, null));
+
+        TranscriptCodec.Encoded encoded = TranscriptCodec.encode(messages, 6);
+
+        assertThat(TranscriptCodec.decode(encoded.data())).isEqualTo(messages);
+        assertThat(encoded.data().length).isLessThan(encoded.rawBytes() / 4);
+        assertThatThrownBy(() -> TranscriptCodec.decode(new byte[]{1, 2, 3}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void mergeKeepsTranscriptOrderAndDropsDuplicates() {
+        LocalDateTime t = LocalDateTime.of(2026, 9, 1, 12, 0);
+        ChatMessageDTO first = new ChatMessageDTO(1L, "a", "USER", "TEXT", t, null);
+        ChatMessageDTO second = new ChatMessageDTO(2L, "b", "BOT", "TEXT", t.plusSeconds(1), null);
+        ChatMessageDTO late = new ChatMessageDTO(3L, "c", "USER", "TEXT", t.plusDays(40), null);
+
+        assertThat(TranscriptArchiveService.merge(List.of(first, second), List.of(second, late)))
+                .containsExactly(first, second, late);
+    }
+}